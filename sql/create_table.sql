@@ -91,4 +91,101 @@ ALTER TABLE picture
 CREATE INDEX idx_spaceId ON picture (spaceId);
 
 ALTER TABLE picture
-    ADD COLUMN picColor varchar(16) null comment '图片主色调';
\ No newline at end of file
+    ADD COLUMN picColor varchar(16) null comment '图片主色调';
+
+-- 图片内容哈希，相同内容的图片复用对象存储中的文件
+ALTER TABLE picture
+    ADD COLUMN contentHash char(64) null comment '图片内容哈希（SHA-256）';
+CREATE INDEX idx_contentHash ON picture (contentHash);
+
+-- 图片抓取任务表
+create table if not exists picture_crawl_job
+(
+    id           bigint auto_increment comment 'id' primary key,
+    q            varchar(256)                       not null comment '搜索词',
+    namePrefix   varchar(128)                       null comment '图片名称前缀',
+    category     varchar(64)                        null comment '分类',
+    tags         varchar(512)                       null comment '标签（JSON 数组）',
+    spaceId      bigint                             null comment '空间 id（为空表示公共图库）',
+    targetCount  int      default 0                 not null comment '目标抓取数量',
+    batchSize    int      default 10                not null comment '每批抓取数量',
+    nextOffset   int      default 0                 not null comment '下一批的抓取起始位置',
+    successCount int      default 0                 not null comment '成功数量',
+    failCount    int      default 0                 not null comment '失败数量',
+    status       tinyint  default 0                 not null comment '任务状态：0-等待中; 1-执行中; 2-已完成; 3-已取消; 4-失败',
+    errorMessage varchar(512)                       null comment '错误信息',
+    owner        varchar(64)                        null comment '执行者（认领任务时生成的标识）',
+    userId       bigint                             not null comment '创建用户 id',
+    createTime   datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime   datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间（兼作执行心跳）',
+    isDelete     tinyint  default 0                 not null comment '是否删除',
+    index idx_status (status),  -- 提升定时恢复任务的查询效率
+    index idx_userId (userId)
+) comment '图片抓取任务' collate = utf8mb4_unicode_ci;
+
+-- 图片抓取失败记录表
+create table if not exists picture_crawl_failure
+(
+    id         bigint auto_increment comment 'id' primary key,
+    jobId      bigint                             not null comment '抓取任务 id',
+    url        varchar(1024)                      not null comment '图片地址',
+    reason     varchar(512)                       null comment '失败原因',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    index idx_jobId (jobId)
+) comment '图片抓取失败记录' collate = utf8mb4_unicode_ci;
+
+-- 响应式尺寸图片（上传完成后异步生成）
+ALTER TABLE picture
+    ADD COLUMN renditions varchar(2048) null comment '响应式尺寸图片（JSON 数组，为空表示尚未生成）';
+
+-- 游标分页：公开图库按 (spaceId, reviewStatus) 过滤后按时间排序，二级索引隐含主键 id，索引顺序即 (时间, id)
+CREATE INDEX idx_spaceId_reviewStatus_createTime ON picture (spaceId, reviewStatus, createTime);
+CREATE INDEX idx_spaceId_reviewStatus_editTime ON picture (spaceId, reviewStatus, editTime);
+
+-- 图片标签表（与 picture.tags 同步维护，替代对 JSON 字段的 LIKE 查询）
+create table if not exists picture_tag
+(
+    id         bigint auto_increment comment 'id' primary key,
+    pictureId  bigint                             not null comment '图片 id',
+    tag        varchar(128)                       not null comment '标签',
+    spaceId    bigint                             null comment '空间 id（冗余自图片，为空表示公共图库）',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    unique key uk_pictureId_tag (pictureId, tag),
+    index idx_tag_pictureId (tag, pictureId), -- 按标签筛选图片（覆盖索引）
+    index idx_spaceId_tag (spaceId, tag)      -- 按空间统计标签
+) comment '图片标签' collate = utf8mb4_unicode_ci;
+
+-- 存量数据迁移（MySQL 8.0+）：展开未删除图片的 tags 字段
+INSERT IGNORE INTO picture_tag (pictureId, tag, spaceId)
+SELECT p.id, TRIM(jt.tag), p.spaceId
+FROM picture p,
+     JSON_TABLE(p.tags, '$[*]' COLUMNS (tag varchar(128) PATH '$')) jt
+WHERE p.isDelete = 0
+  AND JSON_VALID(p.tags)
+  AND TRIM(jt.tag) <> '';
+
+-- 图片文件引用计数表（相同内容的图片共用对象存储文件，最后一个引用释放时才删除文件）
+create table if not exists picture_object
+(
+    id         bigint auto_increment comment 'id' primary key,
+    url        varchar(512)                       not null comment '图片地址',
+    refCount   int      default 0                 not null comment '引用该文件的图片数量',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    unique key uk_url (url)
+) comment '图片文件引用计数' collate = utf8mb4_unicode_ci;
+
+-- 存量数据迁移：按未删除图片的地址统计引用数
+INSERT IGNORE INTO picture_object (url, refCount)
+SELECT url, COUNT(*)
+FROM picture
+WHERE isDelete = 0
+GROUP BY url;
+
+-- 名称、简介全文索引（ngram 分词支持中文，分词长度由 ngram_token_size 配置，默认 2）
+ALTER TABLE picture
+    ADD FULLTEXT INDEX ft_name_introduction (name, introduction) WITH PARSER ngram;
+
+-- 按更新时间增量同步（公开图库筛选索引）
+ALTER TABLE picture
+    ADD INDEX idx_updateTime (updateTime);
@@ -0,0 +1,36 @@
+package com.chg.pixCloud.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 本页数据
+     */
+    private List<T> records = Collections.emptyList();
+
+    /**
+     * 下一页游标，没有下一页时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 总数（仅在请求时统计，否则为 null）
+     */
+    private Long total;
+}
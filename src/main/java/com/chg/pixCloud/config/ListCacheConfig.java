@@ -0,0 +1,24 @@
+package com.chg.pixCloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 图片列表缓存配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.list-cache")
+@Data
+public class ListCacheConfig {
+
+    /**
+     * Redis 中的编码格式：binary-二进制（默认）；json-hutool JSON
+     */
+    private String codec = "binary";
+
+    /**
+     * 二进制编码的压缩阈值（字节），超过时压缩，小于等于 0 时不压缩
+     */
+    private int compressThreshold = 1024;
+}
@@ -0,0 +1,26 @@
+package com.chg.pixCloud.config;
+
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地对象存储配置（storage.type = local 时生效）
+ */
+@Configuration
+@ConfigurationProperties(prefix = "storage.local")
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+@Data
+public class LocalStorageConfig {
+
+    /**
+     * 存储根目录
+     */
+    private String rootPath = "storage";
+
+    /**
+     * 访问域名（包含访问本地文件的接口前缀）
+     */
+    private String host = "http://localhost:8080/api/file/local";
+}
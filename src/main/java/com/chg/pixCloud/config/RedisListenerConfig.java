@@ -0,0 +1,34 @@
+package com.chg.pixCloud.config;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 消息订阅配置
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    /**
+     * 缓存一致性消息订阅容器（与 Spring Session 的订阅容器分开）
+     * 使用单线程按顺序处理消息，订阅断开后每 3 秒重连
+     */
+    @Bean(destroyMethod = "destroy")
+    public RedisMessageListenerContainer cacheCoherenceListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.setTaskExecutor(new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024),
+                new NamedThreadFactory("cache-coherence-", true),
+                new ThreadPoolExecutor.CallerRunsPolicy()));
+        container.setRecoveryInterval(3000);
+        return container;
+    }
+}
@@ -0,0 +1,37 @@
+package com.chg.pixCloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 响应式尺寸图片配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.rendition")
+@Data
+public class RenditionConfig {
+
+    /**
+     * 是否在上传后生成
+     */
+    private boolean enabled = true;
+
+    /**
+     * 生成的宽度（只生成小于原图宽度的尺寸）
+     */
+    private List<Integer> widths = Arrays.asList(320, 640, 1024, 1600);
+
+    /**
+     * 生成的格式（使用 COS 数据万象时生效，本地存储按原图是否透明输出 png 或 jpg）
+     */
+    private String format = "webp";
+
+    /**
+     * 单张图片的最大尝试次数
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,29 @@
+package com.chg.pixCloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对象存储孤儿文件清理配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "storage.gc")
+@Data
+public class StorageGcConfig {
+
+    /**
+     * 是否开启定时清理
+     */
+    private boolean enabled = true;
+
+    /**
+     * 定时清理是否只生成报告而不删除
+     */
+    private boolean dryRun = false;
+
+    /**
+     * 宽限期（小时），最后修改时间在宽限期内的对象不清理（可能属于尚未提交的上传）
+     */
+    private int graceHours = 24;
+}
@@ -0,0 +1,107 @@
+package com.chg.pixCloud.config;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池配置
+ * 耗时的后台任务使用独立的有界线程池，与 Tomcat 请求线程隔离
+ */
+@Configuration
+public class ThreadPoolConfig {
+
+    /**
+     * 分片上传线程池：将分片并行转存到对象存储
+     * 每个排队任务都持有一个分片的数据（不超过上传文件大小上限），因此队列必须有界，队列满时直接拒绝
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor chunkUploadExecutor() {
+        return new ThreadPoolExecutor(8, 8, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(8),
+                new NamedThreadFactory("chunk-upload-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 批量导入线程池：并行抓取并上传图片，与请求线程隔离
+     * 队列满时由调用线程执行，自然形成背压
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor batchUploadExecutor() {
+        return new ThreadPoolExecutor(16, 16, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64),
+                new NamedThreadFactory("batch-upload-", false),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 图片抓取任务线程池：每个线程串行执行一个抓取任务（任务内部的图片由批量导入线程池并行上传）
+     * 队列满时拒绝，未能提交的任务保持等待状态，由定时恢复任务重新调度
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor crawlJobExecutor() {
+        return new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(16),
+                new NamedThreadFactory("crawl-job-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 抓取任务心跳线程：定时刷新执行中任务的更新时间，不受批次耗时及共享调度线程的影响
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledThreadPoolExecutor crawlJobHeartbeatScheduler() {
+        return new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("crawl-heartbeat-", true));
+    }
+
+    /**
+     * 缓存一致性总线发送线程：每 100 毫秒发送一次合并后的失效消息，不与共享调度线程上的耗时任务互相阻塞
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledThreadPoolExecutor cacheCoherenceScheduler() {
+        return new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("cache-coherence-", true));
+    }
+
+    /**
+     * 响应式尺寸图片生成线程池：上传完成后异步生成，与上传请求隔离
+     * 队列满时拒绝，未生成的图片由补偿任务处理
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor renditionExecutor() {
+        return new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(256),
+                new NamedThreadFactory("rendition-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 图片分析线程池：CPU 密集型任务，线程数与 CPU 核数一致
+     * 队列满时由调用线程执行，保证分析结果可用的同时限制并发解码占用的内存
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor imageAnalyzeExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(processors, processors, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(processors * 4),
+                new NamedThreadFactory("image-analyze-", false),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 列表缓存后台刷新线程池：热点缓存到期前在后台重新查询，请求继续使用旧数据
+     * 队列满时拒绝，未刷新的缓存由后续请求再次触发
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor listCacheRefreshExecutor() {
+        return new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64),
+                new NamedThreadFactory("list-cache-refresh-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,82 @@
+package com.chg.pixCloud.config;
+
+import com.chg.pixCloud.common.Constants;
+import com.chg.pixCloud.manager.upload.UploadAdmissionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 上传准入控制配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "upload.admission")
+@Data
+public class UploadAdmissionConfig {
+
+    /**
+     * 单节点同时处理的上传请求上限
+     */
+    private int maxConcurrent = 16;
+
+    /**
+     * 单个用户同时处理的上传请求上限（单节点，需允许分片上传的并行分片）
+     */
+    private int maxPerUser = 4;
+
+    /**
+     * 等待队列长度上限，队列满时直接拒绝
+     */
+    private int maxQueue = 32;
+
+    /**
+     * 排队等待的最长时间（毫秒）
+     */
+    private long waitTimeoutMillis = 3000;
+
+    /**
+     * 上传文件大小上限（字节），同时作为上传接口的文件大小校验、缓冲区容量上限及分片大小
+     */
+    private long maxFileSize = 5 * Constants.SIZE_1MB;
+
+    /**
+     * multipart 请求体中文件以外的开销上限（分隔符、表单字段等，字节）
+     */
+    private long multipartOverhead = 64 * 1024;
+
+    /**
+     * 请求体大小上限（字节），根据 Content-Length 在读取请求体之前拒绝
+     *
+     * @return 文件大小上限加上 multipart 开销
+     */
+    public long getMaxRequestSize() {
+        return maxFileSize + multipartOverhead;
+    }
+
+    /**
+     * 文件大小上限的描述，用于错误提示
+     *
+     * @return 如 5MB
+     */
+    public String getMaxFileSizeText() {
+        return maxFileSize / Constants.SIZE_1MB + "MB";
+    }
+
+    /**
+     * 注册上传准入过滤器，仅作用于会占用对象存储 I/O 的上传接口
+     * 需在 Spring Session 过滤器之后执行，以便读取登录用户
+     */
+    @Bean
+    public FilterRegistrationBean<UploadAdmissionFilter> uploadAdmissionFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<UploadAdmissionFilter> registrationBean =
+                new FilterRegistrationBean<>(new UploadAdmissionFilter(this, meterRegistry));
+        registrationBean.addUrlPatterns("/picture/upload", "/picture/upload/url",
+                "/picture/upload/chunk/part", "/picture/upload/chunk/complete");
+        registrationBean.setOrder(Ordered.LOWEST_PRECEDENCE - 100);
+        return registrationBean;
+    }
+}
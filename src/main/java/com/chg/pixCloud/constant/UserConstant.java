@@ -9,6 +9,11 @@ public interface UserConstant {
      */
     String USER_LOGIN_STATE = "user_login_state";
 
+    /**
+     * 当前请求已查询的登录用户（请求属性键，同一请求内只查询一次）
+     */
+    String LOGIN_USER_ATTRIBUTE = "pixcloud_login_user";
+
     // region 权限
     /**
      * 默认角色
@@ -0,0 +1,93 @@
+package com.chg.pixCloud.controller;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.annotation.AuthCheck;
+import com.chg.pixCloud.common.BaseResponse;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.constant.UserConstant;
+import com.chg.pixCloud.model.dto.crawl.CrawlFailureQueryRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobAddRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobCancelRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobQueryRequest;
+import com.chg.pixCloud.model.entity.PictureCrawlFailure;
+import com.chg.pixCloud.model.entity.PictureCrawlJob;
+import com.chg.pixCloud.service.PictureCrawlJobService;
+import com.chg.pixCloud.service.UserService;
+import com.chg.pixCloud.utils.ResultUtils;
+import com.chg.pixCloud.utils.ThrowUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 图片抓取任务（仅管理员）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/crawl/job")
+public class CrawlJobController {
+
+    @Resource
+    PictureCrawlJobService pictureCrawlJobService;
+    @Resource
+    UserService userService;
+
+    /**
+     * 创建抓取任务，任务在后台分批执行，通过任务 id 查询进度
+     *
+     * @param crawlJobAddRequest 创建任务请求
+     * @param request            登录用户
+     * @return 任务 id
+     */
+    @PostMapping("/add")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Long> addCrawlJob(@RequestBody CrawlJobAddRequest crawlJobAddRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(crawlJobAddRequest == null, ErrorCode.PARAMS_ERROR);
+        long jobId = pictureCrawlJobService.addCrawlJob(crawlJobAddRequest, userService.getLoginUser(request));
+        return ResultUtils.success(jobId);
+    }
+
+    /**
+     * 查询抓取任务进度
+     */
+    @GetMapping("/get")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<PictureCrawlJob> getCrawlJobById(long id) {
+        ThrowUtils.throwIf(id <= 0, ErrorCode.PARAMS_ERROR);
+        PictureCrawlJob crawlJob = pictureCrawlJobService.getById(id);
+        ThrowUtils.throwIf(crawlJob == null, ErrorCode.NOT_FOUND_ERROR);
+        return ResultUtils.success(crawlJob);
+    }
+
+    /**
+     * 取消抓取任务
+     */
+    @PostMapping("/cancel")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Boolean> cancelCrawlJob(@RequestBody CrawlJobCancelRequest crawlJobCancelRequest) {
+        ThrowUtils.throwIf(crawlJobCancelRequest == null || crawlJobCancelRequest.getId() == null
+                || crawlJobCancelRequest.getId() <= 0, ErrorCode.PARAMS_ERROR);
+        pictureCrawlJobService.cancelCrawlJob(crawlJobCancelRequest.getId());
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 分页查询抓取任务
+     */
+    @PostMapping("/list/page")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Page<PictureCrawlJob>> listCrawlJobByPage(@RequestBody CrawlJobQueryRequest crawlJobQueryRequest) {
+        return ResultUtils.success(pictureCrawlJobService.listCrawlJobByPage(crawlJobQueryRequest));
+    }
+
+    /**
+     * 分页查询抓取失败记录
+     */
+    @PostMapping("/failure/list/page")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Page<PictureCrawlFailure>> listCrawlFailureByPage(@RequestBody CrawlFailureQueryRequest crawlFailureQueryRequest) {
+        return ResultUtils.success(pictureCrawlJobService.listCrawlFailureByPage(crawlFailureQueryRequest));
+    }
+}
@@ -5,25 +5,38 @@ import com.chg.pixCloud.common.BaseResponse;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.constant.UserConstant;
 import com.chg.pixCloud.exception.BusinessException;
-import com.chg.pixCloud.manager.CosManager;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import com.chg.pixCloud.manager.storage.OrphanObjectCollector;
+import com.chg.pixCloud.model.vo.OrphanScanReportVO;
 import com.chg.pixCloud.utils.ResultUtils;
-import com.qcloud.cos.model.COSObject;
-import com.qcloud.cos.model.COSObjectInputStream;
-import com.qcloud.cos.utils.IOUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 
 @Slf4j
 @RestController
 @RequestMapping("/file")
 public class FileController {
     @Resource
-    CosManager cosManager;
+    ObjectStorage objectStorage;
+    @Resource
+    OrphanObjectCollector orphanObjectCollector;
+
+    /**
+     * 扫描对象存储中的孤儿文件，仅生成报告不删除（管理员）
+     *
+     * @return 扫描报告
+     */
+    @PostMapping("/gc/dry-run")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<OrphanScanReportVO> dryRunOrphanCollect() {
+        return ResultUtils.success(orphanObjectCollector.collect(true));
+    }
 
     /**
      * 测试文件上传（管理员）
@@ -38,27 +51,14 @@ public class FileController {
         String fileName = multipartFile.getOriginalFilename();
         // 2. 上传文件目录
         String filePath = String.format("/test/upload/%s", fileName);
-
-        File file = null;
-        try {
-            // 3. 上传文件
-            file = File.createTempFile(filePath, null);
-            multipartFile.transferTo(file);
-            cosManager.putObject(filePath, file);
+        // 3. 以流的方式上传文件，无需本地临时文件
+        try (InputStream inputStream = multipartFile.getInputStream()) {
+            objectStorage.putObject(filePath, inputStream, multipartFile.getSize());
             // 4. 返回可访问文件的地址
             return ResultUtils.success(filePath);
         } catch (Exception e) {
             log.error("file upload error, filePath={}", filePath, e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
-        } finally {
-            // finally 删除临时文件
-            if (file != null) {
-                boolean delete = file.delete();
-                if (!delete) {
-                    log.error("file delete error, filePath={}", filePath);
-                }
-
-            }
         }
     }
 
@@ -70,27 +70,21 @@ public class FileController {
      */
     @AuthCheck(mustRole = UserConstant.ADMIN_USER)
     @GetMapping("/test/download/")
-    public void testDownloadFile(String filePath, HttpServletResponse response) throws Exception {
-        COSObjectInputStream cosObjectInputStream = null;
+    public void testDownloadFile(String filePath, HttpServletResponse response) {
         try {
-            COSObject cosObject = cosManager.getObject(filePath);
-            cosObjectInputStream = cosObject.getObjectContent();
-            // 处理下载到的流
-            byte[] bytes = IOUtils.toByteArray(cosObjectInputStream);
+            long contentLength = objectStorage.getObjectLength(filePath);
             // 设置响应头
             response.setContentType("application/octet-stream;charset=UTF-8");
             response.setHeader("Content-Disposition", "attachment; filename=" + filePath);
-            // 写入响应
-            response.getOutputStream().write(bytes);
+            response.setContentLengthLong(contentLength);
+            // 直接写入响应，不在内存中缓存整个文件
+            objectStorage.transferTo(filePath, 0, contentLength, Channels.newChannel(response.getOutputStream()));
             response.getOutputStream().flush();
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("download file error, filePath={}", filePath, e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "下载失败");
-        } finally {
-            // 关闭流
-            if (cosObjectInputStream != null) {
-                cosObjectInputStream.close();
-            }
         }
     }
 
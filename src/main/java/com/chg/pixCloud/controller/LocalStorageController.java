@@ -0,0 +1,83 @@
+package com.chg.pixCloud.controller;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * 本地对象存储文件访问（storage.type = local 时生效）
+ * 图片访问地址指向此接口，支持 Range 请求
+ */
+@Slf4j
+@RestController
+@RequestMapping("/file/local")
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalStorageController {
+    @Resource
+    ObjectStorage objectStorage;
+
+    /**
+     * 文件访问前缀
+     */
+    private static final String PATH_PREFIX = "/file/local/";
+
+    /**
+     * 读取文件
+     *
+     * @param request  请求
+     * @param response 响应对象
+     */
+    @GetMapping("/**")
+    public void getFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = StrUtil.subAfter(request.getRequestURI(), PATH_PREFIX, false);
+        if (StrUtil.isBlank(key)) {
+            throw new BusinessException(ErrorCode.NOT_FOUND_ERROR);
+        }
+        long contentLength = objectStorage.getObjectLength(key);
+        long position = 0;
+        long count = contentLength;
+        // 解析 Range 请求头，仅支持单个范围
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StrUtil.isNotBlank(rangeHeader)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = null;
+            }
+            if (ranges == null || ranges.size() != 1 || contentLength == 0) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength);
+                return;
+            }
+            HttpRange range = ranges.get(0);
+            position = range.getRangeStart(contentLength);
+            count = range.getRangeEnd(contentLength) - position + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d", position, position + count - 1, contentLength));
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(FileUtil.getName(key)).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        objectStorage.transferTo(key, position, count, Channels.newChannel(response.getOutputStream()));
+    }
+}
@@ -1,7 +1,6 @@
 package com.chg.pixCloud.controller;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.chg.pixCloud.annotation.AuthCheck;
 import com.chg.pixCloud.api.aliyunai.model.CreateOutPaintingTaskResponse;
@@ -10,13 +9,17 @@ import com.chg.pixCloud.api.aliyunai.service.AliYunAiApi;
 import com.chg.pixCloud.api.imagesearch.ImageSearchApiFacade;
 import com.chg.pixCloud.api.imagesearch.model.ImageSearchResult;
 import com.chg.pixCloud.common.BaseResponse;
+import com.chg.pixCloud.common.CursorPage;
 import com.chg.pixCloud.common.DeleteRequest;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.constant.UserConstant;
 import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.manager.rendition.PictureRenditionManager;
 import com.chg.pixCloud.model.dto.picture.*;
 import com.chg.pixCloud.model.entity.Picture;
 import com.chg.pixCloud.model.entity.User;
+import com.chg.pixCloud.model.vo.PictureChunkUploadVO;
+import com.chg.pixCloud.model.vo.PictureFacetVO;
 import com.chg.pixCloud.model.vo.PictureTagCategory;
 import com.chg.pixCloud.model.vo.PictureVO;
 import com.chg.pixCloud.service.PictureService;
@@ -24,14 +27,15 @@ import com.chg.pixCloud.service.UserService;
 import com.chg.pixCloud.utils.ResultUtils;
 import com.chg.pixCloud.utils.ThrowUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -45,6 +49,8 @@ public class PictureController {
     PictureService pictureService;
     @Resource
     AliYunAiApi aliYunAiApi;
+    @Resource
+    PictureRenditionManager pictureRenditionManager;
 
     /**
      * 上传图片（可重新上传）
@@ -83,8 +89,101 @@ public class PictureController {
         return ResultUtils.success(pictureVO);
     }
 
+    /**
+     * 初始化分片上传（大图断点续传）
+     *
+     * @param initRequest 初始化请求
+     * @param request     上传请求
+     * @return 分片上传状态
+     */
+    @PostMapping("/upload/chunk/init")
+    public BaseResponse<PictureChunkUploadVO> initChunkUpload(
+            @RequestBody PictureChunkUploadInitRequest initRequest,
+            HttpServletRequest request) {
+        ThrowUtils.throwIf(initRequest == null, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(pictureService.initChunkUpload(initRequest, loginUser));
+    }
+
+    /**
+     * 上传分片
+     * 分片数据读取完成后即释放请求线程，转存对象存储在独立线程池中异步完成
+     *
+     * @param file        分片数据
+     * @param partRequest 分片信息
+     * @param request     上传请求
+     * @return 是否成功
+     */
+    @PostMapping("/upload/chunk/part")
+    public CompletableFuture<BaseResponse<Boolean>> uploadChunk(
+            @RequestPart("file") MultipartFile file,
+            PictureChunkUploadPartRequest partRequest,
+            HttpServletRequest request) throws IOException {
+        ThrowUtils.throwIf(file == null || partRequest == null, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
+        return pictureService.uploadChunk(partRequest, file.getBytes(), loginUser)
+                .thenApply(result -> ResultUtils.success(true));
+    }
+
+    /**
+     * 查询分片上传状态（返回已上传的分片，用于断点续传）
+     *
+     * @param uploadId 分片上传 id
+     * @param request  请求
+     * @return 分片上传状态
+     */
+    @GetMapping("/upload/chunk/status")
+    public BaseResponse<PictureChunkUploadVO> getChunkUploadStatus(String uploadId, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(pictureService.getChunkUploadStatus(uploadId, loginUser));
+    }
+
+    /**
+     * 完成分片上传
+     *
+     * @param chunkUploadRequest 分片上传请求
+     * @param request            请求
+     * @return 图片信息
+     */
+    @PostMapping("/upload/chunk/complete")
+    public BaseResponse<PictureVO> completeChunkUpload(
+            @RequestBody PictureChunkUploadRequest chunkUploadRequest,
+            HttpServletRequest request) {
+        ThrowUtils.throwIf(chunkUploadRequest == null, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(pictureService.completeChunkUpload(chunkUploadRequest.getUploadId(), loginUser));
+    }
+
+    /**
+     * 取消分片上传
+     *
+     * @param chunkUploadRequest 分片上传请求
+     * @param request            请求
+     * @return 是否成功
+     */
+    @PostMapping("/upload/chunk/abort")
+    public BaseResponse<Boolean> abortChunkUpload(
+            @RequestBody PictureChunkUploadRequest chunkUploadRequest,
+            HttpServletRequest request) {
+        ThrowUtils.throwIf(chunkUploadRequest == null, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
+        pictureService.abortChunkUpload(chunkUploadRequest.getUploadId(), loginUser);
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 为尚未生成响应式尺寸图片的存量图片补偿生成（仅管理员，后台执行）
+     */
+    @PostMapping("/rendition/backfill")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Boolean> backfillPictureRenditions() {
+        pictureRenditionManager.backfill();
+        return ResultUtils.success(true);
+    }
+
     /**
      * 批量抓取并上传图片（仅管理员）
+     * 请求线程内同步执行，仅适用于少量图片；大批量抓取请使用抓取任务接口 /crawl/job/add
      *
      * @param pictureUploadByBatchRequest 批量抓取请求
      * @param request                     上传请求
@@ -119,25 +218,7 @@ public class PictureController {
     @AuthCheck(mustRole = UserConstant.ADMIN_USER)
     public BaseResponse<Boolean> updatePicture(@RequestBody PictureUpdateRequest pictureUpdateRequest,
                                                HttpServletRequest request) {
-        if (pictureUpdateRequest == null || pictureUpdateRequest.getId() <= 0) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR);
-        }
-        // 将实体类和 DTO 进行转换
-        Picture picture = new Picture();
-        BeanUtils.copyProperties(pictureUpdateRequest, picture);
-        // 注意将 list 转为 string
-        picture.setTags(JSONUtil.toJsonStr(pictureUpdateRequest.getTags()));
-        // 数据校验
-        pictureService.validPicture(picture);
-        // 判断是否存在
-        long id = pictureUpdateRequest.getId();
-        Picture oldPicture = pictureService.getById(id);
-        ThrowUtils.throwIf(oldPicture == null, ErrorCode.NOT_FOUND_ERROR);
-        // 填充审核参数
-        pictureService.fillReviewParams(picture, userService.getLoginUser(request), 1L);
-        // 操作数据库
-        boolean result = pictureService.updateById(picture);
-        ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        pictureService.updatePicture(pictureUpdateRequest, request);
         return ResultUtils.success(true);
     }
 
@@ -214,6 +295,23 @@ public class PictureController {
     }
 
 
+    /**
+     * 游标分页获取图片列表（深度翻页不变慢，默认不统计总数）
+     */
+    @PostMapping("/list/cursor/vo")
+    public BaseResponse<CursorPage<PictureVO>> listPictureVOByCursor(@RequestBody PictureCursorQueryRequest pictureCursorQueryRequest,
+                                                                    HttpServletRequest request) {
+        return ResultUtils.success(pictureService.listPictureVOByCursor(pictureCursorQueryRequest, request));
+    }
+
+    /**
+     * 公开图库分面统计（按分类、标签、格式计数，可附带筛选条件）
+     */
+    @PostMapping("/facets")
+    public BaseResponse<PictureFacetVO> getPictureFacets(@RequestBody PictureQueryRequest pictureQueryRequest) {
+        return ResultUtils.success(pictureService.getPictureFacets(pictureQueryRequest));
+    }
+
     /**
      * 分页获取图片列表（有缓存）
      */
@@ -333,6 +431,19 @@ public class PictureController {
         return ResultUtils.success(result);
     }
 
+    /**
+     * 刷新公共图库（不传空间 id）或某个私有空间的 listPictureVOByPage 缓存（仅管理员可用）
+     *
+     * @param spaceId 空间 id
+     * @return 刷新结果
+     */
+    @GetMapping("/refresh")
+    @AuthCheck(mustRole = UserConstant.ADMIN_USER)
+    public BaseResponse<Boolean> refreshListPictureVOByPageCache(@RequestParam(required = false) Long spaceId) {
+        pictureService.refreshListPictureVOByPageCache(spaceId);
+        return ResultUtils.success(true);
+    }
+
 }
 
 
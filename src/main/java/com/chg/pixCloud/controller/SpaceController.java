@@ -100,7 +100,7 @@ public class SpaceController {
     @GetMapping("/get/vo")
     public BaseResponse<SpaceVO> getSpaceVOById(long id, HttpServletRequest request) {
         ThrowUtils.throwIf(id <= 0 || request == null, ErrorCode.PARAMS_ERROR);
-        Space space = spaceService.getById(id);
+        Space space = spaceService.getCachedSpaceWithUsage(id);
 
         SpaceVO spaceVO = SpaceVO.objToVo(space);
         return ResultUtils.success(spaceVO);
@@ -0,0 +1,37 @@
+package com.chg.pixCloud.event;
+
+import com.chg.pixCloud.model.entity.Picture;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 图片变更事件（新增、修改、审核、删除）
+ * 由图片写操作发布，监听方在事务提交后按 id 重新读取数据库中的最新状态
+ */
+@Getter
+public class PictureChangedEvent extends ApplicationEvent {
+
+    /**
+     * 变更的图片 id
+     */
+    private final Collection<Long> pictureIds;
+
+    /**
+     * 变更前后的图片（至少包含空间 id 和分类），用于确定受影响的列表缓存范围
+     */
+    private final Collection<Picture> pictures;
+
+    public PictureChangedEvent(Object source, Collection<Long> pictureIds, Collection<Picture> pictures) {
+        super(source);
+        this.pictureIds = pictureIds;
+        this.pictures = pictures;
+    }
+
+    public PictureChangedEvent(Object source, Long pictureId, Picture... pictures) {
+        this(source, Collections.singletonList(pictureId), Arrays.asList(pictures));
+    }
+}
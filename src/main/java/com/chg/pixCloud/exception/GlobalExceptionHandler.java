@@ -4,16 +4,25 @@ import com.chg.pixCloud.common.BaseResponse;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.utils.ResultUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.servlet.http.HttpServletResponse;
+
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(BusinessException.class)
-    public BaseResponse<?> businessExceptionHandler(BusinessException e) {
+    public BaseResponse<?> businessExceptionHandler(BusinessException e, HttpServletResponse response) {
         log.error("BusinessException", e);
+        // 服务器繁忙与上传准入过滤器的拒绝保持一致，返回 429，客户端稍后重试
+        if (e.getCode() == ErrorCode.TOO_MANY_REQUEST_ERROR.getCode()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        }
         return ResultUtils.error(e.getCode(), e.getMessage());
     }
 
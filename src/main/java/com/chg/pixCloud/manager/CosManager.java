@@ -3,20 +3,22 @@ package com.chg.pixCloud.manager;
 import cn.hutool.core.io.FileUtil;
 import com.chg.pixCloud.config.CosClientConfig;
 import com.qcloud.cos.COSClient;
-import com.qcloud.cos.exception.CosClientException;
-import com.qcloud.cos.model.COSObject;
-import com.qcloud.cos.model.GetObjectRequest;
-import com.qcloud.cos.model.PutObjectRequest;
-import com.qcloud.cos.model.PutObjectResult;
+import com.qcloud.cos.model.*;
 import com.qcloud.cos.model.ciModel.persistence.PicOperations;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * COS 数据万象图片处理及分片上传
+ * 通用的对象读写删除见 {@link com.chg.pixCloud.manager.storage.ObjectStorage}，仅在使用 COS 存储时生效
+ */
 @Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cos", matchIfMissing = true)
 public class CosManager {
     @Resource
     CosClientConfig cosClientConfig;
@@ -24,35 +26,84 @@ public class CosManager {
     COSClient cosClient;
 
     /**
-     * 上传对象到COS
+     * 以流的方式上传图片到COS，并解析（无需本地临时文件）
      *
-     * @param key  唯一键（路径）
-     * @param file 文件
+     * @param key           唯一键（路径）
+     * @param inputStream   图片数据流
+     * @param contentLength 内容长度（字节），必须准确，SDK 据此直接流式发送请求体
      */
-    public PutObjectResult putObject(String key, File file) {
-        PutObjectRequest putObjectRequest = new PutObjectRequest(cosClientConfig.getBucket(), key, file);
+    public PutObjectResult putAndOptionPictureToCOS(String key, InputStream inputStream, long contentLength) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(contentLength);
+        PutObjectRequest putObjectRequest = new PutObjectRequest(cosClientConfig.getBucket(), key, inputStream, objectMetadata);
+        putObjectRequest.setPicOperations(buildPicOperations(key, contentLength));
         return cosClient.putObject(putObjectRequest);
     }
 
     /**
-     * 从COS下载对象
+     * 初始化分片上传
      *
-     * @param key 对象的唯一键（路径）
-     * @return cos对象
+     * @param key 唯一键（路径）
+     * @return 对象存储的分片上传 id
      */
-    public COSObject getObject(String key) {
-        GetObjectRequest getObjectRequest = new GetObjectRequest(cosClientConfig.getBucket(), key);
-        return cosClient.getObject(getObjectRequest);
+    public String initiateMultipartUpload(String key) {
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(cosClientConfig.getBucket(), key);
+        return cosClient.initiateMultipartUpload(request).getUploadId();
     }
 
     /**
-     * 上传图片到COS，并解析
+     * 上传分片
      *
-     * @param key  唯一键（路径）
-     * @param file 文件
+     * @param key         唯一键（路径）
+     * @param uploadId    分片上传 id
+     * @param partNumber  分片序号（从 1 开始）
+     * @param inputStream 分片数据
+     * @param partSize    分片大小
+     * @return 分片 ETag
      */
-    public PutObjectResult putAndOptionPictureToCOS(String key, File file) {
-        PutObjectRequest putObjectRequest = new PutObjectRequest(cosClientConfig.getBucket(), key, file);
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream inputStream, long partSize) {
+        UploadPartRequest request = new UploadPartRequest();
+        request.setBucketName(cosClientConfig.getBucket());
+        request.setKey(key);
+        request.setUploadId(uploadId);
+        request.setPartNumber(partNumber);
+        request.setInputStream(inputStream);
+        request.setPartSize(partSize);
+        return cosClient.uploadPart(request).getETag();
+    }
+
+    /**
+     * 完成分片上传，合并后的图片按与普通上传相同的规则进行处理（数据万象）
+     *
+     * @param key       唯一键（路径）
+     * @param uploadId  分片上传 id
+     * @param partETags 全部分片的 ETag（按分片序号升序）
+     * @param fileSize  文件总大小
+     */
+    public CompleteMultipartUploadResult completeMultipartUploadAndOptionPicture(String key, String uploadId, List<PartETag> partETags, long fileSize) {
+        CompleteMultipartUploadRequest request = new CompleteMultipartUploadRequest(cosClientConfig.getBucket(), key, uploadId, partETags);
+        request.setPicOperations(buildPicOperations(key, fileSize));
+        return cosClient.completeMultipartUpload(request);
+    }
+
+    /**
+     * 终止分片上传，清理已上传的分片
+     *
+     * @param key      唯一键（路径）
+     * @param uploadId 分片上传 id
+     */
+    public void abortMultipartUpload(String key, String uploadId) {
+        cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(cosClientConfig.getBucket(), key, uploadId));
+    }
+
+    /**
+     * 构造图片处理参数（数据万象）
+     *
+     * @param key      唯一键（路径）
+     * @param fileSize 文件大小
+     * @return 图片处理参数
+     */
+    private PicOperations buildPicOperations(String key, long fileSize) {
         // 获取图片基本信息（获取图片基本信息文档中视为图片的基本处理）
         /*
             文档：https://cloud.tencent.com/document/product/436/55378
@@ -72,7 +123,7 @@ public class CosManager {
         rules.add(compressRule);
 
         // 缩略图处理，仅对 > 20KB的图片生成缩略图
-        if (file.length() > 2 * 1024) {
+        if (fileSize > 2 * 1024) {
             PicOperations.Rule thumbnailRule = new PicOperations.Rule();
             thumbnailRule.setBucket(cosClientConfig.getBucket());
             String thumbnailKey = FileUtil.mainName(key) + "_thumbnail." + FileUtil.getSuffix(key);
@@ -84,17 +135,7 @@ public class CosManager {
 
         // 构造处理参数
         picOperations.setRules(rules);
-        putObjectRequest.setPicOperations(picOperations);
-        return cosClient.putObject(putObjectRequest);
-    }
-
-    /**
-     * 删除对象
-     *
-     * @param key 文件 key
-     */
-    public void deleteObject(String key) throws CosClientException {
-        cosClient.deleteObject(cosClientConfig.getBucket(), key);
+        return picOperations;
     }
 
 }
@@ -0,0 +1,34 @@
+package com.chg.pixCloud.manager.analyzer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 图片分析结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageAnalysisResult {
+
+    /**
+     * 图片宽度
+     */
+    private int width;
+
+    /**
+     * 图片高度
+     */
+    private int height;
+
+    /**
+     * 图片格式
+     */
+    private String format;
+
+    /**
+     * 图片主色调（平均色，格式：0xRRGGBB）
+     */
+    private String color;
+}
@@ -0,0 +1,20 @@
+package com.chg.pixCloud.manager.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 图片分析器
+ * 在本地计算图片的宽高、格式和主色调，不依赖数据万象的处理结果
+ */
+public interface ImageAnalyzer {
+
+    /**
+     * 分析图片
+     *
+     * @param inputStream 图片数据流（由调用方关闭）
+     * @return 分析结果，无法识别的图片格式返回 null
+     * @throws IOException 读取图片失败
+     */
+    ImageAnalysisResult analyze(InputStream inputStream) throws IOException;
+}
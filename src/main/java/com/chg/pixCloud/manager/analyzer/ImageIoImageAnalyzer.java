@@ -0,0 +1,87 @@
+package com.chg.pixCloud.manager.analyzer;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 基于 ImageIO 的图片分析器
+ * 宽高和格式只读取图片头，不做完整解码；主色调通过降采样解码计算平均色，解码的像素数与原图大小无关
+ */
+@Component
+public class ImageIoImageAnalyzer implements ImageAnalyzer {
+
+    /**
+     * 降采样后的目标边长（像素）
+     */
+    private static final int SAMPLE_SIZE = 64;
+
+    @Override
+    public ImageAnalysisResult analyze(InputStream inputStream) throws IOException {
+        // 使用内存缓存的图片流，避免 ImageIO 默认在磁盘上创建缓存文件
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                // 1. 读取图片头获取宽高和格式
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                String format = normalizeFormat(reader.getFormatName());
+                // 2. 降采样解码计算平均色
+                int step = Math.max(1, Math.max(width, height) / SAMPLE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage sample = reader.read(0, param);
+                return new ImageAnalysisResult(width, height, format, averageColor(sample));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 计算图片平均色
+     *
+     * @param image 图片
+     * @return 平均色（格式：0xRRGGBB）
+     */
+    static String averageColor(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        for (int pixel : pixels) {
+            red += (pixel >> 16) & 0xFF;
+            green += (pixel >> 8) & 0xFF;
+            blue += pixel & 0xFF;
+        }
+        int count = Math.max(1, pixels.length);
+        int rgb = (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+        return String.format("0x%06X", rgb);
+    }
+
+    /**
+     * 统一图片格式名称（与数据万象返回的格式保持一致）
+     *
+     * @param formatName ImageIO 格式名称
+     * @return 图片格式
+     */
+    private static String normalizeFormat(String formatName) {
+        String format = formatName.toLowerCase();
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+}
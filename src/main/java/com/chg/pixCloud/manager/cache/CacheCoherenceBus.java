@@ -0,0 +1,248 @@
+package com.chg.pixCloud.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 缓存一致性总线（Redis 发布订阅）
+ * 各节点的本地缓存（Caffeine）无法跨节点删除，失效操作除在本节点执行外，还通过 Redis 频道广播给其他节点。
+ * 失效操作先在本地合并去重，由独立的发送线程每 100 毫秒合并为一条消息发送；单个缓存待发送的键过多时改为整体失效。
+ * 发布订阅不保证送达，每条消息带有发送节点的连续序号，发现序号不连续时清空本节点所有已注册的本地缓存；
+ * 节点定期发送心跳并确认能收到自己的消息，订阅断开（未收到自己的心跳）后恢复时同样清空本地缓存
+ */
+@Slf4j
+@Component
+public class CacheCoherenceBus implements MessageListener {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    RedisMessageListenerContainer cacheCoherenceListenerContainer;
+
+    @Resource
+    ScheduledThreadPoolExecutor cacheCoherenceScheduler;
+
+    private static final String CHANNEL = "pixcloud:cache:invalidate";
+
+    /**
+     * 单个缓存一条消息中最多包含的键数，超过时改为整体失效
+     */
+    private static final int MAX_KEYS_PER_CACHE = 1000;
+
+    /**
+     * 合并发送间隔（毫秒）
+     */
+    private static final long FLUSH_MILLIS = 100;
+
+    /**
+     * 心跳间隔（毫秒）
+     */
+    private static final long HEARTBEAT_MILLIS = 5000;
+
+    /**
+     * 超过该时间未收到自己的消息，视为订阅已断开（毫秒）
+     */
+    private static final long DISCONNECT_MILLIS = 15000;
+
+    /**
+     * 本节点 id（每次启动不同）
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * 已注册的本地缓存
+     */
+    private final Map<String, LocalTier> tiers = new ConcurrentHashMap<>();
+
+    /**
+     * 待发送的失效键（缓存名称 -> 键）
+     */
+    private Map<String, Set<String>> pendingKeys = new HashMap<>();
+
+    /**
+     * 待发送的整体失效缓存名称
+     */
+    private Set<String> pendingAll = new HashSet<>();
+
+    /**
+     * 其他节点最近一条消息的序号
+     */
+    private final Map<String, Long> lastSeqs = new ConcurrentHashMap<>();
+
+    private volatile long lastSentAt;
+
+    private volatile long lastSelfReceivedAt = System.currentTimeMillis();
+
+    private volatile boolean disconnected;
+
+    @PostConstruct
+    public void subscribe() {
+        cacheCoherenceListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        cacheCoherenceScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                // 异常不能抛出，否则后续发送会被取消
+                log.error("发送缓存失效消息失败", e);
+            }
+        }, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 注册本地缓存
+     *
+     * @param name          缓存名称
+     * @param invalidateKey 删除一个键
+     * @param invalidateAll 清空
+     */
+    public void register(String name, Consumer<String> invalidateKey, Runnable invalidateAll) {
+        tiers.put(name, new LocalTier(invalidateKey, invalidateAll));
+    }
+
+    /**
+     * 广播删除其他节点本地缓存中的键（本节点的本地缓存由调用方自行删除）
+     *
+     * @param name 缓存名称
+     * @param key  键
+     */
+    public synchronized void publish(String name, String key) {
+        if (pendingAll.contains(name)) {
+            return;
+        }
+        Set<String> keys = pendingKeys.computeIfAbsent(name, k -> new HashSet<>());
+        keys.add(key);
+        if (keys.size() > MAX_KEYS_PER_CACHE) {
+            publishAll(name);
+        }
+    }
+
+    /**
+     * 广播清空其他节点的本地缓存
+     *
+     * @param name 缓存名称
+     */
+    public synchronized void publishAll(String name) {
+        pendingAll.add(name);
+        pendingKeys.remove(name);
+    }
+
+    /**
+     * 发送合并后的失效消息，长时间没有消息时发送心跳
+     */
+    public void flush() {
+        Map<String, Set<String>> keys;
+        Set<String> all;
+        synchronized (this) {
+            keys = pendingKeys;
+            all = pendingAll;
+            pendingKeys = new HashMap<>();
+            pendingAll = new HashSet<>();
+        }
+        long now = System.currentTimeMillis();
+        if (keys.isEmpty() && all.isEmpty() && now - lastSentAt < HEARTBEAT_MILLIS) {
+            return;
+        }
+        CacheInvalidationMessage message = new CacheInvalidationMessage();
+        message.setNodeId(nodeId);
+        message.setSeq(seq.incrementAndGet());
+        Map<String, List<String>> keyLists = new HashMap<>();
+        keys.forEach((name, keySet) -> keyLists.put(name, new ArrayList<>(keySet)));
+        message.setKeys(keyLists);
+        message.setAll(new ArrayList<>(all));
+        lastSentAt = now;
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, JSONUtil.toJsonStr(message));
+        } catch (Exception e) {
+            // 已分配的序号未发送，其他节点会发现序号不连续并清空本地缓存
+            log.error("发送缓存失效消息失败", e);
+        }
+        if (now - lastSelfReceivedAt > DISCONNECT_MILLIS && !disconnected) {
+            log.warn("超过 {} 毫秒未收到缓存失效消息，订阅可能已断开", DISCONNECT_MILLIS);
+            disconnected = true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidationMessage;
+        try {
+            invalidationMessage = JSONUtil.toBean(new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+        } catch (Exception e) {
+            log.error("无法解析缓存失效消息", e);
+            return;
+        }
+        if (disconnected) {
+            // 订阅断开期间的消息已丢失
+            disconnected = false;
+            resync("订阅恢复");
+        }
+        if (nodeId.equals(invalidationMessage.getNodeId())) {
+            lastSelfReceivedAt = System.currentTimeMillis();
+            return;
+        }
+        Long seq = invalidationMessage.getSeq();
+        Long lastSeq = lastSeqs.put(invalidationMessage.getNodeId(), seq);
+        if (lastSeq != null && seq != null && seq != lastSeq + 1) {
+            resync("节点 " + invalidationMessage.getNodeId() + " 的消息序号不连续");
+            return;
+        }
+        apply(invalidationMessage);
+    }
+
+    private void apply(CacheInvalidationMessage message) {
+        if (CollUtil.isNotEmpty(message.getAll())) {
+            for (String name : message.getAll()) {
+                LocalTier tier = tiers.get(name);
+                if (tier != null) {
+                    tier.invalidateAll.run();
+                }
+            }
+        }
+        if (CollUtil.isNotEmpty(message.getKeys())) {
+            message.getKeys().forEach((name, keys) -> {
+                LocalTier tier = tiers.get(name);
+                if (tier != null && keys != null) {
+                    keys.forEach(tier.invalidateKey);
+                }
+            });
+        }
+    }
+
+    /**
+     * 可能丢失了失效消息，清空本节点所有已注册的本地缓存
+     */
+    private void resync(String reason) {
+        log.warn("{}，清空本地缓存: {}", reason, tiers.keySet());
+        tiers.values().forEach(tier -> tier.invalidateAll.run());
+    }
+
+    @AllArgsConstructor
+    private static class LocalTier {
+
+        private final Consumer<String> invalidateKey;
+
+        private final Runnable invalidateAll;
+    }
+}
@@ -0,0 +1,33 @@
+package com.chg.pixCloud.manager.cache;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存失效消息（一批失效操作合并为一条消息）
+ */
+@Data
+public class CacheInvalidationMessage {
+
+    /**
+     * 发送节点 id
+     */
+    private String nodeId;
+
+    /**
+     * 发送节点的消息序号（从 1 开始连续递增，用于发现丢失的消息）
+     */
+    private Long seq;
+
+    /**
+     * 缓存名称 -> 失效的键
+     */
+    private Map<String, List<String>> keys;
+
+    /**
+     * 整体失效的缓存名称
+     */
+    private List<String> all;
+}
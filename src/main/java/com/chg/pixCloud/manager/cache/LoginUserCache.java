@@ -0,0 +1,150 @@
+package com.chg.pixCloud.manager.cache;
+
+import com.chg.pixCloud.model.entity.User;
+import com.chg.pixCloud.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 登录用户本地缓存（带版本号）
+ * 每个用户在 Redis 中维护一个版本号，用户信息（角色、资料等）变更时递增。
+ * 本地缓存的用户在短时间内直接使用，超过校验间隔后比对版本号，版本一致则继续使用，否则重新查询数据库，
+ * 变更时还会通过缓存一致性总线通知其他节点删除本地缓存，消息丢失时任意节点上的用户信息最多滞后一个校验间隔
+ */
+@Slf4j
+@Component
+public class LoginUserCache {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+    @Resource
+    MeterRegistry meterRegistry;
+    @Resource
+    CacheCoherenceBus cacheCoherenceBus;
+
+    private static final String VERSION_KEY_PREFIX = "pixcloud:user:version:";
+
+    private static final String TIER_NAME = "user:login";
+
+    /**
+     * 版本号过期时间，过期后版本号变化只会导致一次重新查询
+     */
+    private static final Duration VERSION_EXPIRE = Duration.ofDays(7);
+
+    /**
+     * 无需校验版本号的时间（毫秒），即用户信息变更后其他节点的最长滞后时间
+     */
+    private static final long CHECK_INTERVAL_MILLIS = 5000;
+
+    private final Cache<Long, CachedUser> localCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    private Counter hitCounter;
+
+    private Counter revalidatedCounter;
+
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        cacheCoherenceBus.register(TIER_NAME, key -> localCache.invalidate(Long.valueOf(key)), localCache::invalidateAll);
+        hitCounter = Counter.builder("user.login.cache").tag("result", "hit")
+                .description("登录用户缓存命中（无需校验版本号）").register(meterRegistry);
+        revalidatedCounter = Counter.builder("user.login.cache").tag("result", "revalidated")
+                .description("登录用户缓存校验版本号后命中").register(meterRegistry);
+        missCounter = Counter.builder("user.login.cache").tag("result", "miss")
+                .description("登录用户缓存未命中或已过期，查询数据库").register(meterRegistry);
+    }
+
+    /**
+     * 获取用户（返回的对象在多个请求间共享，只读）
+     *
+     * @param userId 用户 id
+     * @param loader 从数据库查询
+     * @return 用户，不存在时为 null
+     */
+    public User get(Long userId, Function<Long, User> loader) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = localCache.getIfPresent(userId);
+        if (cached != null && now - cached.checkedAt < CHECK_INTERVAL_MILLIS) {
+            hitCounter.increment();
+            return cached.user;
+        }
+        // 先读取版本号再查询数据库：查询后发生的变更一定会使版本号不一致
+        String version = getVersion(userId);
+        if (cached != null && version != null && version.equals(cached.version)) {
+            cached.checkedAt = now;
+            revalidatedCounter.increment();
+            return cached.user;
+        }
+        missCounter.increment();
+        User user = loader.apply(userId);
+        // Redis 不可用时无法校验版本号，不缓存
+        if (user != null && version != null) {
+            localCache.put(userId, new CachedUser(user, version, now));
+        }
+        return user;
+    }
+
+    /**
+     * 用户信息变更，递增版本号（在事务中调用时，事务提交后再递增）
+     *
+     * @param userId 用户 id
+     */
+    public void bumpVersion(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            localCache.invalidate(userId);
+            try {
+                String key = VERSION_KEY_PREFIX + userId;
+                stringRedisTemplate.opsForValue().increment(key);
+                stringRedisTemplate.expire(key, VERSION_EXPIRE);
+            } catch (Exception e) {
+                log.error("更新用户版本号失败，用户 id: {}", userId, e);
+            }
+            // 版本号更新后再通知其他节点，避免其他节点在更新前重新读到旧值
+            cacheCoherenceBus.publish(TIER_NAME, String.valueOf(userId));
+        });
+    }
+
+    /**
+     * 读取版本号，从未变更过的用户为 "0"，Redis 不可用时为 null
+     */
+    private String getVersion(Long userId) {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + userId);
+            return version == null ? "0" : version;
+        } catch (Exception e) {
+            log.warn("读取用户版本号失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedUser {
+
+        private final User user;
+
+        private final String version;
+
+        /**
+         * 最近一次确认版本号的时间
+         */
+        private volatile long checkedAt;
+    }
+}
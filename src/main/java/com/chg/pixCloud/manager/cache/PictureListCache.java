@@ -0,0 +1,366 @@
+package com.chg.pixCloud.manager.cache;
+
+import cn.hutool.core.lang.TypeReference;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.config.ListCacheConfig;
+import com.chg.pixCloud.manager.cache.codec.CacheCodec;
+import com.chg.pixCloud.manager.cache.codec.JsonCacheCodec;
+import com.chg.pixCloud.manager.cache.codec.PictureVOPageCodec;
+import com.chg.pixCloud.model.vo.PictureVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 图片分页列表两级缓存（本地 Caffeine + Redis）
+ * 本地缓存保存解码后的对象，命中时不再反序列化（返回的对象为共享只读数据，调用方不能修改）；
+ * Redis 中保存编解码器编码后的字节，编码格式可配置，缓存键包含编码格式名称。
+ * 防止缓存击穿：
+ * 1. 同一节点上同一个键同时只有一个请求查询数据库，其他请求等待其结果（single-flight）；
+ * 2. 跨节点通过 Redis 短租约互斥，未获得租约的节点等待 Redis 中出现结果；
+ * 3. 缓存数据到达刷新时间后仍可在一段时间内使用，由一个后台任务重新查询，请求继续获得旧数据；
+ * 刷新时间前按查询耗时提前随机触发刷新（查询越慢越早），避免热点键集中过期
+ */
+@Slf4j
+@Component
+public class PictureListCache {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    ListCacheConfig listCacheConfig;
+
+    @Resource
+    ThreadPoolExecutor listCacheRefreshExecutor;
+
+    @Resource
+    CacheCoherenceBus cacheCoherenceBus;
+
+    /**
+     * 缓存刷新时间（秒），另加随机时间防止缓存雪崩
+     */
+    private static final long REFRESH_SECONDS = 300;
+    private static final int REFRESH_JITTER_SECONDS = 300;
+
+    /**
+     * 到达刷新时间后仍可使用旧数据的时间（毫秒），超过后视为未命中
+     */
+    private static final long STALE_MILLIS = 60_000;
+
+    /**
+     * 提前刷新系数，越大越早触发刷新
+     */
+    private static final double EARLY_REFRESH_BETA = 1.0;
+
+    private static final String LEASE_KEY_SUFFIX = ":lease";
+
+    private static final String TIER_NAME = "picture:list";
+
+    /**
+     * 租约时间（毫秒），需大于查询数据库的耗时
+     */
+    private static final long LEASE_MILLIS = 3000;
+
+    /**
+     * 未获得租约时等待其他节点写入结果的最长时间（毫秒），超时后自行查询
+     */
+    private static final long LEASE_WAIT_MILLIS = 1000;
+    private static final long LEASE_POLL_MILLIS = 50;
+
+    /**
+     * 等待同一节点上其他请求查询结果的最长时间（毫秒），超时后自行查询
+     */
+    private static final long FLIGHT_WAIT_MILLIS = 5000;
+
+    /**
+     * Redis 数据头：刷新时间（8 字节）+ 查询耗时（4 字节）
+     */
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * 租约仍属于自己时才释放
+     */
+    private static final DefaultRedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+
+    private final Cache<String, CacheEntry> localCache = Caffeine.newBuilder().initialCapacity(1024)
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(REFRESH_SECONDS + REFRESH_JITTER_SECONDS).plusMillis(STALE_MILLIS))
+            .build();
+
+    /**
+     * 正在查询数据库的键
+     */
+    private final ConcurrentMap<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+
+    private CacheCodec<Page<PictureVO>> codec;
+
+    @PostConstruct
+    public void init() {
+        if ("json".equals(listCacheConfig.getCodec())) {
+            codec = new JsonCacheCodec<>(new TypeReference<Page<PictureVO>>() {
+            });
+        } else {
+            codec = new PictureVOPageCodec(listCacheConfig.getCompressThreshold());
+        }
+        log.info("图片列表缓存编码格式: {}", codec.name());
+        cacheCoherenceBus.register(TIER_NAME, localCache::invalidate, localCache::invalidateAll);
+    }
+
+    /**
+     * 清空所有节点的本地缓存（Redis 中的数据通过递增版本号失效）
+     */
+    public void invalidateAllLocal() {
+        localCache.invalidateAll();
+        cacheCoherenceBus.publishAll(TIER_NAME);
+    }
+
+    /**
+     * 查询缓存，未命中时查询数据库并写入缓存
+     * 查询顺序为本地缓存 -> Redis（命中时回填本地缓存）-> 数据库
+     *
+     * @param key    缓存键
+     * @param loader 查询数据库（可能在后台线程中执行，不能依赖当前请求）
+     * @return 分页结果
+     */
+    public Page<PictureVO> get(String key, Supplier<Page<PictureVO>> loader) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = localCache.getIfPresent(key);
+        if (entry == null || entry.isExpired(now)) {
+            entry = getFromRedis(key);
+            if (entry != null && !entry.isExpired(now)) {
+                localCache.put(key, entry);
+            } else {
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            return load(key, loader, false).page;
+        }
+        if (entry.shouldRefresh(now)) {
+            refreshAsync(key, loader);
+        }
+        return entry.page;
+    }
+
+    /**
+     * 查询数据库并写入缓存，同一节点上同一个键只有一个线程执行
+     *
+     * @param background 是否为后台刷新（后台刷新未获得租约时直接放弃）
+     */
+    private CacheEntry load(String key, Supplier<Page<PictureVO>> loader, boolean background) {
+        CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            if (background) {
+                return null;
+            }
+            return awaitFlight(key, existing, loader);
+        }
+        try {
+            CacheEntry entry = loadWithLease(key, loader, background);
+            future.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CacheEntry awaitFlight(String key, CompletableFuture<CacheEntry> future, Supplier<Page<PictureVO>> loader) {
+        try {
+            CacheEntry entry = future.get(FLIGHT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            // 后台刷新未获得租约时没有结果
+            return entry != null ? entry : loadWithLease(key, loader, false);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("等待图片列表查询超时，直接查询: {}", key);
+            return loadAndPut(key, loader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loadAndPut(key, loader);
+        }
+    }
+
+    /**
+     * 获取 Redis 租约后查询；未获得租约时，请求等待其他节点写入的结果，后台刷新直接放弃
+     */
+    private CacheEntry loadWithLease(String key, Supplier<Page<PictureVO>> loader, boolean background) {
+        String leaseKey = key + LEASE_KEY_SUFFIX;
+        String token = IdUtil.fastSimpleUUID();
+        Boolean acquired;
+        try {
+            acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, Duration.ofMillis(LEASE_MILLIS));
+        } catch (Exception e) {
+            // Redis 不可用时不互斥
+            log.warn("获取图片列表缓存租约失败: {}", e.getMessage());
+            return loadAndPut(key, loader);
+        }
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return loadAndPut(key, loader);
+            } finally {
+                releaseLease(leaseKey, token);
+            }
+        }
+        if (background) {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + LEASE_WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            CacheEntry entry = getFromRedis(key);
+            if (entry != null && !entry.isExpired(System.currentTimeMillis())) {
+                localCache.put(key, entry);
+                return entry;
+            }
+        }
+        return loadAndPut(key, loader);
+    }
+
+    /**
+     * 后台刷新（线程池已满时放弃，由后续请求再次触发）
+     */
+    private void refreshAsync(String key, Supplier<Page<PictureVO>> loader) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        try {
+            listCacheRefreshExecutor.execute(() -> {
+                try {
+                    // 其他节点可能已完成刷新
+                    CacheEntry entry = getFromRedis(key);
+                    if (entry != null && entry.refreshAt > System.currentTimeMillis()) {
+                        localCache.put(key, entry);
+                        return;
+                    }
+                    load(key, loader, true);
+                } catch (Exception e) {
+                    log.error("后台刷新图片列表缓存失败: {}", key, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("图片列表缓存刷新任务已满，跳过: {}", key);
+        }
+    }
+
+    private CacheEntry loadAndPut(String key, Supplier<Page<PictureVO>> loader) {
+        long start = System.currentTimeMillis();
+        Page<PictureVO> page = loader.get();
+        long now = System.currentTimeMillis();
+        long refreshAt = now + (REFRESH_SECONDS + RandomUtil.randomInt(0, REFRESH_JITTER_SECONDS)) * 1000;
+        CacheEntry entry = new CacheEntry(page, refreshAt, (int) (now - start));
+        localCache.put(key, entry);
+        putToRedis(key, entry);
+        return entry;
+    }
+
+    private CacheEntry getFromRedis(String key) {
+        byte[] redisKey = redisKey(key);
+        try {
+            byte[] data = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(redisKey));
+            if (data == null || data.length <= HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_BYTES);
+            long refreshAt = header.getLong();
+            int loadMillis = header.getInt();
+            return new CacheEntry(codec.decode(Arrays.copyOfRange(data, HEADER_BYTES, data.length)), refreshAt, loadMillis);
+        } catch (Exception e) {
+            // Redis 不可用或数据无法解码时视为未命中
+            log.warn("查询图片列表缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putToRedis(String key, CacheEntry entry) {
+        byte[] redisKey = redisKey(key);
+        // 过期时间包含可使用旧数据的时间
+        long expireMillis = entry.refreshAt - System.currentTimeMillis() + STALE_MILLIS;
+        try {
+            byte[] body = codec.encode(entry.page);
+            byte[] data = ByteBuffer.allocate(HEADER_BYTES + body.length)
+                    .putLong(entry.refreshAt).putInt(entry.loadMillis).put(body).array();
+            stringRedisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(redisKey, data, Expiration.milliseconds(expireMillis), RedisStringCommands.SetOption.UPSERT));
+        } catch (Exception e) {
+            log.warn("写入图片列表缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(leaseKey), token);
+        } catch (Exception e) {
+            // 租约到期后自动释放
+            log.warn("释放图片列表缓存租约失败: {}", e.getMessage());
+        }
+    }
+
+    private byte[] redisKey(String key) {
+        return (key + ":" + codec.name()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @AllArgsConstructor
+    private static class CacheEntry {
+
+        private final Page<PictureVO> page;
+
+        /**
+         * 刷新时间（毫秒时间戳）
+         */
+        private final long refreshAt;
+
+        /**
+         * 查询数据库的耗时（毫秒）
+         */
+        private final int loadMillis;
+
+        /**
+         * 超过可使用旧数据的时间
+         */
+        boolean isExpired(long now) {
+            return now >= refreshAt + STALE_MILLIS;
+        }
+
+        /**
+         * 是否需要刷新：到达刷新时间，或按查询耗时提前随机触发（-ln(rand) 服从指数分布）
+         */
+        boolean shouldRefresh(long now) {
+            double early = Math.max(loadMillis, 1) * EARLY_REFRESH_BETA * -Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+            return now + early >= refreshAt;
+        }
+    }
+}
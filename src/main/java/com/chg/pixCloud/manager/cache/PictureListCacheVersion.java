@@ -0,0 +1,152 @@
+package com.chg.pixCloud.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.chg.pixCloud.event.PictureChangedEvent;
+import com.chg.pixCloud.model.entity.Picture;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 图片列表分页缓存的版本号（分代失效）
+ * 缓存键中包含其依赖范围的版本号，失效时只需递增对应的版本号，旧版本的缓存不再被访问，由过期时间自然淘汰，
+ * 不需要扫描 Redis 或本地缓存中的键。每页缓存依赖三个版本号：
+ * 1. 全局版本号；
+ * 2. 所属命名空间（公共图库或某个私有空间）的版本号，用于整体失效；
+ * 3. 按分类筛选的页依赖该分类的版本号，其他页依赖命名空间的列表版本号。
+ * 图片变更后只递增其所在命名空间的列表版本号及变更前后分类的版本号，其他分类的缓存不受影响
+ */
+@Slf4j
+@Component
+public class PictureListCacheVersion {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    CacheCoherenceBus cacheCoherenceBus;
+
+    private static final String KEY_PREFIX = "pixpicture:listPictureVOByPage:version:";
+
+    private static final String TIER_NAME = "picture:list:version";
+
+    private static final String GLOBAL_SCOPE = "global";
+
+    private static final String PUBLIC_SCOPE = "public";
+
+    private static final String SPACE_SCOPE_PREFIX = "space:";
+
+    private static final String LIST_SUFFIX = ":list";
+
+    private static final String CATEGORY_SUFFIX = ":category:";
+
+    /**
+     * 版本号本地缓存，减少每次查询缓存前读取版本号的开销
+     * 递增版本号时通过缓存一致性总线通知其他节点删除，消息丢失时最多滞后 1 秒
+     */
+    private final Cache<String, String> localVersions = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(1))
+            .build();
+
+    @PostConstruct
+    public void init() {
+        cacheCoherenceBus.register(TIER_NAME, localVersions::invalidate, localVersions::invalidateAll);
+    }
+
+    /**
+     * 获取命名空间（公共图库或私有空间）
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     * @return 命名空间
+     */
+    public String getScope(Long spaceId) {
+        return spaceId == null ? PUBLIC_SCOPE : SPACE_SCOPE_PREFIX + spaceId;
+    }
+
+    /**
+     * 获取缓存版本标识（全局版本号.命名空间版本号.列表或分类版本号），一次 MGET 读取三个版本号
+     *
+     * @param spaceId  空间 id，公共图库为 null
+     * @param category 筛选的分类，未按分类筛选时为空
+     * @return 版本标识，Redis 不可用时为 null（此时不使用缓存）
+     */
+    public String getVersionTag(Long spaceId, String category) {
+        String scope = getScope(spaceId);
+        List<String> keys = Arrays.asList(KEY_PREFIX + GLOBAL_SCOPE, KEY_PREFIX + scope,
+                KEY_PREFIX + (StrUtil.isBlank(category) ? scope + LIST_SUFFIX : scope + CATEGORY_SUFFIX + category));
+        Map<String, String> versions = new HashMap<>(localVersions.getAllPresent(keys));
+        if (versions.size() < keys.size()) {
+            List<String> values;
+            try {
+                values = stringRedisTemplate.opsForValue().multiGet(keys);
+            } catch (Exception e) {
+                log.warn("读取列表缓存版本号失败: {}", e.getMessage());
+                return null;
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                String version = values == null || values.get(i) == null ? "0" : values.get(i);
+                versions.put(keys.get(i), version);
+                localVersions.put(keys.get(i), version);
+            }
+        }
+        return versions.get(keys.get(0)) + "." + versions.get(keys.get(1)) + "." + versions.get(keys.get(2));
+    }
+
+    /**
+     * 使所有列表缓存失效
+     */
+    public void bumpGlobal() {
+        bump(GLOBAL_SCOPE);
+    }
+
+    /**
+     * 使公共图库或某个私有空间的列表缓存失效
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     */
+    public void bumpScope(Long spaceId) {
+        bump(getScope(spaceId));
+    }
+
+    /**
+     * 图片变更在事务提交后使受影响的列表缓存失效（无事务时立即执行）：
+     * 所在命名空间的列表版本号，以及变更前后分类的版本号
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPictureChanged(PictureChangedEvent event) {
+        if (CollUtil.isEmpty(event.getPictures())) {
+            return;
+        }
+        Set<String> scopes = new LinkedHashSet<>();
+        for (Picture picture : event.getPictures()) {
+            String scope = getScope(picture.getSpaceId());
+            scopes.add(scope + LIST_SUFFIX);
+            if (StrUtil.isNotBlank(picture.getCategory())) {
+                scopes.add(scope + CATEGORY_SUFFIX + picture.getCategory());
+            }
+        }
+        try {
+            scopes.forEach(this::bump);
+        } catch (Exception e) {
+            // 失效失败时缓存在过期后更新
+            log.error("图片列表缓存失效失败，范围: {}", scopes, e);
+        }
+    }
+
+    private void bump(String scope) {
+        String key = KEY_PREFIX + scope;
+        stringRedisTemplate.opsForValue().increment(key);
+        localVersions.invalidate(key);
+        cacheCoherenceBus.publish(TIER_NAME, key);
+    }
+}
@@ -0,0 +1,227 @@
+package com.chg.pixCloud.manager.cache;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.model.entity.Space;
+import com.chg.pixCloud.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 空间缓存
+ * 空间基本信息（所有者、级别、额度上限等）使用本地 Caffeine + Redis 两级缓存，归属校验不再查询数据库；
+ * 已用额度（totalSize/totalCount）保存在 Redis 哈希计数器中，数据库额度更新的事务提交后原子增减，
+ * 计数器不存在时从数据库初始化，并定期过期重新初始化以修正可能的偏差
+ */
+@Slf4j
+@Component
+public class SpaceCache {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    CacheCoherenceBus cacheCoherenceBus;
+
+    private static final String META_KEY_PREFIX = "pixcloud:space:meta:";
+
+    private static final String USAGE_KEY_PREFIX = "pixcloud:space:usage:";
+
+    /**
+     * 额度计数器的代数：计数器不存在时的增减会递增代数，从数据库读取期间代数发生变化则放弃初始化
+     */
+    private static final String USAGE_GEN_KEY_PREFIX = "pixcloud:space:usage-gen:";
+
+    private static final String TIER_NAME = "space";
+
+    private static final String FIELD_TOTAL_SIZE = "totalSize";
+
+    private static final String FIELD_TOTAL_COUNT = "totalCount";
+
+    /**
+     * 空值占位（空间不存在）
+     */
+    private static final String NULL_VALUE = "";
+
+    private static final long META_EXPIRE_SECONDS = 1800;
+
+    private static final long NULL_EXPIRE_SECONDS = 60;
+
+    /**
+     * 额度计数器过期时间（秒），过期后从数据库重新初始化
+     */
+    private static final long USAGE_EXPIRE_SECONDS = 600;
+
+    /**
+     * 计数器存在时才增减（不存在时由下次读取从数据库初始化，避免只记录增量）；
+     * 计数器不存在时递增代数，使读取到旧数据的并发初始化失效
+     */
+    private static final DefaultRedisScript<Long> INCREMENT_USAGE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then " +
+                    "redis.call('hincrby', KEYS[1], 'totalSize', ARGV[1]); " +
+                    "redis.call('hincrby', KEYS[1], 'totalCount', ARGV[2]); " +
+                    "return 1 end " +
+                    "redis.call('incr', KEYS[2]); " +
+                    "redis.call('expire', KEYS[2], ARGV[3]); " +
+                    "return 0",
+            Long.class);
+
+    /**
+     * 计数器不存在且代数与读取数据库前一致时初始化
+     */
+    private static final DefaultRedisScript<Long> INIT_USAGE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 and (redis.call('get', KEYS[2]) or '0') == ARGV[4] then " +
+                    "redis.call('hset', KEYS[1], 'totalSize', ARGV[1], 'totalCount', ARGV[2]); " +
+                    "redis.call('expire', KEYS[1], ARGV[3]); " +
+                    "return 1 end return 0",
+            Long.class);
+
+    private final Cache<Long, Optional<Space>> localCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            // 其他节点通过缓存一致性总线删除，过期时间较短以限制消息丢失时的不一致时长
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    @PostConstruct
+    public void init() {
+        cacheCoherenceBus.register(TIER_NAME, key -> localCache.invalidate(Long.valueOf(key)), localCache::invalidateAll);
+    }
+
+    /**
+     * 获取空间基本信息（已用额度字段可能不是最新值，需要时使用 getWithUsage）
+     *
+     * @param spaceId 空间 id
+     * @param loader  从数据库查询
+     * @return 空间（副本），不存在时为 null
+     */
+    public Space get(Long spaceId, Function<Long, Space> loader) {
+        Optional<Space> cached = localCache.getIfPresent(spaceId);
+        if (cached == null) {
+            cached = Optional.ofNullable(loadMeta(spaceId, loader));
+            localCache.put(spaceId, cached);
+        }
+        return cached.map(space -> BeanUtil.copyProperties(space, Space.class)).orElse(null);
+    }
+
+    /**
+     * 获取空间信息及最新的已用额度
+     *
+     * @param spaceId 空间 id
+     * @param loader  从数据库查询
+     * @return 空间（副本），不存在时为 null
+     */
+    public Space getWithUsage(Long spaceId, Function<Long, Space> loader) {
+        Space space = get(spaceId, loader);
+        if (space == null) {
+            return null;
+        }
+        String usageKey = USAGE_KEY_PREFIX + spaceId;
+        String genKey = USAGE_GEN_KEY_PREFIX + spaceId;
+        String gen;
+        try {
+            List<Object> usage = stringRedisTemplate.opsForHash().multiGet(usageKey, Arrays.asList(FIELD_TOTAL_SIZE, FIELD_TOTAL_COUNT));
+            if (usage.get(0) != null && usage.get(1) != null) {
+                space.setTotalSize(Long.parseLong(usage.get(0).toString()));
+                space.setTotalCount(Long.parseLong(usage.get(1).toString()));
+                return space;
+            }
+            // 读取数据库前记录代数，读取期间发生的增减会使本次初始化失效
+            gen = StrUtil.blankToDefault(stringRedisTemplate.opsForValue().get(genKey), "0");
+        } catch (Exception e) {
+            log.warn("查询空间额度缓存失败: {}", e.getMessage());
+            return loader.apply(spaceId);
+        }
+        // 计数器不存在，从数据库初始化
+        Space dbSpace = loader.apply(spaceId);
+        if (dbSpace != null) {
+            try {
+                stringRedisTemplate.execute(INIT_USAGE_SCRIPT, Arrays.asList(usageKey, genKey),
+                        String.valueOf(dbSpace.getTotalSize()), String.valueOf(dbSpace.getTotalCount()), String.valueOf(USAGE_EXPIRE_SECONDS), gen);
+            } catch (Exception e) {
+                log.warn("初始化空间额度缓存失败: {}", e.getMessage());
+            }
+        }
+        return dbSpace;
+    }
+
+    /**
+     * 增减已用额度计数器（在事务中调用时，事务提交后执行）
+     *
+     * @param spaceId    空间 id
+     * @param sizeDelta  已用大小变化量
+     * @param countDelta 图片数量变化量
+     */
+    public void incrementUsage(Long spaceId, long sizeDelta, long countDelta) {
+        TransactionUtils.afterCommit(() -> {
+            try {
+                stringRedisTemplate.execute(INCREMENT_USAGE_SCRIPT, Arrays.asList(USAGE_KEY_PREFIX + spaceId, USAGE_GEN_KEY_PREFIX + spaceId),
+                        String.valueOf(sizeDelta), String.valueOf(countDelta), String.valueOf(USAGE_EXPIRE_SECONDS));
+            } catch (Exception e) {
+                // 计数器可能与数据库不一致，直接删除，下次读取时重新初始化
+                log.error("更新空间额度缓存失败，空间 id: {}", spaceId, e);
+                deleteQuietly(USAGE_KEY_PREFIX + spaceId);
+            }
+        });
+    }
+
+    /**
+     * 删除空间缓存（在事务中调用时，事务提交后执行）
+     *
+     * @param spaceId 空间 id
+     */
+    public void invalidate(Long spaceId) {
+        TransactionUtils.afterCommit(() -> {
+            localCache.invalidate(spaceId);
+            deleteQuietly(META_KEY_PREFIX + spaceId);
+            deleteQuietly(USAGE_KEY_PREFIX + spaceId);
+            // Redis 删除后再通知其他节点，避免其他节点在删除前重新读到旧值
+            cacheCoherenceBus.publish(TIER_NAME, String.valueOf(spaceId));
+        });
+    }
+
+    private Space loadMeta(Long spaceId, Function<Long, Space> loader) {
+        String metaKey = META_KEY_PREFIX + spaceId;
+        String value = null;
+        try {
+            value = stringRedisTemplate.opsForValue().get(metaKey);
+        } catch (Exception e) {
+            log.warn("查询空间缓存失败: {}", e.getMessage());
+        }
+        if (value != null) {
+            return NULL_VALUE.equals(value) ? null : JSONUtil.toBean(value, Space.class);
+        }
+        Space space = loader.apply(spaceId);
+        try {
+            if (space != null) {
+                stringRedisTemplate.opsForValue().set(metaKey, JSONUtil.toJsonStr(space), META_EXPIRE_SECONDS, TimeUnit.SECONDS);
+            } else {
+                stringRedisTemplate.opsForValue().set(metaKey, NULL_VALUE, NULL_EXPIRE_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            log.warn("写入空间缓存失败: {}", e.getMessage());
+        }
+        return space;
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            stringRedisTemplate.delete(key);
+        } catch (Exception e) {
+            log.error("删除空间缓存失败: {}", key, e);
+        }
+    }
+}
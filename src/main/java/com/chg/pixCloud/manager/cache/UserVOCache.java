@@ -0,0 +1,222 @@
+package com.chg.pixCloud.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.model.vo.UserVO;
+import com.chg.pixCloud.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户脱敏信息两级缓存（本地 Caffeine + Redis）
+ * 图片、空间等封装类只需要创建用户的脱敏信息，同一批用户会被反复查询。
+ * 查询顺序为本地缓存 -> Redis（批量 MGET）-> 数据库（批量查询），未命中的数据回填到上一级缓存；
+ * 不存在的用户在 Redis 中短暂缓存空值，避免反复穿透到数据库。
+ * 用户信息变更时删除两级缓存，并通过缓存一致性总线通知其他节点删除本地缓存；
+ * 删除前递增用户的缓存代数，查询数据库期间代数发生变化的回填会被放弃，避免旧数据在删除后被写回
+ */
+@Slf4j
+@Component
+public class UserVOCache {
+
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    CacheCoherenceBus cacheCoherenceBus;
+
+    private static final String KEY_PREFIX = "pixcloud:user:vo:";
+
+    /**
+     * 用户缓存的代数：删除缓存时递增，回填时代数与查询数据库前不一致则放弃写入
+     */
+    private static final String GEN_KEY_PREFIX = "pixcloud:user:vo-gen:";
+
+    private static final String TIER_NAME = "user:vo";
+
+    /**
+     * 空值占位（用户不存在）
+     */
+    private static final String NULL_VALUE = "";
+
+    /**
+     * Redis 缓存过期时间（秒），另加随机时间防止缓存雪崩
+     */
+    private static final long REDIS_EXPIRE_SECONDS = 1800;
+    private static final int REDIS_EXPIRE_JITTER_SECONDS = 600;
+
+    /**
+     * 空值过期时间（秒）
+     */
+    private static final long NULL_EXPIRE_SECONDS = 60;
+
+    /**
+     * 代数过期时间，远大于一次数据库查询的耗时即可
+     */
+    private static final Duration GEN_EXPIRE = Duration.ofDays(1);
+
+    /**
+     * 代数与查询数据库前一致时写入缓存
+     */
+    private static final DefaultRedisScript<Long> WRITE_BACK_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '0') == ARGV[1] then " +
+                    "redis.call('set', KEYS[1], ARGV[2], 'EX', ARGV[3]); " +
+                    "return 1 end return 0",
+            Long.class);
+
+    private static final byte[] WRITE_BACK_SCRIPT_BYTES = WRITE_BACK_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    private final Cache<Long, UserVO> localCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            // 本地缓存无法跨节点删除，过期时间较短以限制不一致时长
+            .expireAfterWrite(Duration.ofMinutes(2))
+            .build();
+
+    @PostConstruct
+    public void init() {
+        cacheCoherenceBus.register(TIER_NAME, key -> localCache.invalidate(Long.valueOf(key)), localCache::invalidateAll);
+    }
+
+    /**
+     * 批量获取用户脱敏信息
+     *
+     * @param userIds 用户 id
+     * @param loader  从数据库批量加载（仅传入缓存未命中的 id）
+     * @return 用户 id -> 用户脱敏信息（不存在的用户不包含在内）
+     */
+    public Map<Long, UserVO> getAll(Collection<Long> userIds, Function<Collection<Long>, Map<Long, UserVO>> loader) {
+        Map<Long, UserVO> result = new HashMap<>();
+        if (CollUtil.isEmpty(userIds)) {
+            return result;
+        }
+        Set<Long> idSet = userIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        // 1. 本地缓存
+        result.putAll(localCache.getAllPresent(idSet));
+        List<Long> missIds = idSet.stream().filter(id -> !result.containsKey(id)).collect(Collectors.toList());
+        if (missIds.isEmpty()) {
+            return result;
+        }
+        // 2. Redis 批量查询（同时读取代数，供回填时校验）
+        List<Long> dbIds = new ArrayList<>();
+        List<String> dbGens = new ArrayList<>();
+        List<String> values = multiGet(missIds);
+        for (int i = 0; i < missIds.size(); i++) {
+            Long userId = missIds.get(i);
+            String value = values == null ? null : values.get(i);
+            if (value == null) {
+                dbIds.add(userId);
+                dbGens.add(values == null ? null : StrUtil.blankToDefault(values.get(missIds.size() + i), "0"));
+            } else if (!NULL_VALUE.equals(value)) {
+                UserVO userVO = JSONUtil.toBean(value, UserVO.class);
+                localCache.put(userId, userVO);
+                result.put(userId, userVO);
+            }
+        }
+        if (dbIds.isEmpty()) {
+            return result;
+        }
+        // 3. 数据库批量查询，回填两级缓存
+        Map<Long, UserVO> loaded = loader.apply(dbIds);
+        result.putAll(loaded);
+        if (values == null) {
+            // Redis 不可用时无法校验代数，只回填本地缓存
+            localCache.putAll(loaded);
+            return result;
+        }
+        List<Long> written = writeBack(dbIds, dbGens, loaded);
+        written.stream().filter(loaded::containsKey).forEach(userId -> localCache.put(userId, loaded.get(userId)));
+        return result;
+    }
+
+    /**
+     * 删除用户的缓存（在事务中调用时，事务提交后再删除，避免提交前被旧数据回填）
+     *
+     * @param userId 用户 id
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            localCache.invalidate(userId);
+            try {
+                // 先递增代数再删除，删除前已开始查询数据库的回填会因代数变化被放弃
+                String genKey = GEN_KEY_PREFIX + userId;
+                stringRedisTemplate.opsForValue().increment(genKey);
+                stringRedisTemplate.expire(genKey, GEN_EXPIRE);
+                stringRedisTemplate.delete(KEY_PREFIX + userId);
+            } catch (Exception e) {
+                log.error("删除用户缓存失败，用户 id: {}", userId, e);
+            }
+            // Redis 删除后再通知其他节点，避免其他节点在删除前重新读到旧值
+            cacheCoherenceBus.publish(TIER_NAME, String.valueOf(userId));
+        });
+    }
+
+    private List<String> multiGet(List<Long> userIds) {
+        List<String> keys = new ArrayList<>(userIds.size() * 2);
+        userIds.forEach(id -> keys.add(KEY_PREFIX + id));
+        userIds.forEach(id -> keys.add(GEN_KEY_PREFIX + id));
+        try {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            // Redis 不可用时直接查询数据库
+            log.warn("查询用户缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 回填 Redis 缓存
+     *
+     * @return 写入成功（代数未变化）的用户 id
+     */
+    private List<Long> writeBack(List<Long> userIds, List<String> gens, Map<Long, UserVO> loaded) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < userIds.size(); i++) {
+                    Long userId = userIds.get(i);
+                    UserVO userVO = loaded.get(userId);
+                    String value = userVO != null ? JSONUtil.toJsonStr(userVO) : NULL_VALUE;
+                    long expireSeconds = userVO != null
+                            ? REDIS_EXPIRE_SECONDS + RandomUtil.randomInt(0, REDIS_EXPIRE_JITTER_SECONDS)
+                            : NULL_EXPIRE_SECONDS;
+                    connection.scriptingCommands().eval(WRITE_BACK_SCRIPT_BYTES, ReturnType.INTEGER, 2,
+                            bytes(KEY_PREFIX + userId), bytes(GEN_KEY_PREFIX + userId),
+                            bytes(gens.get(i)), bytes(value), bytes(String.valueOf(expireSeconds)));
+                }
+                return null;
+            });
+            List<Long> written = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i++) {
+                if (Long.valueOf(1L).equals(results.get(i))) {
+                    written.add(userIds.get(i));
+                }
+            }
+            return written;
+        } catch (Exception e) {
+            log.warn("写入用户缓存失败: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package com.chg.pixCloud.manager.cache.codec;
+
+/**
+ * 缓存编解码器
+ * 将缓存对象编码为字节写入 Redis，读取时解码为带类型的对象
+ *
+ * @param <T> 缓存对象类型
+ */
+public interface CacheCodec<T> {
+
+    /**
+     * 编解码器名称（作为缓存键的一部分，切换编码格式后不会读到旧格式的数据）
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 编码
+     *
+     * @param value 缓存对象
+     * @return 字节
+     */
+    byte[] encode(T value);
+
+    /**
+     * 解码
+     *
+     * @param data 字节
+     * @return 缓存对象
+     */
+    T decode(byte[] data);
+}
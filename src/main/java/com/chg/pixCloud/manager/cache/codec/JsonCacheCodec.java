@@ -0,0 +1,35 @@
+package com.chg.pixCloud.manager.cache.codec;
+
+import cn.hutool.core.lang.TypeReference;
+import cn.hutool.json.JSONUtil;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON 缓存编解码器（hutool JSON，按泛型类型解码）
+ *
+ * @param <T> 缓存对象类型
+ */
+public class JsonCacheCodec<T> implements CacheCodec<T> {
+
+    private final TypeReference<T> typeReference;
+
+    public JsonCacheCodec(TypeReference<T> typeReference) {
+        this.typeReference = typeReference;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        return JSONUtil.toJsonStr(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        return JSONUtil.toBean(new String(data, StandardCharsets.UTF_8), typeReference, false);
+    }
+}
@@ -0,0 +1,321 @@
+package com.chg.pixCloud.manager.cache.codec;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import com.chg.pixCloud.model.vo.PictureVO;
+import com.chg.pixCloud.model.vo.UserVO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 图片分页列表的二进制编解码器
+ * 按固定字段顺序写入，不包含字段名；可空字段前写一个存在标记。
+ * 编码结果超过压缩阈值时使用 Deflate（最快速度）压缩，仅在压缩后更小时采用。
+ * 格式：版本号（1 字节）+ 标记（1 字节，最低位表示已压缩）+ 内容
+ */
+public class PictureVOPageCodec implements CacheCodec<Page<PictureVO>> {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte FLAG_DEFLATED = 1;
+
+    /**
+     * 压缩阈值（字节），小于等于 0 时不压缩
+     */
+    private final int compressThreshold;
+
+    public PictureVOPageCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public String name() {
+        return compressThreshold > 0 ? "bin-deflate" : "bin";
+    }
+
+    @Override
+    public byte[] encode(Page<PictureVO> page) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(byteStream);
+            writePage(out, page);
+            out.flush();
+            body = byteStream.toByteArray();
+        } catch (IOException e) {
+            // 写入内存流不会出现 IO 异常
+            throw new UncheckedIOException(e);
+        }
+        byte flags = 0;
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                body = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        byte[] data = new byte[body.length + 2];
+        data[0] = FORMAT_VERSION;
+        data[1] = flags;
+        System.arraycopy(body, 0, data, 2, body.length);
+        return data;
+    }
+
+    @Override
+    public Page<PictureVO> decode(byte[] data) {
+        if (data == null || data.length < 2 || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的缓存数据格式");
+        }
+        InputStream bodyStream = new ByteArrayInputStream(data, 2, data.length - 2);
+        if ((data[1] & FLAG_DEFLATED) != 0) {
+            bodyStream = new ByteArrayInputStream(inflate(data, 2, data.length - 2));
+        }
+        try {
+            return readPage(new DataInputStream(bodyStream));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("缓存数据已损坏", e);
+        }
+    }
+
+    private void writePage(DataOutputStream out, Page<PictureVO> page) throws IOException {
+        out.writeLong(page.getCurrent());
+        out.writeLong(page.getSize());
+        out.writeLong(page.getTotal());
+        List<PictureVO> records = page.getRecords();
+        out.writeInt(records == null ? 0 : records.size());
+        if (records == null) {
+            return;
+        }
+        for (PictureVO pictureVO : records) {
+            writePicture(out, pictureVO);
+        }
+    }
+
+    private Page<PictureVO> readPage(DataInputStream in) throws IOException {
+        Page<PictureVO> page = new Page<>(in.readLong(), in.readLong(), in.readLong());
+        int recordCount = in.readInt();
+        List<PictureVO> records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            records.add(readPicture(in));
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    private void writePicture(DataOutputStream out, PictureVO pictureVO) throws IOException {
+        writeLong(out, pictureVO.getId());
+        writeString(out, pictureVO.getUrl());
+        writeString(out, pictureVO.getThumbnailUrl());
+        writeString(out, pictureVO.getName());
+        writeString(out, pictureVO.getIntroduction());
+        List<String> tags = pictureVO.getTags();
+        out.writeInt(tags == null ? -1 : tags.size());
+        if (tags != null) {
+            for (String tag : tags) {
+                writeString(out, tag);
+            }
+        }
+        writeString(out, pictureVO.getCategory());
+        writeLong(out, pictureVO.getPicSize());
+        writeInt(out, pictureVO.getPicWidth());
+        writeInt(out, pictureVO.getPicHeight());
+        writeDouble(out, pictureVO.getPicScale());
+        writeString(out, pictureVO.getPicFormat());
+        writeLong(out, pictureVO.getUserId());
+        writeDate(out, pictureVO.getCreateTime());
+        writeDate(out, pictureVO.getEditTime());
+        writeDate(out, pictureVO.getUpdateTime());
+        writeUser(out, pictureVO.getUser());
+        writeLong(out, pictureVO.getSpaceId());
+        writeString(out, pictureVO.getPicColor());
+        List<PictureRendition> renditions = pictureVO.getRenditions();
+        out.writeInt(renditions == null ? -1 : renditions.size());
+        if (renditions != null) {
+            for (PictureRendition rendition : renditions) {
+                writeInt(out, rendition.getWidth());
+                writeInt(out, rendition.getHeight());
+                writeString(out, rendition.getFormat());
+                writeString(out, rendition.getUrl());
+            }
+        }
+    }
+
+    private PictureVO readPicture(DataInputStream in) throws IOException {
+        PictureVO pictureVO = new PictureVO();
+        pictureVO.setId(readLong(in));
+        pictureVO.setUrl(readString(in));
+        pictureVO.setThumbnailUrl(readString(in));
+        pictureVO.setName(readString(in));
+        pictureVO.setIntroduction(readString(in));
+        int tagCount = in.readInt();
+        if (tagCount >= 0) {
+            List<String> tags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(readString(in));
+            }
+            pictureVO.setTags(tags);
+        }
+        pictureVO.setCategory(readString(in));
+        pictureVO.setPicSize(readLong(in));
+        pictureVO.setPicWidth(readInt(in));
+        pictureVO.setPicHeight(readInt(in));
+        pictureVO.setPicScale(readDouble(in));
+        pictureVO.setPicFormat(readString(in));
+        pictureVO.setUserId(readLong(in));
+        pictureVO.setCreateTime(readDate(in));
+        pictureVO.setEditTime(readDate(in));
+        pictureVO.setUpdateTime(readDate(in));
+        pictureVO.setUser(readUser(in));
+        pictureVO.setSpaceId(readLong(in));
+        pictureVO.setPicColor(readString(in));
+        int renditionCount = in.readInt();
+        if (renditionCount >= 0) {
+            List<PictureRendition> renditions = new ArrayList<>(renditionCount);
+            for (int i = 0; i < renditionCount; i++) {
+                PictureRendition rendition = new PictureRendition();
+                rendition.setWidth(readInt(in));
+                rendition.setHeight(readInt(in));
+                rendition.setFormat(readString(in));
+                rendition.setUrl(readString(in));
+                renditions.add(rendition);
+            }
+            pictureVO.setRenditions(renditions);
+        }
+        return pictureVO;
+    }
+
+    private void writeUser(DataOutputStream out, UserVO userVO) throws IOException {
+        out.writeBoolean(userVO != null);
+        if (userVO == null) {
+            return;
+        }
+        writeLong(out, userVO.getId());
+        writeString(out, userVO.getUserAccount());
+        writeString(out, userVO.getUserName());
+        writeString(out, userVO.getUserAvatar());
+        writeString(out, userVO.getUserProfile());
+        writeString(out, userVO.getUserRole());
+        writeDate(out, userVO.getCreateTime());
+    }
+
+    private UserVO readUser(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        UserVO userVO = new UserVO();
+        userVO.setId(readLong(in));
+        userVO.setUserAccount(readString(in));
+        userVO.setUserName(readString(in));
+        userVO.setUserAvatar(readString(in));
+        userVO.setUserProfile(readString(in));
+        userVO.setUserRole(readString(in));
+        userVO.setCreateTime(readDate(in));
+        return userVO;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        writeLong(out, value == null ? null : value.getTime());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        Long time = readLong(in);
+        return time == null ? null : new Date(time);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("缓存数据已损坏");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("缓存数据已损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
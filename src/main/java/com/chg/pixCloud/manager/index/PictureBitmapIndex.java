@@ -0,0 +1,483 @@
+package com.chg.pixCloud.manager.index;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.chg.pixCloud.event.PictureChangedEvent;
+import com.chg.pixCloud.mapper.PictureMapper;
+import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.enums.PictureReviewStatusEnum;
+import com.chg.pixCloud.model.vo.PictureFacetVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 公开图库筛选索引（进程内压缩位图）
+ * 每张图片分配一个按创建时间递增的序号，按分类、标签、格式、审核状态、是否公开分别维护序号位图。
+ * 公开图库的筛选、计数和分面统计直接在位图上完成，分页只回表查询当前页的图片。
+ * 本节点的写操作通过图片变更事件实时更新，其他节点的写操作由定时增量同步（按更新时间）兜底，并定期全量重建
+ */
+@Slf4j
+@Component
+public class PictureBitmapIndex {
+
+    @Resource
+    PictureMapper pictureMapper;
+    @Resource
+    MeterRegistry meterRegistry;
+
+    /**
+     * 全量加载及增量同步每批读取的条数
+     */
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * 单次增量同步最多读取的批次
+     */
+    private static final int MAX_SYNC_BATCHES = 10;
+
+    /**
+     * 增量同步的时间重叠（毫秒），覆盖节点间时钟偏差和秒级精度的更新时间
+     */
+    private static final long SYNC_OVERLAP_MILLIS = 5000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * 全量重建期间发生变更的图片，重建完成后重新应用
+     */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 索引数据，首次构建完成前为 null（此时查询回退到数据库）
+     */
+    private volatile IndexState state;
+
+    /**
+     * 下一次增量同步的起始更新时间
+     */
+    private volatile Date syncSince;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("picture.index.size", this, index -> {
+                    IndexState current = index.state;
+                    return current == null ? 0 : current.entries.size();
+                })
+                .description("筛选索引中的图片数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return state != null;
+    }
+
+    /**
+     * 启动后异步构建索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 定期全量重建：回收已删除图片的序号，并修正增量同步可能遗漏的数据
+     */
+    @Scheduled(initialDelay = 3600_000, fixedDelay = 3600_000)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            pendingIds.clear();
+            Date since = new Date(start - SYNC_OVERLAP_MILLIS);
+            IndexState newState = loadAll();
+            lock.writeLock().lock();
+            try {
+                state = newState;
+                syncSince = since;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("图片筛选索引构建完成，图片数量: {}，耗时: {}ms", newState.entries.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("图片筛选索引构建失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+        if (!pendingIds.isEmpty()) {
+            List<Long> ids = new ArrayList<>(pendingIds);
+            pendingIds.removeAll(ids);
+            refresh(ids);
+        }
+    }
+
+    /**
+     * 增量同步：按更新时间读取其他节点的变更（包含逻辑删除）
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 30_000)
+    public void syncChanges() {
+        if (state == null || rebuilding.get()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Date since = syncSince;
+        try {
+            for (int i = 0; i < MAX_SYNC_BATCHES; i++) {
+                List<Picture> changedList = pictureMapper.listIndexFieldsUpdatedSince(since, LOAD_BATCH_SIZE);
+                apply(changedList, picture -> Integer.valueOf(0).equals(picture.getIsDelete()), Collections.emptyList());
+                if (changedList.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                since = changedList.get(changedList.size() - 1).getUpdateTime();
+            }
+            syncSince = new Date(start - SYNC_OVERLAP_MILLIS);
+        } catch (Exception e) {
+            log.error("图片筛选索引增量同步失败", e);
+        }
+    }
+
+    /**
+     * 本节点的图片变更在事务提交后更新索引（无事务时立即执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPictureChanged(PictureChangedEvent event) {
+        try {
+            refresh(event.getPictureIds());
+        } catch (Exception e) {
+            // 索引更新失败不影响写操作，由增量同步修正
+            log.error("图片筛选索引更新失败，图片 id: {}", event.getPictureIds(), e);
+        }
+    }
+
+    /**
+     * 按 id 重新读取图片并更新索引，已删除的图片从索引中移除
+     *
+     * @param pictureIds 图片 id
+     */
+    public void refresh(Collection<Long> pictureIds) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        if (rebuilding.get()) {
+            pendingIds.addAll(pictureIds);
+        }
+        if (state == null) {
+            return;
+        }
+        List<Picture> pictureList = pictureMapper.selectList(selectIndexFields().in("id", pictureIds));
+        Set<Long> existIds = pictureList.stream().map(Picture::getId).collect(Collectors.toSet());
+        List<Long> removedIds = pictureIds.stream().filter(id -> !existIds.contains(id)).collect(Collectors.toList());
+        apply(pictureList, picture -> true, removedIds);
+    }
+
+    /**
+     * 分页查询公开图库中已过审的图片 id
+     *
+     * @param category  分类（精确匹配）
+     * @param tags      标签（需同时包含）
+     * @param picFormat 图片格式（模糊匹配）
+     * @param ascend    是否按创建时间升序
+     * @param current   页码
+     * @param size      每页条数
+     * @return 当前页的图片 id 及总数，索引不可用时返回 null
+     */
+    public IndexPage query(String category, List<String> tags, String picFormat, boolean ascend, long current, long size) {
+        lock.readLock().lock();
+        try {
+            IndexState indexState = state;
+            if (indexState == null) {
+                return null;
+            }
+            RoaringBitmap bitmap = filter(indexState, category, tags, picFormat);
+            long total = bitmap.getLongCardinality();
+            long offset = (current - 1) * size;
+            List<Long> ids = new ArrayList<>();
+            for (long i = offset; i < Math.min(offset + size, total); i++) {
+                long rank = ascend ? i : total - 1 - i;
+                ids.add(indexState.ordinalToId[bitmap.select((int) rank)]);
+            }
+            return new IndexPage(total, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 公开图库分面统计：在筛选结果中按分类、标签、格式计数
+     *
+     * @param category  分类（精确匹配）
+     * @param tags      标签（需同时包含）
+     * @param picFormat 图片格式（模糊匹配）
+     * @param limit     每个维度最多返回的取值数
+     * @return 分面统计结果，索引不可用时返回 null
+     */
+    public PictureFacetVO facet(String category, List<String> tags, String picFormat, int limit) {
+        lock.readLock().lock();
+        try {
+            IndexState current = state;
+            if (current == null) {
+                return null;
+            }
+            RoaringBitmap bitmap = filter(current, category, tags, picFormat);
+            PictureFacetVO facetVO = new PictureFacetVO();
+            facetVO.setTotal(bitmap.getLongCardinality());
+            facetVO.setCategories(countFacet(current.categoryBitmaps, bitmap, limit));
+            facetVO.setTags(countFacet(current.tagBitmaps, bitmap, limit));
+            facetVO.setPicFormats(countFacet(current.formatBitmaps, bitmap, limit));
+            return facetVO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 计算筛选结果（公开且已过审，再与各筛选条件求交集）
+     */
+    private RoaringBitmap filter(IndexState current, String category, List<String> tags, String picFormat) {
+        RoaringBitmap bitmap = RoaringBitmap.and(current.publicBitmap,
+                current.reviewStatusBitmaps.getOrDefault(PictureReviewStatusEnum.PASS.getValue(), new RoaringBitmap()));
+        if (StrUtil.isNotBlank(category)) {
+            bitmap.and(current.categoryBitmaps.getOrDefault(category, new RoaringBitmap()));
+        }
+        if (CollUtil.isNotEmpty(tags)) {
+            for (String tag : tags) {
+                bitmap.and(current.tagBitmaps.getOrDefault(tag, new RoaringBitmap()));
+            }
+        }
+        if (StrUtil.isNotBlank(picFormat)) {
+            // 与数据库的 like 查询一致：包含该字符串的所有格式
+            RoaringBitmap formatBitmap = new RoaringBitmap();
+            current.formatBitmaps.forEach((format, formatOrdinals) -> {
+                if (StrUtil.containsIgnoreCase(format, picFormat)) {
+                    formatBitmap.or(formatOrdinals);
+                }
+            });
+            bitmap.and(formatBitmap);
+        }
+        return bitmap;
+    }
+
+    private static List<PictureFacetVO.FacetCount> countFacet(Map<String, RoaringBitmap> bitmaps, RoaringBitmap filtered, int limit) {
+        List<PictureFacetVO.FacetCount> countList = new ArrayList<>();
+        bitmaps.forEach((value, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(filtered, bitmap);
+            if (count > 0) {
+                countList.add(new PictureFacetVO.FacetCount(value, count));
+            }
+        });
+        countList.sort(Comparator.comparingLong(PictureFacetVO.FacetCount::getCount).reversed());
+        return countList.size() > limit ? new ArrayList<>(countList.subList(0, limit)) : countList;
+    }
+
+    /**
+     * 应用变更：满足条件的图片写入索引，其余从索引中移除
+     */
+    private void apply(List<Picture> pictureList, Predicate<Picture> alive, Collection<Long> removedIds) {
+        lock.writeLock().lock();
+        try {
+            IndexState current = state;
+            if (current == null) {
+                return;
+            }
+            for (Picture picture : pictureList) {
+                if (alive.test(picture)) {
+                    current.upsert(picture);
+                } else {
+                    current.remove(picture.getId());
+                }
+            }
+            removedIds.forEach(current::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载：按 id 分批读取，再按创建时间排序分配序号
+     */
+    private IndexState loadAll() {
+        List<Picture> pictureList = new ArrayList<>();
+        long lastId = 0;
+        while (true) {
+            List<Picture> batch = pictureMapper.selectList(selectIndexFields()
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("limit " + LOAD_BATCH_SIZE));
+            pictureList.addAll(batch);
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        pictureList.sort(Comparator.comparing(Picture::getCreateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Picture::getId));
+        IndexState newState = new IndexState(pictureList.size());
+        pictureList.forEach(newState::upsert);
+        return newState;
+    }
+
+    private static QueryWrapper<Picture> selectIndexFields() {
+        return new QueryWrapper<Picture>().select("id", "spaceId", "reviewStatus", "category", "tags", "picFormat", "createTime");
+    }
+
+    /**
+     * 分页查询结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class IndexPage {
+
+        /**
+         * 符合条件的总数
+         */
+        private final long total;
+
+        /**
+         * 当前页的图片 id（已按排序排列）
+         */
+        private final List<Long> ids;
+    }
+
+    /**
+     * 索引中单张图片的属性（更新时据此从旧的位图中移除）
+     */
+    @AllArgsConstructor
+    private static class IndexEntry {
+        private final int ordinal;
+        private final boolean publicPicture;
+        private final Integer reviewStatus;
+        private final String category;
+        private final Set<String> tags;
+        private final String picFormat;
+    }
+
+    /**
+     * 索引数据（读写均在外部锁保护下进行）
+     * 序号在首次写入时分配，新图片追加在末尾；删除的序号在下次全量重建时回收
+     */
+    private static class IndexState {
+
+        private final Map<Long, IndexEntry> entries;
+
+        private long[] ordinalToId;
+
+        private int nextOrdinal;
+
+        private final RoaringBitmap publicBitmap = new RoaringBitmap();
+
+        private final Map<Integer, RoaringBitmap> reviewStatusBitmaps = new HashMap<>();
+
+        private final Map<String, RoaringBitmap> categoryBitmaps = new HashMap<>();
+
+        private final Map<String, RoaringBitmap> tagBitmaps = new HashMap<>();
+
+        private final Map<String, RoaringBitmap> formatBitmaps = new HashMap<>();
+
+        private IndexState(int expectedSize) {
+            this.entries = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+            this.ordinalToId = new long[Math.max(1024, expectedSize + expectedSize / 4)];
+        }
+
+        private void upsert(Picture picture) {
+            IndexEntry oldEntry = entries.get(picture.getId());
+            int ordinal;
+            if (oldEntry != null) {
+                ordinal = oldEntry.ordinal;
+                unindex(oldEntry);
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal >= ordinalToId.length) {
+                    ordinalToId = Arrays.copyOf(ordinalToId, ordinalToId.length * 2);
+                }
+                ordinalToId[ordinal] = picture.getId();
+            }
+            IndexEntry entry = new IndexEntry(ordinal, picture.getSpaceId() == null, picture.getReviewStatus(),
+                    StrUtil.emptyToNull(picture.getCategory()), parseTags(picture.getTags()), StrUtil.emptyToNull(picture.getPicFormat()));
+            entries.put(picture.getId(), entry);
+            if (entry.publicPicture) {
+                publicBitmap.add(ordinal);
+            }
+            if (entry.reviewStatus != null) {
+                reviewStatusBitmaps.computeIfAbsent(entry.reviewStatus, key -> new RoaringBitmap()).add(ordinal);
+            }
+            if (entry.category != null) {
+                categoryBitmaps.computeIfAbsent(entry.category, key -> new RoaringBitmap()).add(ordinal);
+            }
+            for (String tag : entry.tags) {
+                tagBitmaps.computeIfAbsent(tag, key -> new RoaringBitmap()).add(ordinal);
+            }
+            if (entry.picFormat != null) {
+                formatBitmaps.computeIfAbsent(entry.picFormat, key -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        private void remove(Long pictureId) {
+            IndexEntry oldEntry = entries.remove(pictureId);
+            if (oldEntry != null) {
+                unindex(oldEntry);
+            }
+        }
+
+        private void unindex(IndexEntry entry) {
+            publicBitmap.remove(entry.ordinal);
+            removeOrdinal(reviewStatusBitmaps, entry.reviewStatus, entry.ordinal);
+            removeOrdinal(categoryBitmaps, entry.category, entry.ordinal);
+            entry.tags.forEach(tag -> removeOrdinal(tagBitmaps, tag, entry.ordinal));
+            removeOrdinal(formatBitmaps, entry.picFormat, entry.ordinal);
+        }
+
+        private static <K> void removeOrdinal(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+            if (key == null) {
+                return;
+            }
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+
+        /**
+         * 解析标签（与标签表一致：去除空白和重复标签）
+         */
+        private static Set<String> parseTags(String tags) {
+            if (StrUtil.isBlank(tags) || !JSONUtil.isTypeJSONArray(tags)) {
+                return Collections.emptySet();
+            }
+            return JSONUtil.toList(tags, String.class).stream()
+                    .filter(StrUtil::isNotBlank)
+                    .map(String::trim)
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+}
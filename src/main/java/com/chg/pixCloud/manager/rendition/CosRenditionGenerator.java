@@ -0,0 +1,72 @@
+package com.chg.pixCloud.manager.rendition;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import com.chg.pixCloud.config.CosClientConfig;
+import com.chg.pixCloud.config.RenditionConfig;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.model.ciModel.common.ImageProcessRequest;
+import com.qcloud.cos.model.ciModel.persistence.CIObject;
+import com.qcloud.cos.model.ciModel.persistence.CIUploadResult;
+import com.qcloud.cos.model.ciModel.persistence.PicOperations;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 使用 COS 数据万象云上处理生成响应式尺寸图片（源图片无需下载到服务器）
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cos", matchIfMissing = true)
+public class CosRenditionGenerator implements RenditionGenerator {
+    @Resource
+    CosClientConfig cosClientConfig;
+    @Resource
+    COSClient cosClient;
+    @Resource
+    ObjectStorage objectStorage;
+    @Resource
+    RenditionConfig renditionConfig;
+
+    /**
+     * 单次请求的处理规则数量上限（数据万象限制）
+     */
+    private static final int MAX_RULES_PER_REQUEST = 5;
+
+    @Override
+    public List<PictureRendition> generate(String key, List<Integer> widths) {
+        String format = renditionConfig.getFormat();
+        List<PictureRendition> renditions = new ArrayList<>();
+        for (List<Integer> batch : CollUtil.split(widths, MAX_RULES_PER_REQUEST)) {
+            List<PicOperations.Rule> rules = new ArrayList<>();
+            for (Integer width : batch) {
+                PicOperations.Rule rule = new PicOperations.Rule();
+                rule.setBucket(cosClientConfig.getBucket());
+                // 相对路径，与源图片位于同一目录
+                rule.setFileId(String.format("%s_w%d.%s", FileUtil.mainName(key), width, format));
+                // 按宽度等比缩放，原图更小时不放大
+                rule.setRule(String.format("imageMogr2/thumbnail/%dx>/format/%s", width, format));
+                rules.add(rule);
+            }
+            PicOperations picOperations = new PicOperations();
+            picOperations.setRules(rules);
+            ImageProcessRequest imageProcessRequest = new ImageProcessRequest(cosClientConfig.getBucket(), key);
+            imageProcessRequest.setPicOperations(picOperations);
+            CIUploadResult ciUploadResult = cosClient.processImage(imageProcessRequest);
+            for (CIObject ciObject : ciUploadResult.getProcessResults().getObjectList()) {
+                PictureRendition rendition = new PictureRendition();
+                rendition.setWidth(ciObject.getWidth());
+                rendition.setHeight(ciObject.getHeight());
+                rendition.setFormat(ciObject.getFormat());
+                rendition.setUrl(objectStorage.getUrl(ciObject.getKey()));
+                renditions.add(rendition);
+            }
+        }
+        return renditions;
+    }
+}
@@ -0,0 +1,69 @@
+package com.chg.pixCloud.manager.rendition;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import com.chg.pixCloud.manager.storage.StorageObject;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 本地生成响应式尺寸图片（本地存储时使用）
+ * 源图片只解码一次，依次缩放出各个宽度；ImageIO 不支持写 webp，透明图片输出 png，其余输出 jpg
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalRenditionGenerator implements RenditionGenerator {
+    @Resource
+    ObjectStorage objectStorage;
+
+    @Override
+    public List<PictureRendition> generate(String key, List<Integer> widths) throws Exception {
+        BufferedImage source;
+        try (StorageObject storageObject = objectStorage.getObject(key)) {
+            source = ImageIO.read(storageObject.getInputStream());
+        }
+        // 无法解码的格式（如 webp）不生成
+        if (source == null) {
+            return Collections.emptyList();
+        }
+        boolean hasAlpha = source.getColorModel().hasAlpha();
+        String format = hasAlpha ? "png" : "jpg";
+        String directory = StrUtil.subBefore(StrUtil.removePrefix(key, "/"), "/", true);
+        List<PictureRendition> renditions = new ArrayList<>();
+        for (Integer width : widths) {
+            if (width >= source.getWidth()) {
+                continue;
+            }
+            int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+            graphics.dispose();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(scaled, format, outputStream);
+            String renditionKey = String.format("%s/%s_w%d.%s", directory, FileUtil.mainName(key), width, format);
+            objectStorage.putObject(renditionKey, new ByteArrayInputStream(outputStream.toByteArray()), outputStream.size());
+            PictureRendition rendition = new PictureRendition();
+            rendition.setWidth(width);
+            rendition.setHeight(height);
+            rendition.setFormat(format);
+            rendition.setUrl(objectStorage.getUrl(renditionKey));
+            renditions.add(rendition);
+        }
+        return renditions;
+    }
+}
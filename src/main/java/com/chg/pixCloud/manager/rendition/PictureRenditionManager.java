@@ -0,0 +1,178 @@
+package com.chg.pixCloud.manager.rendition;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.chg.pixCloud.config.RenditionConfig;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import com.chg.pixCloud.mapper.PictureMapper;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import com.chg.pixCloud.model.entity.Picture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 响应式尺寸图片生成
+ * 图片入库（事务提交）后提交到独立线程池异步生成，失败按指数退避重试；
+ * 生成结果以图片地址为条件写回，图片在生成期间被重新上传时不会写入旧结果。
+ * 未生成的图片（renditions 为空）可通过补偿任务批量生成。
+ */
+@Slf4j
+@Component
+public class PictureRenditionManager {
+    @Resource
+    RenditionGenerator renditionGenerator;
+    @Resource
+    ObjectStorage objectStorage;
+    @Resource
+    PictureMapper pictureMapper;
+    @Resource
+    RenditionConfig renditionConfig;
+    @Resource
+    ThreadPoolExecutor renditionExecutor;
+
+    /**
+     * 补偿任务分页大小
+     */
+    private static final int BACKFILL_PAGE_SIZE = 200;
+
+    /**
+     * 重试退避基数（毫秒）
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    /**
+     * 提交生成任务（须在事务提交后调用），线程池已满时跳过，由补偿任务处理
+     *
+     * @param picture 图片
+     */
+    public void submit(Picture picture) {
+        if (!renditionConfig.isEnabled() || picture == null || StrUtil.isBlank(picture.getUrl())) {
+            return;
+        }
+        try {
+            renditionExecutor.execute(() -> generateWithRetry(picture));
+        } catch (RejectedExecutionException e) {
+            log.warn("响应式图片生成队列已满，稍后补偿生成, pictureId={}", picture.getId());
+        }
+    }
+
+    /**
+     * 补偿生成：按 id 分页处理所有尚未生成的图片，线程池已满时在当前线程执行，形成背压
+     */
+    @Async
+    public void backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            log.info("响应式图片补偿任务正在执行");
+            return;
+        }
+        try {
+            long lastId = 0;
+            long count = 0;
+            while (true) {
+                List<Picture> pictureList = pictureMapper.selectList(Wrappers.lambdaQuery(Picture.class)
+                        .select(Picture::getId, Picture::getUrl, Picture::getPicWidth)
+                        .isNull(Picture::getRenditions)
+                        .gt(Picture::getId, lastId)
+                        .orderByAsc(Picture::getId)
+                        .last("limit " + BACKFILL_PAGE_SIZE));
+                for (Picture picture : pictureList) {
+                    try {
+                        renditionExecutor.execute(() -> generateWithRetry(picture));
+                    } catch (RejectedExecutionException e) {
+                        generateWithRetry(picture);
+                    }
+                }
+                count += pictureList.size();
+                if (pictureList.size() < BACKFILL_PAGE_SIZE) {
+                    break;
+                }
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            log.info("响应式图片补偿任务提交完成, count={}", count);
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    /**
+     * 生成并写回，失败按指数退避重试
+     *
+     * @param picture 图片
+     */
+    private void generateWithRetry(Picture picture) {
+        for (int attempt = 1; attempt <= renditionConfig.getMaxAttempts(); attempt++) {
+            try {
+                List<PictureRendition> renditions = findExistingRenditions(picture);
+                if (renditions == null) {
+                    renditions = generate(picture);
+                }
+                saveRenditions(picture, renditions);
+                return;
+            } catch (Exception e) {
+                log.warn("响应式图片生成失败, pictureId={}, attempt={}", picture.getId(), attempt, e);
+                if (attempt < renditionConfig.getMaxAttempts()) {
+                    ThreadUtil.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+                }
+            }
+        }
+        log.error("响应式图片生成失败，已放弃, pictureId={}", picture.getId());
+    }
+
+    /**
+     * 相同内容的图片共用对象存储文件，已有其他图片生成过时直接复用
+     *
+     * @param picture 图片
+     * @return 已生成的图片，没有则返回 null
+     */
+    private List<PictureRendition> findExistingRenditions(Picture picture) {
+        Picture existing = pictureMapper.selectOne(Wrappers.lambdaQuery(Picture.class)
+                .select(Picture::getRenditions)
+                .eq(Picture::getUrl, picture.getUrl())
+                .ne(Picture::getId, picture.getId())
+                .isNotNull(Picture::getRenditions)
+                .last("limit 1"));
+        return existing == null ? null : JSONUtil.toList(existing.getRenditions(), PictureRendition.class);
+    }
+
+    private List<PictureRendition> generate(Picture picture) throws Exception {
+        // 只生成小于原图宽度的尺寸（宽度未知时全部生成，处理时不会放大）
+        Integer picWidth = picture.getPicWidth();
+        List<Integer> widths = renditionConfig.getWidths().stream()
+                .filter(width -> picWidth == null || width < picWidth)
+                .sorted()
+                .collect(Collectors.toList());
+        if (widths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PictureRendition> renditions = renditionGenerator.generate(objectStorage.getKey(picture.getUrl()), widths);
+        renditions.sort(Comparator.comparing(PictureRendition::getWidth, Comparator.nullsLast(Comparator.naturalOrder())));
+        return renditions;
+    }
+
+    /**
+     * 写回生成结果（以图片地址为条件，图片已被重新上传或删除时不写入）
+     */
+    private void saveRenditions(Picture picture, List<PictureRendition> renditions) {
+        int updated = pictureMapper.update(null, Wrappers.lambdaUpdate(Picture.class)
+                .eq(Picture::getId, picture.getId())
+                .eq(Picture::getUrl, picture.getUrl())
+                .set(Picture::getRenditions, JSONUtil.toJsonStr(renditions)));
+        if (updated == 0) {
+            log.info("图片已变更，丢弃响应式图片生成结果, pictureId={}", picture.getId());
+        }
+    }
+}
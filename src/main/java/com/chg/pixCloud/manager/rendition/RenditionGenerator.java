@@ -0,0 +1,21 @@
+package com.chg.pixCloud.manager.rendition;
+
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+
+import java.util.List;
+
+/**
+ * 响应式尺寸图片生成器
+ * 生成的对象与源图片位于同一目录，文件名为 {源文件名}_w{宽度}.{格式}，与源图片共用文件主干，删除及孤儿清理时一并处理
+ */
+public interface RenditionGenerator {
+
+    /**
+     * 生成指定宽度的图片（等比缩放）
+     *
+     * @param key    源图片唯一键（路径）
+     * @param widths 宽度列表
+     * @return 生成的图片，源图片无法处理时返回空列表
+     */
+    List<PictureRendition> generate(String key, List<Integer> widths) throws Exception;
+}
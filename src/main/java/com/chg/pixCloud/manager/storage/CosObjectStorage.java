@@ -0,0 +1,123 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import com.chg.pixCloud.config.CosClientConfig;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.http.HttpMethodName;
+import com.qcloud.cos.model.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 腾讯云 COS 对象存储
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cos", matchIfMissing = true)
+public class CosObjectStorage implements ObjectStorage {
+    @Resource
+    CosClientConfig cosClientConfig;
+    @Resource
+    COSClient cosClient;
+
+    /**
+     * 单次批量删除的对象数量上限（COS 限制）
+     */
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    @Override
+    public void putObject(String key, InputStream inputStream, long contentLength) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(contentLength);
+        cosClient.putObject(new PutObjectRequest(cosClientConfig.getBucket(), key, inputStream, objectMetadata));
+    }
+
+    @Override
+    public StorageObject getObject(String key) {
+        COSObject cosObject = cosClient.getObject(new GetObjectRequest(cosClientConfig.getBucket(), key));
+        return new StorageObject(cosObject.getObjectContent(), cosObject.getObjectMetadata().getContentLength());
+    }
+
+    @Override
+    public long getObjectLength(String key) {
+        return cosClient.getObjectMetadata(cosClientConfig.getBucket(), key).getContentLength();
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        GetObjectRequest getObjectRequest = new GetObjectRequest(cosClientConfig.getBucket(), key);
+        getObjectRequest.setRange(position, position + count - 1);
+        COSObject cosObject = cosClient.getObject(getObjectRequest);
+        try (COSObjectInputStream inputStream = cosObject.getObjectContent()) {
+            // 直接写入目标通道，不关闭目标通道
+            OutputStream outputStream = Channels.newOutputStream(target);
+            return IoUtil.copy(inputStream, outputStream);
+        }
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        cosClient.deleteObject(cosClientConfig.getBucket(), key);
+    }
+
+    @Override
+    public void deleteObjects(List<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return;
+        }
+        for (List<String> batch : CollUtil.split(keys, MAX_DELETE_BATCH_SIZE)) {
+            DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(cosClientConfig.getBucket());
+            deleteObjectsRequest.setKeys(batch.stream()
+                    .map(DeleteObjectsRequest.KeyVersion::new)
+                    .collect(Collectors.toList()));
+            // 静默模式，只返回删除失败的对象
+            deleteObjectsRequest.setQuiet(true);
+            cosClient.deleteObjects(deleteObjectsRequest);
+        }
+    }
+
+    @Override
+    public StorageObjectListing listObjects(String prefix, String marker, int maxKeys) {
+        ListObjectsRequest listObjectsRequest = new ListObjectsRequest();
+        listObjectsRequest.setBucketName(cosClientConfig.getBucket());
+        listObjectsRequest.setPrefix(prefix);
+        listObjectsRequest.setMarker(marker);
+        listObjectsRequest.setMaxKeys(Math.min(maxKeys, MAX_DELETE_BATCH_SIZE));
+        ObjectListing objectListing = cosClient.listObjects(listObjectsRequest);
+        List<StorageObjectSummary> objects = objectListing.getObjectSummaries().stream()
+                .map(summary -> new StorageObjectSummary(summary.getKey(), summary.getSize(), summary.getLastModified()))
+                .collect(Collectors.toList());
+        return new StorageObjectListing(objects, objectListing.isTruncated() ? objectListing.getNextMarker() : null);
+    }
+
+    @Override
+    public String generatePresignedUrl(String key, Date expiration) {
+        return cosClient.generatePresignedUrl(cosClientConfig.getBucket(), key, expiration, HttpMethodName.GET).toString();
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return cosClientConfig.getHost() + "/" + StrUtil.removePrefix(key, "/");
+    }
+
+    @Override
+    public String getKey(String url) {
+        String host = cosClientConfig.getHost();
+        if (StrUtil.isNotBlank(host) && StrUtil.startWith(url, host)) {
+            return StrUtil.removePrefix(StrUtil.removePrefix(url, host), "/");
+        }
+        return StrUtil.removePrefix(URLUtil.getPath(url), "/");
+    }
+}
@@ -0,0 +1,62 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.util.BitSet;
+
+/**
+ * 对象键布隆过滤器
+ * 内存占用只与预期元素数量和误判率有关（百万级元素、1% 误判率约 1.2MB）；
+ * 只会把不存在的键误判为存在，不会漏判，用于孤儿文件判断时误判只会导致少清理，不会误删
+ */
+public class KeyBloomFilter {
+
+    private final BitSet bits;
+
+    private final int bitSize;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedCount 预期元素数量
+     * @param fpp           期望误判率
+     */
+    public KeyBloomFilter(long expectedCount, double fpp) {
+        long n = Math.max(expectedCount, 1);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitSize = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.bits = new BitSet(bitSize);
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String key) {
+        long[] hash = MurmurHash.hash128(key);
+        for (int i = 0; i < hashCount; i++) {
+            bits.set(index(hash, i));
+        }
+    }
+
+    /**
+     * 元素可能存在（返回 false 时一定不存在）
+     */
+    public boolean mightContain(String key) {
+        long[] hash = MurmurHash.hash128(key);
+        for (int i = 0; i < hashCount; i++) {
+            if (!bits.get(index(hash, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 双重哈希生成第 i 个位置
+     */
+    private int index(long[] hash, int i) {
+        long combined = hash[0] + i * hash[1];
+        return (int) ((combined & Long.MAX_VALUE) % bitSize);
+    }
+}
@@ -0,0 +1,199 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.LocalStorageConfig;
+import com.chg.pixCloud.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件系统对象存储（用于压测及私有化部署）
+ * 写入先落到同目录的临时文件，完成后原子重命名，读取方不会看到写了一半的文件；
+ * 读取使用 FileChannel.transferTo，目标为文件或套接字通道时由操作系统零拷贝完成。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalObjectStorage implements ObjectStorage {
+    @Resource
+    LocalStorageConfig localStorageConfig;
+
+    /**
+     * 存储根目录
+     */
+    private Path rootPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        rootPath = Paths.get(localStorageConfig.getRootPath()).toAbsolutePath().normalize();
+        Files.createDirectories(rootPath);
+        log.info("本地对象存储根目录: {}", rootPath);
+    }
+
+    @Override
+    public void putObject(String key, InputStream inputStream, long contentLength) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(inputStream)) {
+                long position = 0;
+                while (position < contentLength) {
+                    long transferred = fileChannel.transferFrom(source, position, contentLength - position);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                if (position != contentLength) {
+                    throw new IOException(String.format("内容长度不一致, key=%s, expected=%d, actual=%d", key, contentLength, position));
+                }
+                fileChannel.force(false);
+            }
+            // 原子重命名，覆盖同名对象
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public StorageObject getObject(String key) throws IOException {
+        Path path = resolveExisting(key);
+        return new StorageObject(Files.newInputStream(path), Files.size(path));
+    }
+
+    @Override
+    public long getObjectLength(String key) throws IOException {
+        return Files.size(resolveExisting(key));
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(resolveExisting(key), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, fileChannel.size());
+            long current = position;
+            while (current < end) {
+                long transferred = fileChannel.transferTo(current, end - current, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                current += transferred;
+            }
+            return current - position;
+        }
+    }
+
+    @Override
+    public void deleteObject(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void deleteObjects(List<String> keys) throws IOException {
+        for (String key : keys) {
+            deleteObject(key);
+        }
+    }
+
+    /**
+     * 遍历前缀所在目录并按键排序，每页都会重新遍历，仅适用于压测及私有化部署的数据量
+     */
+    @Override
+    public StorageObjectListing listObjects(String prefix, String marker, int maxKeys) throws IOException {
+        String normalizedPrefix = StrUtil.removePrefix(StrUtil.nullToEmpty(prefix), "/");
+        Path directory = rootPath.resolve(StrUtil.subBefore(normalizedPrefix, "/", true)).normalize();
+        if (!directory.startsWith(rootPath) || !Files.isDirectory(directory)) {
+            return new StorageObjectListing(Collections.emptyList(), null);
+        }
+        List<StorageObjectSummary> objects = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<String> keys = paths.filter(Files::isRegularFile)
+                    .map(path -> rootPath.relativize(path).toString().replace('\\', '/'))
+                    .filter(key -> key.startsWith(normalizedPrefix))
+                    .filter(key -> marker == null || key.compareTo(marker) > 0)
+                    .sorted()
+                    .limit(maxKeys + 1L)
+                    .collect(Collectors.toList());
+            for (String key : keys.subList(0, Math.min(keys.size(), maxKeys))) {
+                Path path = rootPath.resolve(key);
+                objects.add(new StorageObjectSummary(key, Files.size(path), new Date(Files.getLastModifiedTime(path).toMillis())));
+            }
+            String nextMarker = keys.size() > maxKeys ? objects.get(objects.size() - 1).getKey() : null;
+            return new StorageObjectListing(objects, nextMarker);
+        }
+    }
+
+    /**
+     * 本地存储的对象与公有读的存储桶一样可直接访问，临时访问地址即为对象访问地址
+     */
+    @Override
+    public String generatePresignedUrl(String key, Date expiration) {
+        return getUrl(key);
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return localStorageConfig.getHost() + "/" + StrUtil.removePrefix(key, "/");
+    }
+
+    @Override
+    public String getKey(String url) {
+        String host = localStorageConfig.getHost();
+        if (StrUtil.isNotBlank(host) && StrUtil.startWith(url, host)) {
+            return StrUtil.removePrefix(StrUtil.removePrefix(url, host), "/");
+        }
+        return StrUtil.removePrefix(URLUtil.getPath(url), "/");
+    }
+
+    /**
+     * 将对象 key 解析为根目录下的文件路径，禁止越过根目录
+     *
+     * @param key 唯一键（路径）
+     * @return 文件路径
+     */
+    private Path resolve(String key) {
+        if (StrUtil.isBlank(key)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件路径不能为空");
+        }
+        Path path = rootPath.resolve(StrUtil.removePrefix(key, "/")).normalize();
+        if (!path.startsWith(rootPath) || path.equals(rootPath)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件路径非法");
+        }
+        return path;
+    }
+
+    /**
+     * 解析已存在的对象
+     *
+     * @param key 唯一键（路径）
+     * @return 文件路径
+     */
+    private Path resolveExisting(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "文件不存在");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,255 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 对象删除队列
+ * 待删除的对象键持久化到 Redis 有序集合（分值为下次尝试删除的时间），节点宕机后不会丢失；
+ * 后台定时批量删除（每批最多 1000 个，对应对象存储批量删除接口的上限），失败时按指数退避重试
+ */
+@Slf4j
+@Component
+public class ObjectDeletionQueue {
+
+    @Resource
+    ObjectStorage objectStorage;
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+    @Resource
+    MeterRegistry meterRegistry;
+
+    /**
+     * 待删除对象键（有序集合，分值为下次尝试删除的时间戳）
+     */
+    private static final String QUEUE_KEY = "pixcloud:storage:delete:queue";
+
+    /**
+     * 各对象键已失败的次数
+     */
+    private static final String ATTEMPTS_KEY = "pixcloud:storage:delete:attempts";
+
+    /**
+     * 超过重试次数仍删除失败的对象键，需人工处理
+     */
+    private static final String DEAD_KEY = "pixcloud:storage:delete:dead";
+
+    /**
+     * 消费锁，同一时间只有一个节点执行删除
+     */
+    private static final String LOCK_KEY = "pixcloud:storage:delete:lock";
+
+    /**
+     * 每批删除数量（对象存储批量删除接口上限）
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * 单次消费最多处理的批次，避免长时间占用锁
+     */
+    private static final int MAX_BATCHES_PER_DRAIN = 10;
+
+    /**
+     * 最大重试次数
+     */
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * 重试退避基数及上限（毫秒）
+     */
+    private static final long BASE_BACKOFF_MILLIS = 10_000;
+    private static final long MAX_BACKOFF_MILLIS = 3_600_000;
+
+    /**
+     * 消费锁过期时间（毫秒）
+     */
+    private static final long LOCK_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * 释放锁（仅释放自己持有的锁）
+     */
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private Counter deletedCounter;
+
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("storage.deletion.queue.size", this, ObjectDeletionQueue::size)
+                .description("待删除的对象数量")
+                .register(meterRegistry);
+        Gauge.builder("storage.deletion.queue.lag.seconds", this, ObjectDeletionQueue::lagSeconds)
+                .description("最早一个到期未删除对象的等待时长")
+                .register(meterRegistry);
+        Gauge.builder("storage.deletion.dead.size", this, queue -> queue.countSafely(DEAD_KEY))
+                .description("超过重试次数仍删除失败的对象数量")
+                .register(meterRegistry);
+        deletedCounter = Counter.builder("storage.deletion.deleted").register(meterRegistry);
+        failedCounter = Counter.builder("storage.deletion.failed").register(meterRegistry);
+    }
+
+    /**
+     * 加入删除队列（已在队列中的对象键保持原有的删除时间）
+     *
+     * @param keys 对象键
+     */
+    public void enqueue(Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return;
+        }
+        double now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<String>> tuples = keys.stream()
+                .map(key -> (ZSetOperations.TypedTuple<String>) new DefaultTypedTuple<>(key, now))
+                .collect(Collectors.toSet());
+        stringRedisTemplate.opsForZSet().addIfAbsent(QUEUE_KEY, tuples);
+    }
+
+    /**
+     * 定时删除到期的对象
+     */
+    @Scheduled(initialDelay = 5000, fixedDelay = 5000)
+    public void scheduledDrain() {
+        try {
+            drain(MAX_BATCHES_PER_DRAIN);
+        } catch (Exception e) {
+            log.error("对象删除队列消费失败", e);
+        }
+    }
+
+    /**
+     * 服务停止前处理完已到期的对象
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        try {
+            drain(MAX_BATCHES_PER_DRAIN);
+        } catch (Exception e) {
+            log.error("对象删除队列消费失败", e);
+        }
+    }
+
+    /**
+     * 消费删除队列
+     *
+     * @param maxBatches 最多处理的批次
+     */
+    private void drain(int maxBatches) {
+        String lockValue = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, lockValue, Duration.ofMillis(LOCK_TIMEOUT_MILLIS));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatches; i++) {
+                Set<String> batch = stringRedisTemplate.opsForZSet()
+                        .rangeByScore(QUEUE_KEY, 0, System.currentTimeMillis(), 0, BATCH_SIZE);
+                if (CollUtil.isEmpty(batch)) {
+                    return;
+                }
+                deleteBatch(new ArrayList<>(batch));
+                if (batch.size() < BATCH_SIZE) {
+                    return;
+                }
+            }
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(LOCK_KEY), lockValue);
+        }
+    }
+
+    /**
+     * 删除一批对象，成功则出队，失败则延后重试
+     *
+     * @param keys 对象键
+     */
+    private void deleteBatch(List<String> keys) {
+        try {
+            objectStorage.deleteObjects(keys);
+        } catch (Exception e) {
+            log.warn("对象批量删除失败，稍后重试, count={}", keys.size(), e);
+            failedCounter.increment(keys.size());
+            retryLater(keys);
+            return;
+        }
+        Object[] members = keys.toArray();
+        stringRedisTemplate.opsForZSet().remove(QUEUE_KEY, members);
+        stringRedisTemplate.opsForHash().delete(ATTEMPTS_KEY, members);
+        deletedCounter.increment(keys.size());
+    }
+
+    /**
+     * 按指数退避延后重试，超过重试次数则移入死信集合
+     *
+     * @param keys 对象键
+     */
+    private void retryLater(List<String> keys) {
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            long attempts = stringRedisTemplate.opsForHash().increment(ATTEMPTS_KEY, key, 1);
+            if (attempts >= MAX_ATTEMPTS) {
+                log.error("对象删除超过重试次数，移入死信集合, key={}", key);
+                stringRedisTemplate.opsForZSet().remove(QUEUE_KEY, key);
+                stringRedisTemplate.opsForHash().delete(ATTEMPTS_KEY, key);
+                stringRedisTemplate.opsForZSet().add(DEAD_KEY, key, now);
+                continue;
+            }
+            long backoff = Math.min(BASE_BACKOFF_MILLIS << (attempts - 1), MAX_BACKOFF_MILLIS);
+            stringRedisTemplate.opsForZSet().add(QUEUE_KEY, key, now + backoff);
+        }
+    }
+
+    /**
+     * 队列中的对象数量
+     */
+    public long size() {
+        return countSafely(QUEUE_KEY);
+    }
+
+    /**
+     * 最早一个到期对象的等待时长（秒），没有到期对象时为 0
+     */
+    public double lagSeconds() {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> oldest = stringRedisTemplate.opsForZSet().rangeWithScores(QUEUE_KEY, 0, 0);
+            if (CollUtil.isEmpty(oldest)) {
+                return 0;
+            }
+            Double score = oldest.iterator().next().getScore();
+            return score == null ? 0 : Math.max(0, System.currentTimeMillis() - score) / 1000;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * 统计有序集合的大小（Redis 不可用时返回 -1，不影响指标采集）
+     */
+    private long countSafely(String key) {
+        try {
+            Long size = stringRedisTemplate.opsForZSet().zCard(key);
+            return size == null ? 0 : size;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
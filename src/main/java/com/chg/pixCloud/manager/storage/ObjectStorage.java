@@ -0,0 +1,99 @@
+package com.chg.pixCloud.manager.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 对象存储
+ * 屏蔽具体的存储实现（腾讯云 COS、本地文件系统），通过配置项 storage.type 选择
+ */
+public interface ObjectStorage {
+
+    /**
+     * 上传对象
+     *
+     * @param key           唯一键（路径）
+     * @param inputStream   数据流（由调用方关闭）
+     * @param contentLength 内容长度（字节）
+     */
+    void putObject(String key, InputStream inputStream, long contentLength) throws IOException;
+
+    /**
+     * 下载对象
+     *
+     * @param key 唯一键（路径）
+     * @return 存储对象（使用完毕后必须关闭）
+     */
+    StorageObject getObject(String key) throws IOException;
+
+    /**
+     * 获取对象大小
+     *
+     * @param key 唯一键（路径）
+     * @return 对象大小（字节）
+     */
+    long getObjectLength(String key) throws IOException;
+
+    /**
+     * 读取对象的指定范围，写入目标通道
+     *
+     * @param key      唯一键（路径）
+     * @param position 起始位置
+     * @param count    读取长度
+     * @param target   目标通道
+     * @return 实际写入的字节数
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 删除对象
+     *
+     * @param key 唯一键（路径）
+     */
+    void deleteObject(String key) throws IOException;
+
+    /**
+     * 批量删除对象
+     *
+     * @param keys 唯一键（路径）列表
+     */
+    void deleteObjects(List<String> keys) throws IOException;
+
+    /**
+     * 按键的字典序分页列出对象
+     *
+     * @param prefix  键前缀
+     * @param marker  起始位置（上一页返回的 nextMarker，首页为 null）
+     * @param maxKeys 每页数量
+     * @return 对象列表
+     */
+    StorageObjectListing listObjects(String prefix, String marker, int maxKeys) throws IOException;
+
+    /**
+     * 生成带签名的临时访问地址
+     *
+     * @param key        唯一键（路径）
+     * @param expiration 过期时间
+     * @return 访问地址
+     */
+    String generatePresignedUrl(String key, Date expiration);
+
+    /**
+     * 根据对象 key 获取访问地址
+     *
+     * @param key 唯一键（路径）
+     * @return 访问地址
+     */
+    String getUrl(String key);
+
+    /**
+     * 根据访问地址获取对象 key
+     *
+     * @param url 访问地址
+     * @return 唯一键（路径）
+     */
+    String getKey(String url);
+}
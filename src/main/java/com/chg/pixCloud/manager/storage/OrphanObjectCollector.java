@@ -0,0 +1,204 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.StorageGcConfig;
+import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.mapper.PictureMapper;
+import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.vo.OrphanScanReportVO;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 对象存储孤儿文件清理
+ * 图片入库失败、删除任务丢失等情况会在对象存储中留下没有图片记录引用的文件。
+ * 清理时先将全部图片记录引用的文件主干（同一次上传生成的原图、压缩图、缩略图共用一个主干）放入布隆过滤器，
+ * 再分页列举存储桶中的图片目录，未被引用且超过宽限期的对象加入删除队列。
+ */
+@Slf4j
+@Component
+public class OrphanObjectCollector {
+
+    @Resource
+    ObjectStorage objectStorage;
+    @Resource
+    ObjectDeletionQueue objectDeletionQueue;
+    @Resource
+    PictureMapper pictureMapper;
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+    @Resource
+    StorageGcConfig storageGcConfig;
+
+    /**
+     * 图片文件所在的目录前缀（公共图库、私有空间）
+     */
+    private static final List<String> SCAN_PREFIXES = Arrays.asList("public/", "space/");
+
+    /**
+     * 分页大小
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * 孤儿对象示例数量
+     */
+    private static final int MAX_SAMPLES = 100;
+
+    /**
+     * 清理锁，同一时间只有一个节点执行清理
+     */
+    private static final String LOCK_KEY = "pixcloud:storage:gc:lock";
+
+    private static final Duration LOCK_TIMEOUT = Duration.ofHours(2);
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    /**
+     * 定时清理（默认每天凌晨 3 点）
+     */
+    @Scheduled(cron = "${storage.gc.cron:0 0 3 * * ?}")
+    public void scheduledCollect() {
+        if (!storageGcConfig.isEnabled()) {
+            return;
+        }
+        try {
+            OrphanScanReportVO report = collect(storageGcConfig.isDryRun());
+            log.info("对象存储孤儿文件清理完成: {}", report);
+        } catch (Exception e) {
+            log.error("对象存储孤儿文件清理失败", e);
+        }
+    }
+
+    /**
+     * 扫描并清理孤儿对象
+     *
+     * @param dryRun 是否只生成报告而不删除
+     * @return 扫描报告
+     */
+    public OrphanScanReportVO collect(boolean dryRun) {
+        String lockValue = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, lockValue, LOCK_TIMEOUT);
+        if (!Boolean.TRUE.equals(locked)) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "清理任务正在执行，请稍后重试");
+        }
+        try {
+            return doCollect(dryRun);
+        } catch (IOException e) {
+            log.error("对象存储列举失败", e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "对象存储列举失败");
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(LOCK_KEY), lockValue);
+        }
+    }
+
+    private OrphanScanReportVO doCollect(boolean dryRun) throws IOException {
+        long startTime = System.currentTimeMillis();
+        OrphanScanReportVO report = new OrphanScanReportVO();
+        report.setDryRun(dryRun);
+        // 1. 先加载引用，再列举对象：加载之后新上传的对象都在宽限期内，不会被误删
+        KeyBloomFilter referencedStems = loadReferencedStems(report);
+        long graceDeadline = startTime - Duration.ofHours(storageGcConfig.getGraceHours()).toMillis();
+        // 2. 分页列举并比对
+        List<String> orphanKeys = new ArrayList<>(PAGE_SIZE);
+        for (String prefix : SCAN_PREFIXES) {
+            String marker = null;
+            do {
+                StorageObjectListing listing = objectStorage.listObjects(prefix, marker, PAGE_SIZE);
+                for (StorageObjectSummary summary : listing.getObjects()) {
+                    report.setScannedCount(report.getScannedCount() + 1);
+                    if (referencedStems.mightContain(getKeyStem(summary.getKey()))) {
+                        report.setReferencedCount(report.getReferencedCount() + 1);
+                    } else if (summary.getLastModified() == null || summary.getLastModified().getTime() > graceDeadline) {
+                        report.setRecentCount(report.getRecentCount() + 1);
+                    } else {
+                        report.setOrphanCount(report.getOrphanCount() + 1);
+                        report.setOrphanSize(report.getOrphanSize() + summary.getSize());
+                        if (report.getOrphanSamples().size() < MAX_SAMPLES) {
+                            report.getOrphanSamples().add(summary.getKey());
+                        }
+                        orphanKeys.add(summary.getKey());
+                    }
+                }
+                // 3. 孤儿对象加入删除队列，由删除队列按批删除并重试
+                if (!dryRun && !orphanKeys.isEmpty()) {
+                    objectDeletionQueue.enqueue(orphanKeys);
+                }
+                orphanKeys.clear();
+                marker = listing.getNextMarker();
+            } while (marker != null);
+        }
+        report.setCostMillis(System.currentTimeMillis() - startTime);
+        return report;
+    }
+
+    /**
+     * 按 id 分批加载全部图片记录引用的文件主干
+     *
+     * @param report 扫描报告
+     * @return 布隆过滤器
+     */
+    private KeyBloomFilter loadReferencedStems(OrphanScanReportVO report) {
+        Long pictureCount = pictureMapper.selectCount(null);
+        // 预留增长空间，扫描期间新增的图片不会让误判率明显升高
+        KeyBloomFilter filter = new KeyBloomFilter(Math.max(pictureCount, 1000) * 2, 0.01);
+        long lastId = 0;
+        while (true) {
+            List<Picture> pictureList = pictureMapper.selectList(Wrappers.lambdaQuery(Picture.class)
+                    .select(Picture::getId, Picture::getUrl, Picture::getThumbnailUrl)
+                    .gt(Picture::getId, lastId)
+                    .orderByAsc(Picture::getId)
+                    .last("limit " + PAGE_SIZE));
+            for (Picture picture : pictureList) {
+                putUrl(filter, picture.getUrl());
+                putUrl(filter, picture.getThumbnailUrl());
+            }
+            report.setPictureCount(report.getPictureCount() + pictureList.size());
+            if (pictureList.size() < PAGE_SIZE) {
+                return filter;
+            }
+            lastId = pictureList.get(pictureList.size() - 1).getId();
+        }
+    }
+
+    private void putUrl(KeyBloomFilter filter, String url) {
+        if (StrUtil.isNotBlank(url)) {
+            filter.put(getKeyStem(objectStorage.getKey(url)));
+        }
+    }
+
+    /**
+     * 获取对象键的主干
+     * 上传文件名为 {日期}_{随机串}.{后缀}，数据万象生成的压缩图、缩略图在此基础上追加 _{类型} 或更换后缀，
+     * 因此主干为目录加文件名的前两段
+     *
+     * @param key 唯一键（路径）
+     * @return 主干，如 public/1/2025-01-01_abc
+     */
+    public static String getKeyStem(String key) {
+        String normalizedKey = StrUtil.removePrefix(key, "/");
+        String directory = StrUtil.subBefore(normalizedKey, "/", true);
+        String mainName = FileUtil.mainName(normalizedKey);
+        int first = mainName.indexOf('_');
+        int second = first < 0 ? -1 : mainName.indexOf('_', first + 1);
+        String stem = second < 0 ? mainName : mainName.substring(0, second);
+        return StrUtil.isEmpty(directory) || directory.equals(normalizedKey) ? stem : directory + "/" + stem;
+    }
+}
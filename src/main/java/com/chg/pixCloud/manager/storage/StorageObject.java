@@ -0,0 +1,34 @@
+package com.chg.pixCloud.manager.storage;
+
+import cn.hutool.core.io.IoUtil;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * 存储对象（下载结果）
+ */
+@Getter
+public class StorageObject implements Closeable {
+
+    /**
+     * 对象数据
+     */
+    private final InputStream inputStream;
+
+    /**
+     * 对象大小（字节）
+     */
+    private final long contentLength;
+
+    public StorageObject(InputStream inputStream, long contentLength) {
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.close(inputStream);
+    }
+}
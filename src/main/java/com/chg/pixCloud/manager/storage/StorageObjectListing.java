@@ -0,0 +1,27 @@
+package com.chg.pixCloud.manager.storage;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 存储对象分页列举结果
+ */
+@Getter
+public class StorageObjectListing {
+
+    /**
+     * 本页对象（按键的字典序）
+     */
+    private final List<StorageObjectSummary> objects;
+
+    /**
+     * 下一页的起始位置，没有下一页时为 null
+     */
+    private final String nextMarker;
+
+    public StorageObjectListing(List<StorageObjectSummary> objects, String nextMarker) {
+        this.objects = objects;
+        this.nextMarker = nextMarker;
+    }
+}
@@ -0,0 +1,33 @@
+package com.chg.pixCloud.manager.storage;
+
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 存储对象摘要（列举结果）
+ */
+@Getter
+public class StorageObjectSummary {
+
+    /**
+     * 唯一键（路径）
+     */
+    private final String key;
+
+    /**
+     * 对象大小（字节）
+     */
+    private final long size;
+
+    /**
+     * 最后修改时间
+     */
+    private final Date lastModified;
+
+    public StorageObjectSummary(String key, long size, Date lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+}
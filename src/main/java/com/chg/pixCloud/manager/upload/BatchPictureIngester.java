@@ -0,0 +1,92 @@
+package com.chg.pixCloud.manager.upload;
+
+import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.model.dto.file.PictureUploadResult;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+
+/**
+ * 批量图片导入
+ * 候选图片并行抓取并上传到对象存储（同一站点的并发抓取数由 {@link UrlPictureUpload} 限制），
+ * 只负责文件上传，图片记录由调用方统一批量入库
+ */
+@Slf4j
+@Component
+public class BatchPictureIngester {
+    @Resource
+    UrlPictureUpload urlPictureUpload;
+    @Resource
+    ThreadPoolExecutor batchUploadExecutor;
+
+    /**
+     * 批量上传图片
+     * 按轮次提交任务，每轮只提交还差的数量，成功数量达到上限后不再继续，避免上传多余的图片
+     *
+     * @param imageUrls        候选图片地址（按优先级排序）
+     * @param uploadPathPrefix 上传文件名前缀
+     * @param maxCount         最多上传成功的数量
+     * @param existingLookup   根据内容哈希查找已存在的图片上传结果
+     * @return 批量上传结果
+     */
+    public IngestResult ingest(List<String> imageUrls, String uploadPathPrefix, int maxCount,
+                               Function<String, PictureUploadResult> existingLookup) {
+        IngestResult ingestResult = new IngestResult();
+        Iterator<String> iterator = imageUrls.iterator();
+        while (iterator.hasNext() && ingestResult.getUploadResults().size() < maxCount) {
+            // 1. 提交本轮上传任务
+            int remaining = maxCount - ingestResult.getUploadResults().size();
+            List<String> waveUrls = new ArrayList<>(remaining);
+            List<CompletableFuture<PictureUploadResult>> futures = new ArrayList<>(remaining);
+            while (iterator.hasNext() && waveUrls.size() < remaining) {
+                String imageUrl = iterator.next();
+                waveUrls.add(imageUrl);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> urlPictureUpload.uploadPicture(imageUrl, uploadPathPrefix, existingLookup), batchUploadExecutor));
+            }
+            // 2. 按提交顺序收集结果
+            for (int i = 0; i < futures.size(); i++) {
+                String imageUrl = waveUrls.get(i);
+                try {
+                    ingestResult.getUploadResults().add(futures.get(i).join());
+                    ingestResult.getUploadUrls().add(imageUrl);
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    String message = cause instanceof BusinessException ? cause.getMessage() : "上传失败";
+                    log.error("图片上传失败Url:[{}], {}", imageUrl, message);
+                    ingestResult.getFailures().put(imageUrl, message);
+                }
+            }
+        }
+        return ingestResult;
+    }
+
+    /**
+     * 批量上传结果
+     */
+    @Data
+    public static class IngestResult {
+
+        /**
+         * 上传成功的图片
+         */
+        private final List<PictureUploadResult> uploadResults = new ArrayList<>();
+
+        /**
+         * 上传成功的图片地址（与 uploadResults 一一对应）
+         */
+        private final List<String> uploadUrls = new ArrayList<>();
+
+        /**
+         * 上传失败的图片地址及原因
+         */
+        private final Map<String, String> failures = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,321 @@
+package com.chg.pixCloud.manager.upload;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.common.Constants;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.UploadAdmissionConfig;
+import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.manager.CosManager;
+import com.chg.pixCloud.model.dto.file.PictureChunkUploadSession;
+import com.chg.pixCloud.model.dto.file.PictureUploadResult;
+import com.chg.pixCloud.model.dto.picture.PictureChunkUploadInitRequest;
+import com.chg.pixCloud.utils.ThrowUtils;
+import com.qcloud.cos.model.CompleteMultipartUploadResult;
+import com.qcloud.cos.model.PartETag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 分片图片上传（断点续传）
+ * 基于 COS 分片上传实现（仅在使用 COS 存储时可用）：上传会话保存在 Redis 中，分片可由任意节点接收，并在独立线程池中并行转存到对象存储；
+ * 全部分片上传完成后合并，合并后的图片按与普通上传相同的数据万象规则处理。
+ * 合并结果保存在会话中，图片记录保存成功后才删除会话；保存失败时重试直接复用已合并的文件（COS 的分片上传 id 合并后失效）。
+ */
+@Slf4j
+@Service
+public class ChunkPictureUpload extends PictureUploadTemplate {
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+    @Resource
+    ThreadPoolExecutor chunkUploadExecutor;
+    @Resource
+    UploadAdmissionConfig uploadAdmissionConfig;
+
+    /**
+     * 分片上传的文件大小上限
+     */
+    private static final long MAX_FILE_SIZE = 50 * Constants.SIZE_1MB;
+
+    /**
+     * 上传会话过期时间（小时），每次上传分片后续期
+     */
+    private static final long SESSION_EXPIRE_HOURS = 24;
+
+    /**
+     * 上传会话 key 前缀
+     */
+    private static final String SESSION_KEY_PREFIX = "pixpicture:upload:chunk:";
+
+    /**
+     * 合并锁过期时间（分钟），正常情况下在合并及保存完成后释放
+     */
+    private static final long LOCK_EXPIRE_MINUTES = 5;
+
+    /**
+     * 校验输入源（分片上传初始化请求）
+     *
+     * @param inputSource 文件输入源
+     */
+    @Override
+    protected void validPicture(Object inputSource) {
+        PictureChunkUploadInitRequest initRequest = (PictureChunkUploadInitRequest) inputSource;
+        // 1. 非空校验
+        ThrowUtils.throwIf(initRequest == null || StrUtil.isBlank(initRequest.getFileName()), ErrorCode.PARAMS_ERROR, "文件不能为空");
+        // 2. 校验文件大小
+        Long fileSize = initRequest.getFileSize();
+        ThrowUtils.throwIf(fileSize == null || fileSize <= 0, ErrorCode.PARAMS_ERROR, "文件大小错误");
+        ThrowUtils.throwIf(fileSize > MAX_FILE_SIZE, ErrorCode.PARAMS_ERROR, "文件大小不能超过50MB");
+        // 3. 校验文件格式
+        String fileSuffix = FileUtil.getSuffix(initRequest.getFileName());
+        final List<String> ALLOW_FORMAT_LIAT = Arrays.asList("png", "jpg", "jpeg", "gif", "bmp", "tif", "tiff", "svg", "ico", "webp");
+        ThrowUtils.throwIf(!ALLOW_FORMAT_LIAT.contains(fileSuffix), ErrorCode.PARAMS_ERROR, "文件格式错误 ");
+    }
+
+    /**
+     * 获取输入源的原始文件名
+     *
+     * @param inputSource 文件输入源
+     * @return 文件名
+     */
+    @Override
+    protected String getOriginalFilename(Object inputSource) {
+        return ((PictureChunkUploadInitRequest) inputSource).getFileName();
+    }
+
+    /**
+     * 分片上传不支持一次性读取整个输入源
+     *
+     * @param inputSource 文件输入源
+     */
+    @Override
+    protected PictureStream openPictureStream(Object inputSource) {
+        throw new BusinessException(ErrorCode.OPERATION_ERROR, "分片上传请使用分片上传接口");
+    }
+
+    /**
+     * 初始化分片上传
+     *
+     * @param initRequest      初始化请求
+     * @param uploadPathPrefix 上传文件名前缀
+     * @param userId           上传用户 id
+     * @return 上传会话
+     */
+    public PictureChunkUploadSession initUpload(PictureChunkUploadInitRequest initRequest, String uploadPathPrefix, Long userId) {
+        CosManager cosManager = getCosManager();
+        ThrowUtils.throwIf(cosManager == null, ErrorCode.OPERATION_ERROR, "当前存储不支持分片上传");
+        validPicture(initRequest);
+        String originalFilename = getOriginalFilename(initRequest);
+        String uploadPath = buildUploadPath(uploadPathPrefix, originalFilename);
+        String cosUploadId = cosManager.initiateMultipartUpload(uploadPath);
+        // 创建上传会话
+        PictureChunkUploadSession session = new PictureChunkUploadSession();
+        session.setUploadId(IdUtil.fastSimpleUUID());
+        session.setCosUploadId(cosUploadId);
+        session.setUploadPath(uploadPath);
+        session.setOriginalFilename(originalFilename);
+        session.setFileSize(initRequest.getFileSize());
+        // 分片大小取上传文件大小上限，使每个分片请求都能通过上传准入的请求体大小校验（对象存储要求除最后一个分片外，分片不小于 1MB）
+        long chunkSize = uploadAdmissionConfig.getMaxFileSize();
+        session.setChunkSize(chunkSize);
+        session.setTotalParts((int) ((initRequest.getFileSize() + chunkSize - 1) / chunkSize));
+        session.setUserId(userId);
+        session.setPictureId(initRequest.getId());
+        session.setSpaceId(initRequest.getSpaceId());
+        session.setPicName(initRequest.getName());
+        session.setCreateTime(System.currentTimeMillis());
+        stringRedisTemplate.opsForValue().set(getSessionKey(session.getUploadId()), JSONUtil.toJsonStr(session), SESSION_EXPIRE_HOURS, TimeUnit.HOURS);
+        return session;
+    }
+
+    /**
+     * 获取上传会话，并校验会话归属
+     *
+     * @param uploadId 分片上传 id
+     * @param userId   当前用户 id
+     * @return 上传会话
+     */
+    public PictureChunkUploadSession getSession(String uploadId, Long userId) {
+        ThrowUtils.throwIf(StrUtil.isBlank(uploadId), ErrorCode.PARAMS_ERROR);
+        String sessionJson = stringRedisTemplate.opsForValue().get(getSessionKey(uploadId));
+        ThrowUtils.throwIf(StrUtil.isBlank(sessionJson), ErrorCode.NOT_FOUND_ERROR, "上传会话不存在或已过期");
+        PictureChunkUploadSession session = JSONUtil.toBean(sessionJson, PictureChunkUploadSession.class);
+        ThrowUtils.throwIf(!session.getUserId().equals(userId), ErrorCode.NO_AUTH_ERROR);
+        return session;
+    }
+
+    /**
+     * 获取已上传的分片序号（升序）
+     *
+     * @param uploadId 分片上传 id
+     * @return 分片序号列表
+     */
+    public List<Integer> listUploadedParts(String uploadId) {
+        return stringRedisTemplate.opsForHash().keys(getPartsKey(uploadId)).stream()
+                .map(part -> Integer.parseInt(part.toString()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 上传分片（异步转存到对象存储）
+     * 同一会话的多个分片可并发上传，分片的 ETag 记录在 Redis 中，重复上传同一分片以最后一次为准
+     *
+     * @param session    上传会话
+     * @param partNumber 分片序号（从 1 开始）
+     * @param data       分片数据
+     * @return 转存结果
+     */
+    public CompletableFuture<Void> uploadPart(PictureChunkUploadSession session, int partNumber, byte[] data) {
+        int totalParts = session.getTotalParts();
+        ThrowUtils.throwIf(partNumber < 1 || partNumber > totalParts, ErrorCode.PARAMS_ERROR, "分片序号错误");
+        // 除最后一个分片外，分片大小必须等于约定的分片大小
+        long expectedSize = partNumber < totalParts ? session.getChunkSize() : session.getFileSize() - session.getChunkSize() * (totalParts - 1);
+        ThrowUtils.throwIf(data == null || data.length != expectedSize, ErrorCode.PARAMS_ERROR, "分片大小错误");
+        CosManager cosManager = getCosManager();
+        ThrowUtils.throwIf(cosManager == null, ErrorCode.OPERATION_ERROR, "当前存储不支持分片上传");
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    String eTag = cosManager.uploadPart(session.getUploadPath(), session.getCosUploadId(), partNumber, new ByteArrayInputStream(data), data.length);
+                    String partsKey = getPartsKey(session.getUploadId());
+                    stringRedisTemplate.opsForHash().put(partsKey, String.valueOf(partNumber), eTag);
+                    // 会话续期
+                    stringRedisTemplate.expire(partsKey, SESSION_EXPIRE_HOURS, TimeUnit.HOURS);
+                    stringRedisTemplate.expire(getSessionKey(session.getUploadId()), SESSION_EXPIRE_HOURS, TimeUnit.HOURS);
+                } catch (Exception e) {
+                    log.error("分片上传失败, uploadId={}, partNumber={}", session.getUploadId(), partNumber, e);
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "分片上传失败");
+                }
+            }, chunkUploadExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "服务器繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 获取合并锁（防止重复提交合并或合并时取消），需在保存图片记录后调用 unlock 释放
+     *
+     * @param uploadId 分片上传 id
+     */
+    public void lock(String uploadId) {
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(getLockKey(uploadId), "1", LOCK_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        ThrowUtils.throwIf(!Boolean.TRUE.equals(locked), ErrorCode.OPERATION_ERROR, "分片正在合并，请勿重复提交");
+    }
+
+    /**
+     * 释放合并锁
+     *
+     * @param uploadId 分片上传 id
+     */
+    public void unlock(String uploadId) {
+        try {
+            stringRedisTemplate.delete(getLockKey(uploadId));
+        } catch (Exception e) {
+            // 锁到期后自动释放
+            log.error("释放分片合并锁失败, uploadId={}", uploadId, e);
+        }
+    }
+
+    /**
+     * 获取已合并的上传结果
+     *
+     * @param uploadId 分片上传 id
+     * @return 上传结果，尚未合并时为 null
+     */
+    public PictureUploadResult getMergedResult(String uploadId) {
+        String resultJson = stringRedisTemplate.opsForValue().get(getResultKey(uploadId));
+        return StrUtil.isBlank(resultJson) ? null : JSONUtil.toBean(resultJson, PictureUploadResult.class);
+    }
+
+    /**
+     * 完成分片上传：合并分片并处理图片（调用前需获取合并锁）
+     * 已合并过时直接返回保存的合并结果
+     *
+     * @param session 上传会话
+     * @return 图片上传结果
+     */
+    public PictureUploadResult completeUpload(PictureChunkUploadSession session) {
+        String uploadId = session.getUploadId();
+        PictureUploadResult mergedResult = getMergedResult(uploadId);
+        if (mergedResult != null) {
+            return mergedResult;
+        }
+        Map<Object, Object> parts = stringRedisTemplate.opsForHash().entries(getPartsKey(uploadId));
+        ThrowUtils.throwIf(parts.size() < session.getTotalParts(), ErrorCode.PARAMS_ERROR, "分片未全部上传");
+        // SDK 可能对列表排序，必须使用可变列表
+        List<PartETag> partETags = parts.entrySet().stream()
+                .map(entry -> new PartETag(Integer.parseInt(entry.getKey().toString()), entry.getValue().toString()))
+                .sorted(Comparator.comparingInt(PartETag::getPartNumber))
+                .collect(Collectors.toList());
+        CosManager cosManager = getCosManager();
+        ThrowUtils.throwIf(cosManager == null, ErrorCode.OPERATION_ERROR, "当前存储不支持分片上传");
+        CompleteMultipartUploadResult result;
+        try {
+            result = cosManager.completeMultipartUploadAndOptionPicture(
+                    session.getUploadPath(), session.getCosUploadId(), partETags, session.getFileSize());
+        } catch (Exception e) {
+            log.error("分片合并失败, uploadId={}", uploadId, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "分片合并失败");
+        }
+        PictureUploadResult pictureUploadResult = buildPictureUploadResult(result.getCiUploadResult(), session.getUploadPath(), session.getOriginalFilename(), session.getFileSize());
+        // 保存合并结果，图片记录保存失败时重试可直接使用（会话过期未重试的文件由孤儿文件清理任务回收）
+        stringRedisTemplate.opsForValue().set(getResultKey(uploadId), JSONUtil.toJsonStr(pictureUploadResult), SESSION_EXPIRE_HOURS, TimeUnit.HOURS);
+        return pictureUploadResult;
+    }
+
+    /**
+     * 取消分片上传，清理已上传的分片及会话
+     *
+     * @param session 上传会话
+     */
+    public void abortUpload(PictureChunkUploadSession session) {
+        // 已合并的分片上传无法终止，合并后的文件由调用方清理
+        if (getMergedResult(session.getUploadId()) == null) {
+            try {
+                getCosManager().abortMultipartUpload(session.getUploadPath(), session.getCosUploadId());
+            } catch (Exception e) {
+                log.error("取消分片上传失败, uploadId={}", session.getUploadId(), e);
+            }
+        }
+        removeSession(session.getUploadId());
+    }
+
+    /**
+     * 删除上传会话
+     *
+     * @param uploadId 分片上传 id
+     */
+    public void removeSession(String uploadId) {
+        String sessionKey = getSessionKey(uploadId);
+        stringRedisTemplate.delete(Arrays.asList(sessionKey, getPartsKey(uploadId), getResultKey(uploadId), getLockKey(uploadId)));
+    }
+
+    private static String getSessionKey(String uploadId) {
+        return SESSION_KEY_PREFIX + uploadId;
+    }
+
+    private static String getPartsKey(String uploadId) {
+        return SESSION_KEY_PREFIX + uploadId + ":parts";
+    }
+
+    private static String getResultKey(String uploadId) {
+        return SESSION_KEY_PREFIX + uploadId + ":result";
+    }
+
+    private static String getLockKey(String uploadId) {
+        return SESSION_KEY_PREFIX + uploadId + ":lock";
+    }
+}
@@ -1,14 +1,20 @@
 package com.chg.pixCloud.manager.upload;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.crypto.digest.DigestAlgorithm;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.chg.pixCloud.common.ErrorCode;
-import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.config.UploadAdmissionConfig;
 import com.chg.pixCloud.utils.ThrowUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import javax.annotation.Resource;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 
@@ -18,6 +24,12 @@ import java.util.List;
 @Service
 public class FilePictureUpload extends PictureUploadTemplate {
 
+    @Resource
+    UploadBufferPool uploadBufferPool;
+
+    @Resource
+    UploadAdmissionConfig uploadAdmissionConfig;
+
     /**
      * 校验输入源（本地文件）
      *
@@ -30,8 +42,8 @@ public class FilePictureUpload extends PictureUploadTemplate {
         ThrowUtils.throwIf(file == null, ErrorCode.PARAMS_ERROR, "文件不能为空");
         // 2. 校验文件大小
         long fileSize = file.getSize();
-        final long ONE_MB = 1024 * 1024;
-        ThrowUtils.throwIf(fileSize > 5 * ONE_MB, ErrorCode.PARAMS_ERROR, "文件大小不能超过5MB");
+        ThrowUtils.throwIf(fileSize > uploadAdmissionConfig.getMaxFileSize(), ErrorCode.PARAMS_ERROR,
+                "文件大小不能超过" + uploadAdmissionConfig.getMaxFileSizeText());
         // 3. 校验文件格式
         String fileSuffix = FileUtil.getSuffix(file.getOriginalFilename());
         final List<String> ALLOW_FORMAT_LIAT = Arrays.asList("png", "jpg", "jpeg", "gif", "bmp", "tif", "tiff", "svg", "ico", "webp");
@@ -50,17 +62,26 @@ public class FilePictureUpload extends PictureUploadTemplate {
     }
 
     /**
-     * 处理文件输入源生成本地临时文件
+     * 打开文件输入源的数据流
+     * 只读取一次 multipart 请求体到池化缓冲区，读取的同时计算内容哈希（用于秒传去重），上传和本地分析都从缓冲区读取
      *
      * @param inputSource 文件输入源
-     * @param file        本地临时文件地址
+     * @return 图片数据流
      */
     @Override
-    protected void processFIle(Object inputSource, File file) {
-        try {
-            ((MultipartFile) inputSource).transferTo(file);
-        } catch (IOException e) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "获取文件到服务器失败");
+    protected PictureStream openPictureStream(Object inputSource) throws IOException {
+        MultipartFile multipartFile = (MultipartFile) inputSource;
+        UploadBufferPool.PooledBuffer pooledBuffer = uploadBufferPool.acquire();
+        MessageDigest messageDigest = DigestUtil.digester(DigestAlgorithm.SHA256).getDigest();
+        try (InputStream inputStream = new DigestInputStream(multipartFile.getInputStream(), messageDigest)) {
+            pooledBuffer.readFrom(inputStream, uploadAdmissionConfig.getMaxFileSize());
+            PictureStream pictureStream = new PictureStream(pooledBuffer.toInputStream(), pooledBuffer.size(), pooledBuffer);
+            pictureStream.setContentHash(HexUtil.encodeHexStr(messageDigest.digest()));
+            pictureStream.setReopener(pooledBuffer::toInputStream);
+            return pictureStream;
+        } catch (Exception e) {
+            pooledBuffer.close();
+            throw e;
         }
     }
 }
@@ -0,0 +1,66 @@
+package com.chg.pixCloud.manager.upload;
+
+import cn.hutool.core.io.IoUtil;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * 图片数据流（内容长度已知）
+ * 用于直接以流的方式上传到对象存储，避免在本地落地临时文件
+ */
+@Getter
+public class PictureStream implements Closeable {
+
+    /**
+     * 图片数据
+     */
+    private final InputStream inputStream;
+
+    /**
+     * 内容长度（字节）
+     */
+    private final long contentLength;
+
+    /**
+     * 关联资源（如池化缓冲区），关闭数据流时一并释放
+     */
+    private final Closeable resource;
+
+    /**
+     * 根据文件头探测到的图片类型（如 png、jpg），未探测时为 null
+     */
+    @Setter
+    private String fileType;
+
+    /**
+     * 图片内容哈希（SHA-256 十六进制），未计算时为 null
+     */
+    @Setter
+    private String contentHash;
+
+    /**
+     * 重新打开数据流（与上传并行读取，用于本地图片分析），不支持重复读取时为 null
+     */
+    @Setter
+    private Callable<InputStream> reopener;
+
+    public PictureStream(InputStream inputStream, long contentLength) {
+        this(inputStream, contentLength, null);
+    }
+
+    public PictureStream(InputStream inputStream, long contentLength, Closeable resource) {
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+        this.resource = resource;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.close(inputStream);
+        IoUtil.close(resource);
+    }
+}
@@ -3,24 +3,35 @@ package com.chg.pixCloud.manager.upload;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
 import com.chg.pixCloud.common.ErrorCode;
-import com.chg.pixCloud.config.CosClientConfig;
 import com.chg.pixCloud.exception.BusinessException;
 import com.chg.pixCloud.manager.CosManager;
+import com.chg.pixCloud.manager.analyzer.ImageAnalysisResult;
+import com.chg.pixCloud.manager.analyzer.ImageAnalyzer;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
 import com.chg.pixCloud.model.dto.file.PictureUploadResult;
-import com.qcloud.cos.COSClient;
 import com.qcloud.cos.model.PutObjectResult;
 import com.qcloud.cos.model.ciModel.persistence.CIObject;
+import com.qcloud.cos.model.ciModel.persistence.CIUploadResult;
 import com.qcloud.cos.model.ciModel.persistence.ImageInfo;
 import com.qcloud.cos.model.ciModel.persistence.ProcessResults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 
 import javax.annotation.Resource;
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 图片上传模版(抽象类)
@@ -28,11 +39,18 @@ import java.util.List;
 @Slf4j
 public abstract class PictureUploadTemplate {
     @Resource
-    CosClientConfig cosClientConfig;
+    ObjectStorage objectStorage;
     @Resource
-    COSClient cosClient;
+    ObjectProvider<CosManager> cosManagerProvider;
     @Resource
-    CosManager cosManager;
+    ImageAnalyzer imageAnalyzer;
+    @Resource
+    ThreadPoolExecutor imageAnalyzeExecutor;
+
+    /**
+     * 等待本地图片分析结果的最长时间（秒）
+     */
+    private static final long ANALYZE_TIMEOUT_SECONDS = 5;
 
     /**
      * 校验输入源（本地文件或URL）
@@ -50,12 +68,12 @@ public abstract class PictureUploadTemplate {
     protected abstract String getOriginalFilename(Object inputSource);
 
     /**
-     * 处理文件输入源生成本地临时文件
+     * 打开输入源的数据流（内容长度必须已知）
      *
      * @param inputSource 文件输入源
-     * @param file        本地临时文件地址
+     * @return 图片数据流
      */
-    protected abstract void processFIle(Object inputSource, File file);
+    protected abstract PictureStream openPictureStream(Object inputSource) throws IOException;
 
     /**
      * 上传图片
@@ -65,53 +83,203 @@ public abstract class PictureUploadTemplate {
      * @return 图片上传结果
      */
     public PictureUploadResult uploadPicture(Object inputSource, String uploadPathPrefix) {
+        return uploadPicture(inputSource, uploadPathPrefix, null);
+    }
+
+    /**
+     * 上传图片（支持按内容哈希秒传）
+     *
+     * @param inputSource      文件输入源
+     * @param uploadPathPrefix 上传文件名前缀
+     * @param existingLookup   根据内容哈希查找已存在的图片上传结果，找到时复用已有的对象存储文件，不再重复上传
+     * @return 图片上传结果
+     */
+    public PictureUploadResult uploadPicture(Object inputSource, String uploadPathPrefix, Function<String, PictureUploadResult> existingLookup) {
         // 1. 校验图片
         validPicture(inputSource);
-        // 2. 获取图片上传地址
-        String uuid = RandomUtil.randomString(16);
-        // 获取文件名称
-        String originalFilename = getOriginalFilename(inputSource);
-        // 自定义上传文件的名称，增加安全性
-        String uploadFileName = String.format("%s_%s.%s", DateUtil.formatDate(new Date()), uuid, FileUtil.getSuffix(originalFilename));
-        String uploadPath = String.format("/%s/%s", uploadPathPrefix, uploadFileName);
-        File file = null;
+        PictureStream pictureStream = null;
+        CompletableFuture<ImageAnalysisResult> analyzeFuture = null;
         try {
-            // 3. 创建临时文件，获取文件到服务器
-            file = File.createTempFile(uploadPath, null);
-            // 处理输入来源
-            processFIle(inputSource, file);
-            // 4. 上传文件到对象存储
-            PutObjectResult putObjectResult = cosManager.putAndOptionPictureToCOS(uploadPath, file);
-            // 5. 获取图片信息对象
-            ImageInfo imageInfo = putObjectResult.getCiUploadResult().getOriginalInfo().getImageInfo();
-            ProcessResults processResults = putObjectResult.getCiUploadResult().getProcessResults();
-            List<CIObject> objectList = processResults.getObjectList();
-            if (CollUtil.isNotEmpty(objectList)) {
-                // 数据万象的处理结果中存在生成的图片对象（包括压缩图和缩略图）
-                CIObject compressedCIObject = objectList.get(0);
-                // 缩略图默认等于压缩图
-                CIObject thumbnailCIObject = compressedCIObject;
-                // 有生成缩略图，才得到缩略图
-                if (objectList.size() > 1) {
-                    thumbnailCIObject = objectList.get(1);
+            // 2. 打开输入源数据流，直接以流的方式上传，不再落地本地临时文件
+            pictureStream = openPictureStream(inputSource);
+            // 3. 获取图片上传地址，若数据流中探测到了图片类型，则以探测结果作为后缀
+            String originalFilename = getOriginalFilename(inputSource);
+            if (StrUtil.isNotBlank(pictureStream.getFileType())) {
+                originalFilename = FileUtil.mainName(originalFilename) + "." + pictureStream.getFileType();
+            }
+            // 4. 相同内容的图片已存在，直接复用已有的压缩图和缩略图
+            String contentHash = pictureStream.getContentHash();
+            if (contentHash != null && existingLookup != null) {
+                PictureUploadResult existingResult = existingLookup.apply(contentHash);
+                if (existingResult != null) {
+                    existingResult.setPicName(FileUtil.mainName(originalFilename));
+                    existingResult.setContentHash(contentHash);
+                    return existingResult;
                 }
-                // 封装压缩图返回结果
-                return getPictureUploadResult(originalFilename, compressedCIObject, thumbnailCIObject, imageInfo);
             }
-            // 6. 返回文件上传结果
-            // 数据万象处理没有生成任何压缩图或缩略图。此时直接使用上传的图片信息（imageInfo）、上传路径、原始文件名等封装结果。
-            return getPictureUploadResult(imageInfo, uploadPath, originalFilename, file);
+            String uploadPath = buildUploadPath(uploadPathPrefix, originalFilename);
+            // 5. 本地分析图片，与上传并行执行
+            analyzeFuture = analyzePictureAsync(pictureStream);
+            // 6. 上传文件到对象存储
+            PictureUploadResult pictureUploadResult;
+            CosManager cosManager = getCosManager();
+            if (cosManager != null) {
+                // 使用 COS 存储时，由数据万象生成压缩图和缩略图
+                PutObjectResult putObjectResult = cosManager.putAndOptionPictureToCOS(uploadPath, pictureStream.getInputStream(), pictureStream.getContentLength());
+                pictureUploadResult = buildPictureUploadResult(putObjectResult.getCiUploadResult(), uploadPath, originalFilename, pictureStream.getContentLength());
+            } else {
+                // 其他存储直接保存原图，图片信息完全来自本地分析
+                objectStorage.putObject(uploadPath, pictureStream.getInputStream(), pictureStream.getContentLength());
+                pictureUploadResult = buildPictureUploadResult(uploadPath, originalFilename, pictureStream.getContentLength());
+            }
+            // 7. 使用本地分析结果填充图片信息
+            fillAnalysisResult(pictureUploadResult, analyzeFuture);
+            pictureUploadResult.setContentHash(contentHash);
+            return pictureUploadResult;
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("图片上传到对象存储失败");
+            log.error("图片上传到对象存储失败", e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
         } finally {
-            // 7. 临时文件清理
-            if (file != null) {
-                deleteTempFile(file);
+            // 8. 释放数据流及关联的缓冲区；分析超时或上传失败时分析任务可能仍在读取缓冲区，待其结束后再释放
+            if (analyzeFuture != null && !analyzeFuture.isDone()) {
+                PictureStream finalPictureStream = pictureStream;
+                analyzeFuture.whenComplete((analysisResult, e) -> IoUtil.close(finalPictureStream));
+            } else {
+                IoUtil.close(pictureStream);
+            }
+        }
+    }
+
+    /**
+     * 获取 COS 数据万象处理组件
+     *
+     * @return 未使用 COS 存储时返回 null
+     */
+    protected CosManager getCosManager() {
+        return cosManagerProvider.getIfAvailable();
+    }
+
+    /**
+     * 在图片分析线程池中异步分析图片
+     *
+     * @param pictureStream 图片数据流
+     * @return 分析结果，数据流不支持重复读取时返回 null
+     */
+    private CompletableFuture<ImageAnalysisResult> analyzePictureAsync(PictureStream pictureStream) {
+        Callable<InputStream> reopener = pictureStream.getReopener();
+        if (reopener == null) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream inputStream = reopener.call()) {
+                return imageAnalyzer.analyze(inputStream);
+            } catch (Exception e) {
+                log.warn("图片本地分析失败", e);
+                return null;
             }
+        }, imageAnalyzeExecutor);
+    }
+
+    /**
+     * 使用本地分析结果填充图片上传结果
+     * 本地无法识别的格式（如 webp、svg）或分析超时，保留数据万象返回的图片信息
+     *
+     * @param pictureUploadResult 图片上传结果
+     * @param analyzeFuture       分析结果
+     */
+    private void fillAnalysisResult(PictureUploadResult pictureUploadResult, CompletableFuture<ImageAnalysisResult> analyzeFuture) {
+        if (analyzeFuture == null) {
+            return;
+        }
+        ImageAnalysisResult analysisResult;
+        try {
+            analysisResult = analyzeFuture.get(ANALYZE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.warn("等待图片本地分析结果失败", e);
+            return;
+        }
+        if (analysisResult == null) {
+            return;
+        }
+        pictureUploadResult.setPicWidth(analysisResult.getWidth());
+        pictureUploadResult.setPicHeight(analysisResult.getHeight());
+        pictureUploadResult.setPicScale(NumberUtil.round(analysisResult.getWidth() * 1.0 / analysisResult.getHeight(), 2).doubleValue());
+        pictureUploadResult.setPicColor(analysisResult.getColor());
+        // 访问地址指向数据万象生成的压缩图时，格式以压缩图为准
+        if (getCosManager() == null || StrUtil.isBlank(pictureUploadResult.getPicFormat())) {
+            pictureUploadResult.setPicFormat(analysisResult.getFormat());
         }
     }
 
+    /**
+     * 生成图片上传路径
+     *
+     * @param uploadPathPrefix 上传文件名前缀
+     * @param originalFilename 原始文件名
+     * @return 上传路径
+     */
+    protected String buildUploadPath(String uploadPathPrefix, String originalFilename) {
+        String uuid = RandomUtil.randomString(16);
+        // 自定义上传文件的名称，增加安全性
+        String uploadFileName = String.format("%s_%s.%s", DateUtil.formatDate(new Date()), uuid, FileUtil.getSuffix(originalFilename));
+        return String.format("/%s/%s", uploadPathPrefix, uploadFileName);
+    }
+
+    /**
+     * 封装未经数据万象处理的图片上传结果（宽高、主色调等由本地分析结果填充）
+     *
+     * @param uploadPath       上传文件路径
+     * @param originalFilename 原始文件名称
+     * @param fileSize         原图大小
+     * @return 图片上传结果
+     */
+    protected PictureUploadResult buildPictureUploadResult(String uploadPath, String originalFilename, long fileSize) {
+        PictureUploadResult pictureUploadResult = new PictureUploadResult();
+        String url = objectStorage.getUrl(uploadPath);
+        pictureUploadResult.setUrl(url);
+        // 未生成缩略图，缩略图使用原图
+        pictureUploadResult.setThumbnailUrl(url);
+        pictureUploadResult.setPicName(FileUtil.mainName(originalFilename));
+        pictureUploadResult.setPicSize(fileSize);
+        pictureUploadResult.setPicFormat(FileUtil.getSuffix(uploadPath));
+        return pictureUploadResult;
+    }
+
+    /**
+     * 根据数据万象的处理结果封装图片上传结果
+     *
+     * @param ciUploadResult   数据万象处理结果
+     * @param uploadPath       上传文件路径
+     * @param originalFilename 原始文件名称
+     * @param fileSize         原图大小
+     * @return 图片上传结果
+     */
+    protected PictureUploadResult buildPictureUploadResult(CIUploadResult ciUploadResult, String uploadPath, String originalFilename, long fileSize) {
+        // 获取图片信息对象
+        ImageInfo imageInfo = ciUploadResult.getOriginalInfo().getImageInfo();
+        ProcessResults processResults = ciUploadResult.getProcessResults();
+        List<CIObject> objectList = processResults.getObjectList();
+        if (CollUtil.isNotEmpty(objectList)) {
+            // 数据万象的处理结果中存在生成的图片对象（包括压缩图和缩略图）
+            CIObject compressedCIObject = objectList.get(0);
+            // 缩略图默认等于压缩图
+            CIObject thumbnailCIObject = compressedCIObject;
+            // 有生成缩略图，才得到缩略图
+            if (objectList.size() > 1) {
+                thumbnailCIObject = objectList.get(1);
+            }
+            // 封装压缩图返回结果
+            return getPictureUploadResult(originalFilename, compressedCIObject, thumbnailCIObject, imageInfo);
+        }
+        // 数据万象处理没有生成任何压缩图或缩略图。此时直接使用上传的图片信息（imageInfo）、上传路径、原始文件名等封装结果。
+        return getPictureUploadResult(imageInfo, uploadPath, originalFilename, fileSize);
+    }
+
     private PictureUploadResult getPictureUploadResult(String originFilename, CIObject compressedCiObject, CIObject thumbnailCiObject, ImageInfo imageInfo) {
         PictureUploadResult uploadPictureResult = new PictureUploadResult();
         int picWidth = compressedCiObject.getWidth();
@@ -126,8 +294,8 @@ public abstract class PictureUploadTemplate {
         // 设置图片颜色
         uploadPictureResult.setPicColor(imageInfo.getAve());
         // 设置图片为压缩后的地址
-        uploadPictureResult.setUrl(cosClientConfig.getHost() + "/" + compressedCiObject.getKey());
-        uploadPictureResult.setThumbnailUrl(cosClientConfig.getHost() + "/" + thumbnailCiObject.getKey());
+        uploadPictureResult.setUrl(objectStorage.getUrl(compressedCiObject.getKey()));
+        uploadPictureResult.setThumbnailUrl(objectStorage.getUrl(thumbnailCiObject.getKey()));
         return uploadPictureResult;
     }
 
@@ -138,19 +306,19 @@ public abstract class PictureUploadTemplate {
      * @param imageInfo        对象存储返回的图片信息
      * @param uploadPath       上传文件路径
      * @param originalFilename 原始文件名称
-     * @param file             临时文件
+     * @param fileSize         文件大小
      * @return 上传文件返回对象
      */
-    private PictureUploadResult getPictureUploadResult(ImageInfo imageInfo, String uploadPath, String originalFilename, File file) {
+    private PictureUploadResult getPictureUploadResult(ImageInfo imageInfo, String uploadPath, String originalFilename, long fileSize) {
         // 封装返回结果
         int imageWidth = imageInfo.getWidth();
         int imageHeight = imageInfo.getHeight();
         double imageScale = NumberUtil.round(imageWidth * 1.0 / imageHeight, 2).doubleValue();
 
         PictureUploadResult pictureUploadResult = new PictureUploadResult();
-        pictureUploadResult.setUrl(cosClientConfig.getHost() + uploadPath);
+        pictureUploadResult.setUrl(objectStorage.getUrl(uploadPath));
         pictureUploadResult.setPicName(FileUtil.mainName(originalFilename));
-        pictureUploadResult.setPicSize(FileUtil.size(file));
+        pictureUploadResult.setPicSize(fileSize);
         pictureUploadResult.setPicWidth(imageWidth);
         pictureUploadResult.setPicHeight(imageHeight);
         pictureUploadResult.setPicScale(imageScale);
@@ -159,24 +327,4 @@ public abstract class PictureUploadTemplate {
         pictureUploadResult.setPicColor(imageInfo.getAve());
         return pictureUploadResult;
     }
-
-    /**
-     * 删除临时文件
-     *
-     * @param file 临时文件
-     */
-    private static void deleteTempFile(File file) {
-        if (file == null) {
-            return;
-        }
-        boolean deleted = file.delete();
-        if (!deleted) {
-            log.error("file delete error, filePath={}", file.getAbsolutePath());
-        }
-    }
 }
-
-
-
-
-
@@ -0,0 +1,246 @@
+package com.chg.pixCloud.manager.upload;
+
+import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.UploadAdmissionConfig;
+import com.chg.pixCloud.constant.UserConstant;
+import com.chg.pixCloud.model.entity.User;
+import com.chg.pixCloud.utils.ResultUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上传准入控制
+ * 上传请求会长时间占用 Tomcat 线程进行对象存储 I/O，突发上传时会挤占普通读请求。
+ * 在读取请求体之前依次检查：请求体大小、单用户并发数、单节点并发数（有界等待队列 + 等待超时），
+ * 不满足条件时直接返回 413 / 429，客户端稍后重试。
+ * 异步处理的接口（如分片上传在独立线程池中转存分片）在异步处理结束后才释放名额，
+ * 异步分派不会再次经过该过滤器。
+ */
+@Slf4j
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final UploadAdmissionConfig config;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final ConcurrentHashMap<Long, AtomicInteger> userInFlight = new ConcurrentHashMap<>();
+
+    private final Counter queueFullCounter;
+
+    private final Counter timeoutCounter;
+
+    private final Counter userLimitCounter;
+
+    private final Counter tooLargeCounter;
+
+    public UploadAdmissionFilter(UploadAdmissionConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConcurrent(), true);
+        Gauge.builder("upload.admission.in.flight", permits, p -> config.getMaxConcurrent() - p.availablePermits())
+                .description("正在处理的上传请求数量")
+                .register(meterRegistry);
+        Gauge.builder("upload.admission.waiting", waiting, AtomicInteger::get)
+                .description("排队等待的上传请求数量")
+                .register(meterRegistry);
+        this.queueFullCounter = rejectedCounter(meterRegistry, "queue_full");
+        this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+        this.userLimitCounter = rejectedCounter(meterRegistry, "user_limit");
+        this.tooLargeCounter = rejectedCounter(meterRegistry, "too_large");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("upload.admission.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 1. 根据 Content-Length 拒绝超大请求，无需读取请求体
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > config.getMaxRequestSize()) {
+            tooLargeCounter.increment();
+            reject(request, response, HttpStatus.PAYLOAD_TOO_LARGE, ErrorCode.PARAMS_ERROR,
+                    "文件大小不能超过 " + config.getMaxFileSizeText());
+            return;
+        }
+        // 2. 单用户并发限制（未登录的请求交由接口鉴权处理）
+        Long userId = getLoginUserId(request);
+        AtomicInteger userCount = null;
+        if (userId != null) {
+            userCount = userInFlight.computeIfAbsent(userId, key -> new AtomicInteger());
+            if (userCount.incrementAndGet() > config.getMaxPerUser()) {
+                releaseUser(userId, userCount);
+                userLimitCounter.increment();
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, ErrorCode.TOO_MANY_REQUEST_ERROR, "上传任务过多，请等待当前上传完成");
+                return;
+            }
+        }
+        // 3. 单节点并发限制：有空闲名额直接处理，否则在有界队列中等待
+        if (!acquire()) {
+            if (userCount != null) {
+                releaseUser(userId, userCount);
+            }
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, ErrorCode.TOO_MANY_REQUEST_ERROR, "服务器繁忙，请稍后重试");
+            return;
+        }
+        AdmissionRelease admissionRelease = new AdmissionRelease(userId, userCount);
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            // 异步处理期间请求仍占用内存和对象存储 I/O，名额在异步处理结束时释放
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(admissionRelease);
+                asyncStarted = true;
+            }
+        } finally {
+            if (!asyncStarted) {
+                admissionRelease.release();
+            }
+        }
+    }
+
+    /**
+     * 获取单节点上传名额
+     *
+     * @return 是否获取成功
+     */
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > config.getMaxQueue()) {
+            waiting.decrementAndGet();
+            queueFullCounter.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(config.getWaitTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            timeoutCounter.increment();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timeoutCounter.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * 释放用户名额，计数归零时移除，避免长期累积
+     */
+    private void releaseUser(Long userId, AtomicInteger userCount) {
+        if (userCount.decrementAndGet() <= 0) {
+            userInFlight.remove(userId, userCount);
+        }
+    }
+
+    /**
+     * 释放请求占用的单节点名额和用户名额（只释放一次），异步处理时在异步结束的回调中释放
+     */
+    private class AdmissionRelease implements AsyncListener {
+
+        private final Long userId;
+
+        private final AtomicInteger userCount;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private AdmissionRelease(Long userId, AtomicInteger userCount) {
+            this.userId = userId;
+            this.userCount = userCount;
+        }
+
+        private void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            permits.release();
+            if (userCount != null) {
+                releaseUser(userId, userCount);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 重新开始异步处理时继续监听
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * 从会话中读取登录用户 id（不创建会话）
+     */
+    private static Long getLoginUserId(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Object userObj = session.getAttribute(UserConstant.USER_LOGIN_STATE);
+        return userObj instanceof User ? ((User) userObj).getId() : null;
+    }
+
+    /**
+     * 返回拒绝响应（过滤器在 Spring MVC 之外执行，需自行补充跨域响应头）
+     */
+    private static void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                               ErrorCode errorCode, String message) throws IOException {
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        if (origin != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        }
+        // 拒绝时不读取请求体，告知客户端关闭连接
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(JSONUtil.toJsonStr(ResultUtils.error(errorCode, message)));
+    }
+}
@@ -0,0 +1,156 @@
+package com.chg.pixCloud.manager.upload;
+
+import com.chg.pixCloud.common.Constants;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.UploadAdmissionConfig;
+import com.chg.pixCloud.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传缓冲池
+ * 对于无法预知长度的输入源（如 URL 下载），先读入池化的内存缓冲区得到确定的内容长度，再以流的方式上传到对象存储。
+ * 缓冲区的数量和单个容量都有上限，突发上传时内存占用可控，且缓冲区可复用，减少大数组的反复分配。
+ * 缓冲区数量与上传准入的并发上限及批量导入线程数一致，正常情况下不会成为额外的并发瓶颈；
+ * 耗尽时只做短暂等待，超时按请求过多拒绝（与上传准入过滤器一致）。
+ */
+@Slf4j
+@Component
+public class UploadBufferPool {
+
+    @Resource
+    UploadAdmissionConfig uploadAdmissionConfig;
+
+    @Resource
+    ThreadPoolExecutor batchUploadExecutor;
+
+    /**
+     * 单个缓冲区初始容量
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * 获取缓冲区的最长等待时间（毫秒）
+     */
+    private static final long ACQUIRE_TIMEOUT_MILLIS = 1000;
+
+    private Semaphore permits;
+
+    private final Queue<byte[]> idleBuffers = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        // 上传接口的并发数由准入过滤器限制，批量导入的并发数由线程池限制
+        int maxBufferCount = uploadAdmissionConfig.getMaxConcurrent() + batchUploadExecutor.getMaximumPoolSize();
+        permits = new Semaphore(maxBufferCount);
+    }
+
+    /**
+     * 获取缓冲区，池中缓冲区耗尽时等待，超时则拒绝
+     *
+     * @return 池化缓冲区（使用完毕后必须关闭以归还）
+     */
+    public PooledBuffer acquire() {
+        try {
+            if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ErrorCode.TOO_MANY_REQUEST_ERROR, "服务器繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUEST_ERROR, "服务器繁忙，请稍后重试");
+        }
+        byte[] buffer = idleBuffers.poll();
+        return new PooledBuffer(buffer != null ? buffer : new byte[INITIAL_BUFFER_SIZE]);
+    }
+
+    /**
+     * 归还缓冲区
+     *
+     * @param buffer 缓冲区
+     */
+    private void release(byte[] buffer) {
+        idleBuffers.offer(buffer);
+        permits.release();
+    }
+
+    /**
+     * 池化缓冲区
+     */
+    public class PooledBuffer implements Closeable {
+
+        private byte[] buffer;
+
+        private int count;
+
+        private boolean released;
+
+        private PooledBuffer(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * 读取输入流的全部内容，超过大小上限则中止读取（缓冲区容量不超过上传文件大小上限）
+         *
+         * @param inputStream 输入流
+         * @param maxSize     大小上限（字节）
+         */
+        public void readFrom(InputStream inputStream, long maxSize) throws IOException {
+            long limit = Math.min(maxSize, uploadAdmissionConfig.getMaxFileSize());
+            count = 0;
+            while (true) {
+                // 已读到上限，若仍有数据则说明超限
+                if (count >= limit) {
+                    if (inputStream.read() != -1) {
+                        throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小不能超过 " + limit / Constants.SIZE_1MB + "MB");
+                    }
+                    break;
+                }
+                // 缓冲区已满，按倍数扩容（不超过上限）
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, limit));
+                }
+                int read = inputStream.read(buffer, count, (int) Math.min(buffer.length, limit) - count);
+                if (read == -1) {
+                    break;
+                }
+                count += read;
+            }
+        }
+
+        /**
+         * 已读取的数据大小
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * 以输入流的形式读取缓冲区数据（不拷贝）
+         */
+        public InputStream toInputStream() {
+            return new ByteArrayInputStream(buffer, 0, count);
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(buffer);
+        }
+    }
+}
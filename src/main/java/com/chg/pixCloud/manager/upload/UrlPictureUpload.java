@@ -2,34 +2,86 @@ package com.chg.pixCloud.manager.upload;
 
 import cn.hutool.core.io.FileTypeUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
+import cn.hutool.crypto.digest.DigestAlgorithm;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.http.Header;
 import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpStatus;
 import cn.hutool.http.HttpUtil;
-import cn.hutool.http.Method;
 import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.config.UploadAdmissionConfig;
 import com.chg.pixCloud.exception.BusinessException;
 import com.chg.pixCloud.utils.ThrowUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.InputStream;
+import javax.annotation.Resource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * URL图片上传
+ * 每张图片只发起一次 GET 请求：根据响应体开头的文件头探测图片类型，类型不合法或超过大小上限时立即中止下载
  */
 @Slf4j
 @Service
 public class UrlPictureUpload extends PictureUploadTemplate {
+    @Resource
+    UploadBufferPool uploadBufferPool;
+    @Resource
+    UploadAdmissionConfig uploadAdmissionConfig;
+
+    /**
+     * 连接超时时间（毫秒）
+     */
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    /**
+     * 读取超时时间（毫秒）
+     */
+    private static final int READ_TIMEOUT = 10000;
+
+    /**
+     * 探测文件类型读取的文件头长度（字节）
+     */
+    private static final int FILE_HEAD_SIZE = 64;
+
+    /**
+     * 同一站点的最大并发抓取数
+     */
+    private static final int MAX_CONCURRENT_PER_HOST = 4;
+
+    /**
+     * 等待站点抓取许可的最长时间（秒）
+     */
+    private static final long HOST_PERMIT_TIMEOUT_SECONDS = 30;
+
+    /**
+     * 各站点的并发抓取许可，只保留正在抓取或等待抓取的站点（最后一个使用者结束时移除）
+     */
+    private final ConcurrentHashMap<String, HostPermit> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * 允许的图片类型
+     */
+    private static final List<String> ALLOW_FORMAT_LIST = Arrays.asList("png", "jpg", "jpeg", "gif", "bmp", "tif", "tiff", "svg", "ico", "webp");
 
     /**
      * 校验输入源（URL）
+     * 只校验地址格式，文件类型和大小在下载时校验，不再单独发送 HEAD 请求
      *
      * @param inputSource 文件输入源
      */
@@ -44,36 +96,11 @@ public class UrlPictureUpload extends PictureUploadTemplate {
         } catch (MalformedURLException e) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件地址格式不正确");
         }
-        // 3. 发送HEAD请求验证文件是否存在
-        try (HttpResponse httpResponse = HttpUtil.createRequest(Method.HEAD, url).execute()) {
-            // 未正常响应，直接返回，无需执行其他操作
-            if (httpResponse.getStatus() != HttpStatus.HTTP_OK) {
-                return;
-            }
-            // 4. 文件存在，文件类型校验
-            String contentType = httpResponse.header("Content-Type");
-            if (StrUtil.isNotBlank(contentType)) {
-                final List<String> ALLOW_CONTENT_TYPE = Arrays.asList("image/jpeg", "image/jpg", "image/png", "image/svg", "image/ico", "image/webp", "text/html");
-                log.info("文件类型: {}", contentType);
-                ThrowUtils.throwIf(!ALLOW_CONTENT_TYPE.contains(contentType.toLowerCase()), ErrorCode.PARAMS_ERROR, "文件类型错误");
-            }
-            // 5. 文件存在，文件大小校验
-            String contentLengthStr = httpResponse.header("Content-Length");
-            if (StrUtil.isNotBlank(contentLengthStr)) {
-                try {
-                    long contentLength = Long.parseLong(contentLengthStr);
-                    final long ONE_MB = 1024 * 1024;
-                    ThrowUtils.throwIf(contentLength > 5 * ONE_MB, ErrorCode.PARAMS_ERROR, "文件大小不能超过 5MB");
-                } catch (NumberFormatException e) {
-                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小格式异常");
-                }
-            }
-
-        }
     }
 
     /**
      * 获取输入源的原始文件名
+     * 后缀以下载时探测到的图片类型为准，这里只取 URL 路径中的文件名
      *
      * @param inputSource 文件输入源
      * @return 文件名
@@ -81,34 +108,118 @@ public class UrlPictureUpload extends PictureUploadTemplate {
     @Override
     protected String getOriginalFilename(Object inputSource) {
         // 移除 URL 查询参数
-        String url = URLUtil.getPath((String) inputSource);
+        String path = URLUtil.getPath((String) inputSource);
         // 图片名称默认是default, 图片后缀默认是webp
-        String imgName = "default";
-        String extName = "webp";
-        try {
-            imgName = FileUtil.mainName(url);
-            // 使用 HuTool FileTypeUtil 获取文件类型
-            InputStream inputStream = new URL((String) inputSource).openStream();
-            extName = FileTypeUtil.getType(inputStream);
-        } catch (Exception e) {
-            log.error("图片后缀获取失败「{}」", url);
-        }
-        // 返回图片名称及后缀
+        String imgName = StrUtil.blankToDefault(FileUtil.mainName(path), "default");
+        String extName = StrUtil.blankToDefault(FileUtil.getSuffix(path), "webp");
         return imgName + "." + extName;
     }
 
     /**
-     * 处理文件输入源生成本地临时文件
+     * 打开 URL 输入源的数据流
+     * 下载内容读入池化的内存缓冲区以获得确定的内容长度，不再落地本地临时文件
      *
      * @param inputSource 文件输入源
-     * @param file        本地临时文件地址
+     * @return 图片数据流
      */
     @Override
-    protected void processFIle(Object inputSource, File file) {
+    protected PictureStream openPictureStream(Object inputSource) throws IOException {
+        String url = (String) inputSource;
+        // 限制同一站点的并发抓取数，避免批量抓取时压垮源站或被限流
+        String host = StrUtil.nullToEmpty(URLUtil.url(url).getHost());
+        // 使用者计数在 compute 中增减，计数归零时才移除，不会移除其他线程正在持有或等待的许可
+        HostPermit hostPermit = hostPermits.compute(host, (key, value) -> {
+            HostPermit permit = value != null ? value : new HostPermit();
+            permit.users++;
+            return permit;
+        });
         try {
-            HttpUtil.downloadFile((String) inputSource, file);
+            try {
+                if (!hostPermit.semaphore.tryAcquire(HOST_PERMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片源站繁忙，请稍后重试");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片抓取被中断");
+            }
+            try {
+                return fetchPictureStream(url);
+            } finally {
+                hostPermit.semaphore.release();
+            }
+        } finally {
+            hostPermits.computeIfPresent(host, (key, value) -> --value.users == 0 ? null : value);
+        }
+    }
+
+    /**
+     * 站点抓取许可
+     */
+    private static class HostPermit {
+
+        private final Semaphore semaphore = new Semaphore(MAX_CONCURRENT_PER_HOST);
+
+        /**
+         * 正在抓取或等待抓取的使用者数量（只在 compute 中修改）
+         */
+        private int users;
+    }
+
+    /**
+     * 下载图片到池化缓冲区
+     *
+     * @param url 图片地址
+     * @return 图片数据流
+     */
+    private PictureStream fetchPictureStream(String url) throws IOException {
+        UploadBufferPool.PooledBuffer pooledBuffer = uploadBufferPool.acquire();
+        try (HttpResponse httpResponse = HttpUtil.createGet(url)
+                .setConnectionTimeout(CONNECT_TIMEOUT)
+                .setReadTimeout(READ_TIMEOUT)
+                .executeAsync()) {
+            ThrowUtils.throwIf(!httpResponse.isOk(), ErrorCode.PARAMS_ERROR, "文件获取到服务器失败");
+            // 1. 响应头声明的大小已超限，直接中止
+            String contentLengthStr = httpResponse.header(Header.CONTENT_LENGTH);
+            if (NumberUtil.isLong(contentLengthStr)) {
+                ThrowUtils.throwIf(Long.parseLong(contentLengthStr) > uploadAdmissionConfig.getMaxFileSize(), ErrorCode.PARAMS_ERROR,
+                        "文件大小不能超过 " + uploadAdmissionConfig.getMaxFileSizeText());
+            }
+            // 2. 根据文件头探测图片类型，类型不合法时不再继续下载
+            MessageDigest messageDigest = DigestUtil.digester(DigestAlgorithm.SHA256).getDigest();
+            BufferedInputStream bodyStream = new BufferedInputStream(new DigestInputStream(httpResponse.bodyStream(), messageDigest));
+            String fileType = detectFileType(bodyStream, url);
+            // 3. 读取剩余内容，超过大小上限时中止，读取的同时计算内容哈希
+            pooledBuffer.readFrom(bodyStream, uploadAdmissionConfig.getMaxFileSize());
+            PictureStream pictureStream = new PictureStream(pooledBuffer.toInputStream(), pooledBuffer.size(), pooledBuffer);
+            pictureStream.setFileType(fileType);
+            pictureStream.setContentHash(HexUtil.encodeHexStr(messageDigest.digest()));
+            pictureStream.setReopener(pooledBuffer::toInputStream);
+            return pictureStream;
         } catch (Exception e) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件获取到服务器失败");
+            pooledBuffer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 探测图片类型（读取文件头后重置数据流）
+     * 无法通过文件头识别的类型（如 svg）以 URL 后缀为准
+     *
+     * @param bodyStream 响应数据流（需支持 mark）
+     * @param url        图片地址
+     * @return 图片类型
+     */
+    private String detectFileType(BufferedInputStream bodyStream, String url) throws IOException {
+        bodyStream.mark(FILE_HEAD_SIZE);
+        byte[] head = IoUtil.readBytes(bodyStream, FILE_HEAD_SIZE);
+        bodyStream.reset();
+        String fileType = FileTypeUtil.getType(HexUtil.encodeHexStr(head, false));
+        if (StrUtil.isBlank(fileType)) {
+            fileType = FileUtil.getSuffix(URLUtil.getPath(url));
         }
+        fileType = StrUtil.nullToEmpty(fileType).toLowerCase();
+        log.info("文件类型: {}", fileType);
+        ThrowUtils.throwIf(!ALLOW_FORMAT_LIST.contains(fileType), ErrorCode.PARAMS_ERROR, "文件类型错误");
+        return fileType;
     }
 }
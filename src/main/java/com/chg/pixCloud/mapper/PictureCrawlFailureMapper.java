@@ -0,0 +1,13 @@
+package com.chg.pixCloud.mapper;
+
+import com.chg.pixCloud.model.entity.PictureCrawlFailure;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+* @author c
+* @description 针对表【picture_crawl_failure(图片抓取失败记录)】的数据库操作Mapper
+* @Entity com.chg.pixCloud.model.entity.PictureCrawlFailure
+*/
+public interface PictureCrawlFailureMapper extends BaseMapper<PictureCrawlFailure> {
+
+}
@@ -0,0 +1,13 @@
+package com.chg.pixCloud.mapper;
+
+import com.chg.pixCloud.model.entity.PictureCrawlJob;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+* @author c
+* @description 针对表【picture_crawl_job(图片抓取任务)】的数据库操作Mapper
+* @Entity com.chg.pixCloud.model.entity.PictureCrawlJob
+*/
+public interface PictureCrawlJobMapper extends BaseMapper<PictureCrawlJob> {
+
+}
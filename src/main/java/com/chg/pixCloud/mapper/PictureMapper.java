@@ -1,7 +1,16 @@
 package com.chg.pixCloud.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.chg.pixCloud.model.dto.picture.PictureColorRow;
+import com.chg.pixCloud.model.dto.picture.PictureGridRow;
 import com.chg.pixCloud.model.entity.Picture;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
 
 /**
 * @author c
@@ -11,6 +20,41 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface PictureMapper extends BaseMapper<Picture> {
 
+    /**
+     * 分页查询图片列表（网格投影）
+     * 不会自动追加逻辑删除条件，查询条件中需排除已删除记录
+     *
+     * @param page         分页参数
+     * @param queryWrapper 查询条件
+     * @return 图片列表
+     */
+    IPage<PictureGridRow> selectGridPage(IPage<PictureGridRow> page, @Param(Constants.WRAPPER) Wrapper<Picture> queryWrapper);
+
+    /**
+     * 查询图片列表（网格投影）
+     * 不会自动追加逻辑删除条件，查询条件中需排除已删除记录
+     *
+     * @param queryWrapper 查询条件
+     * @return 图片列表
+     */
+    List<PictureGridRow> selectGridList(@Param(Constants.WRAPPER) Wrapper<Picture> queryWrapper);
+
+    /**
+     * 查询空间内有主色调的图片（仅 id 和主色调）
+     *
+     * @param spaceId 空间 id
+     * @return 图片主色调列表
+     */
+    List<PictureColorRow> selectColorList(@Param("spaceId") Long spaceId);
+
+    /**
+     * 查询指定时间后变更的图片（包含已逻辑删除的记录，仅返回筛选索引需要的字段）
+     *
+     * @param since 起始更新时间（包含）
+     * @param limit 最多返回条数
+     * @return 变更的图片，按更新时间升序
+     */
+    List<Picture> listIndexFieldsUpdatedSince(@Param("since") Date since, @Param("limit") int limit);
 }
 
 
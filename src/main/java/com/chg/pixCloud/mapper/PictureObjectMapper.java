@@ -0,0 +1,37 @@
+package com.chg.pixCloud.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.chg.pixCloud.model.entity.PictureObject;
+import org.apache.ibatis.annotations.Param;
+
+/**
+* @author c
+* @description 针对表【picture_object(图片文件引用计数)】的数据库操作Mapper
+* @Entity com.chg.pixCloud.model.entity.PictureObject
+*/
+public interface PictureObjectMapper extends BaseMapper<PictureObject> {
+
+    /**
+     * 仍有引用时引用计数加一
+     *
+     * @param url 图片地址
+     * @return 影响行数，文件已无引用（记录已删除）时为 0
+     */
+    int incrementRefCount(@Param("url") String url);
+
+    /**
+     * 引用计数减一
+     *
+     * @param url 图片地址
+     * @return 影响行数，没有引用记录时为 0
+     */
+    int decrementRefCount(@Param("url") String url);
+
+    /**
+     * 删除引用计数已归零的记录
+     *
+     * @param url 图片地址
+     * @return 影响行数，仍有引用时为 0
+     */
+    int deleteUnreferenced(@Param("url") String url);
+}
@@ -0,0 +1,13 @@
+package com.chg.pixCloud.mapper;
+
+import com.chg.pixCloud.model.entity.PictureTag;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+* @author c
+* @description 针对表【picture_tag(图片标签)】的数据库操作Mapper
+* @Entity com.chg.pixCloud.model.entity.PictureTag
+*/
+public interface PictureTagMapper extends BaseMapper<PictureTag> {
+
+}
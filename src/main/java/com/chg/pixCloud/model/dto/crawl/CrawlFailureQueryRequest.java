@@ -0,0 +1,22 @@
+package com.chg.pixCloud.model.dto.crawl;
+
+import com.chg.pixCloud.common.PageRequest;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+/**
+ * 查询图片抓取失败记录请求
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class CrawlFailureQueryRequest extends PageRequest implements Serializable {
+
+    private static final long serialVersionUID = 1950267318805724032L;
+
+    /**
+     * 抓取任务 id
+     */
+    private Long jobId;
+}
@@ -0,0 +1,55 @@
+package com.chg.pixCloud.model.dto.crawl;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 创建图片抓取任务请求
+ */
+@Data
+public class CrawlJobAddRequest implements Serializable {
+
+    private static final long serialVersionUID = 6216318264826193406L;
+
+    /**
+     * 搜索词
+     */
+    private String q;
+
+    /**
+     * 图片名称前缀(不传默认为搜索词)
+     */
+    private String namePrefix;
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    /**
+     * 空间 id（为空表示公共图库）
+     */
+    private Long spaceId;
+
+    /**
+     * 抓取起始位置
+     */
+    private Integer current;
+
+    /**
+     * 目标抓取数量
+     */
+    private Integer targetCount;
+
+    /**
+     * 每批抓取数量（不超过 30）
+     */
+    private Integer batchSize;
+}
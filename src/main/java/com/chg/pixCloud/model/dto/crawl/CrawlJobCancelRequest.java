@@ -0,0 +1,19 @@
+package com.chg.pixCloud.model.dto.crawl;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 取消抓取任务请求
+ */
+@Data
+public class CrawlJobCancelRequest implements Serializable {
+
+    /**
+     * 任务 id
+     */
+    private Long id;
+
+    private static final long serialVersionUID = 1L;
+}
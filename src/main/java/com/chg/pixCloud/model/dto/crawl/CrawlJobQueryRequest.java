@@ -0,0 +1,27 @@
+package com.chg.pixCloud.model.dto.crawl;
+
+import com.chg.pixCloud.common.PageRequest;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+/**
+ * 查询图片抓取任务请求
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class CrawlJobQueryRequest extends PageRequest implements Serializable {
+
+    private static final long serialVersionUID = -4720851290761365184L;
+
+    /**
+     * 任务状态
+     */
+    private Integer status;
+
+    /**
+     * 搜索词
+     */
+    private String q;
+}
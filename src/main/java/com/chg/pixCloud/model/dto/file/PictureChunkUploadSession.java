@@ -0,0 +1,74 @@
+package com.chg.pixCloud.model.dto.file;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 分片上传会话（保存在 Redis 中，支持跨节点续传）
+ */
+@Data
+public class PictureChunkUploadSession implements Serializable {
+
+    private static final long serialVersionUID = -2307781625403382371L;
+
+    /**
+     * 分片上传 id（对外）
+     */
+    private String uploadId;
+
+    /**
+     * 对象存储的分片上传 id
+     */
+    private String cosUploadId;
+
+    /**
+     * 上传路径
+     */
+    private String uploadPath;
+
+    /**
+     * 原始文件名
+     */
+    private String originalFilename;
+
+    /**
+     * 文件总大小
+     */
+    private long fileSize;
+
+    /**
+     * 分片大小
+     */
+    private long chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private int totalParts;
+
+    /**
+     * 上传用户 id
+     */
+    private Long userId;
+
+    /**
+     * 图片id（重新上传时）
+     */
+    private Long pictureId;
+
+    /**
+     * 空间id
+     */
+    private Long spaceId;
+
+    /**
+     * 图片名称
+     */
+    private String picName;
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    private long createTime;
+}
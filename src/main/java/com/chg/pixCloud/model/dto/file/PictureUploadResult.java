@@ -53,5 +53,15 @@ public class PictureUploadResult {
      */
     private String picColor;
 
+    /**
+     * 图片内容哈希（SHA-256）
+     */
+    private String contentHash;
+
+    /**
+     * 是否复用了已有图片的对象存储文件（秒传）
+     */
+    private boolean reused;
+
 
 }
@@ -0,0 +1,39 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 初始化分片上传请求
+ */
+@Data
+public class PictureChunkUploadInitRequest implements Serializable {
+
+    private static final long serialVersionUID = 2951372389417622186L;
+
+    /**
+     * 图片id（用户修改）
+     */
+    private Long id;
+
+    /**
+     * 图片名称
+     */
+    private String name;
+
+    /**
+     * 空间id
+     */
+    private Long spaceId;
+
+    /**
+     * 原始文件名（用于校验格式）
+     */
+    private String fileName;
+
+    /**
+     * 文件总大小（字节）
+     */
+    private Long fileSize;
+}
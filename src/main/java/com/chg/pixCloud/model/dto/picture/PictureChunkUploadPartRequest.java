@@ -0,0 +1,24 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 上传分片请求
+ */
+@Data
+public class PictureChunkUploadPartRequest implements Serializable {
+
+    private static final long serialVersionUID = -4473198357781230570L;
+
+    /**
+     * 分片上传 id
+     */
+    private String uploadId;
+
+    /**
+     * 分片序号（从 1 开始）
+     */
+    private Integer partNumber;
+}
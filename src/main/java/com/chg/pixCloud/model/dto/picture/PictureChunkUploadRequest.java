@@ -0,0 +1,19 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 分片上传操作请求（完成、取消）
+ */
+@Data
+public class PictureChunkUploadRequest implements Serializable {
+
+    private static final long serialVersionUID = 6140375512946913827L;
+
+    /**
+     * 分片上传 id
+     */
+    private String uploadId;
+}
@@ -0,0 +1,20 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+/**
+ * 以色搜图查询投影（仅 id 和主色调）
+ */
+@Data
+public class PictureColorRow {
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 图片主色调
+     */
+    private String picColor;
+}
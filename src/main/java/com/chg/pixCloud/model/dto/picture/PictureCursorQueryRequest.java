@@ -0,0 +1,26 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+/**
+ * 图片游标分页查询请求（筛选条件与分页查询相同，忽略 current）
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class PictureCursorQueryRequest extends PictureQueryRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 游标（上一页返回的 nextCursor，首页为空）
+     */
+    private String cursor;
+
+    /**
+     * 是否统计总数（需要额外执行一次 COUNT 查询，仅在确实需要展示总数时开启）
+     */
+    private boolean needTotal;
+}
@@ -0,0 +1,98 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 图片列表（网格）查询投影
+ * 仅包含列表展示需要的字段，不读取简介、审核信息、原图地址等大字段
+ */
+@Data
+public class PictureGridRow {
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 缩略图 url（无缩略图时为原图 url）
+     */
+    private String thumbnailUrl;
+
+    /**
+     * 图片名称
+     */
+    private String name;
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 标签（JSON 数组）
+     */
+    private String tags;
+
+    /**
+     * 图片体积
+     */
+    private Long picSize;
+
+    /**
+     * 图片宽度
+     */
+    private Integer picWidth;
+
+    /**
+     * 图片高度
+     */
+    private Integer picHeight;
+
+    /**
+     * 图片宽高比例
+     */
+    private Double picScale;
+
+    /**
+     * 图片格式
+     */
+    private String picFormat;
+
+    /**
+     * 图片主色调
+     */
+    private String picColor;
+
+    /**
+     * 响应式尺寸图片（JSON 数组）
+     */
+    private String renditions;
+
+    /**
+     * 创建用户 id
+     */
+    private Long userId;
+
+    /**
+     * 空间 id
+     */
+    private Long spaceId;
+
+    /**
+     * 审核状态
+     */
+    private Integer reviewStatus;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 编辑时间
+     */
+    private Date editTime;
+}
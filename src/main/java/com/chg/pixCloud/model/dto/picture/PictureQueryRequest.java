@@ -69,6 +69,11 @@ public class PictureQueryRequest extends PageRequest implements Serializable {
      */
     private String searchText;
 
+    /**
+     * 搜索方式：like-模糊匹配（默认）；fulltext-全文检索（按相关度排序）
+     */
+    private String searchMode;
+
     /**
      * 用户 id
      */
@@ -0,0 +1,34 @@
+package com.chg.pixCloud.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 响应式尺寸图片
+ */
+@Data
+public class PictureRendition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 宽度
+     */
+    private Integer width;
+
+    /**
+     * 高度
+     */
+    private Integer height;
+
+    /**
+     * 格式
+     */
+    private String format;
+
+    /**
+     * 地址
+     */
+    private String url;
+}
@@ -33,4 +33,9 @@ public class PictureUploadByBatchRequest extends PageRequest implements Serializ
      * 标签
      */
     private List<String> tags;
+
+    /**
+     * 空间 id（为空表示公共图库）
+     */
+    private Long spaceId;
 }
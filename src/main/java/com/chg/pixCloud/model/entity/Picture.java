@@ -131,6 +131,16 @@ public class Picture implements Serializable {
      */
     private String picColor;
 
+    /**
+     * 图片内容哈希（SHA-256），用于相同图片秒传去重
+     */
+    private String contentHash;
+
+    /**
+     * 响应式尺寸图片（JSON 数组），为空表示尚未生成
+     */
+    private String renditions;
+
     @TableField(exist = false)
     private static final long serialVersionUID = 5683726273277896059L;
 
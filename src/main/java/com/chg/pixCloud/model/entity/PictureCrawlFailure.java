@@ -0,0 +1,46 @@
+package com.chg.pixCloud.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片抓取失败记录
+ * @TableName picture_crawl_failure
+ */
+@TableName(value ="picture_crawl_failure")
+@Data
+public class PictureCrawlFailure implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = -5238027717436630481L;
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 抓取任务 id
+     */
+    private Long jobId;
+
+    /**
+     * 图片地址
+     */
+    private String url;
+
+    /**
+     * 失败原因
+     */
+    private String reason;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+}
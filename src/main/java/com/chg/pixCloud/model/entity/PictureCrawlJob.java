@@ -0,0 +1,112 @@
+package com.chg.pixCloud.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片抓取任务
+ * @TableName picture_crawl_job
+ */
+@TableName(value ="picture_crawl_job")
+@Data
+public class PictureCrawlJob implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 3149861570128541947L;
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 搜索词
+     */
+    private String q;
+
+    /**
+     * 图片名称前缀
+     */
+    private String namePrefix;
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 标签（JSON 数组）
+     */
+    private String tags;
+
+    /**
+     * 空间 id（为空表示公共图库）
+     */
+    private Long spaceId;
+
+    /**
+     * 目标抓取数量
+     */
+    private Integer targetCount;
+
+    /**
+     * 每批抓取数量
+     */
+    private Integer batchSize;
+
+    /**
+     * 下一批的抓取起始位置（断点续抓）
+     */
+    private Integer nextOffset;
+
+    /**
+     * 成功数量
+     */
+    private Integer successCount;
+
+    /**
+     * 失败数量
+     */
+    private Integer failCount;
+
+    /**
+     * 任务状态：0-等待中; 1-执行中; 2-已完成; 3-已取消; 4-失败
+     */
+    private Integer status;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 执行者（认领任务时生成的标识，进度更新时校验）
+     */
+    private String owner;
+
+    /**
+     * 创建用户 id
+     */
+    private Long userId;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    /**
+     * 是否删除
+     */
+    @TableLogic
+    private Integer isDelete;
+
+}
@@ -0,0 +1,46 @@
+package com.chg.pixCloud.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片文件引用计数（相同内容的图片共用对象存储文件，最后一个引用释放时才删除文件）
+ * @TableName picture_object
+ */
+@TableName(value ="picture_object")
+@Data
+public class PictureObject implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 2873614409157730945L;
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 图片地址（压缩图，缩略图及响应式尺寸图片随之共用）
+     */
+    private String url;
+
+    /**
+     * 引用该文件的图片数量
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+}
@@ -0,0 +1,46 @@
+package com.chg.pixCloud.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片标签（与 picture.tags 同步维护，用于按标签筛选和统计）
+ * @TableName picture_tag
+ */
+@TableName(value ="picture_tag")
+@Data
+public class PictureTag implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 7419270328746114830L;
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 图片 id
+     */
+    private Long pictureId;
+
+    /**
+     * 标签
+     */
+    private String tag;
+
+    /**
+     * 空间 id（冗余自图片，为空表示公共图库）
+     */
+    private Long spaceId;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+}
@@ -0,0 +1,41 @@
+package com.chg.pixCloud.model.enums;
+
+import lombok.Getter;
+
+/**
+ * 图片抓取任务状态枚举
+ */
+@Getter
+public enum CrawlJobStatusEnum {
+    WAITING("等待中", 0),
+    RUNNING("执行中", 1),
+    SUCCEED("已完成", 2),
+    CANCELLED("已取消", 3),
+    FAILED("失败", 4);
+
+    private final String text;
+    private final int value;
+
+    CrawlJobStatusEnum(String text, int value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据value值获取枚举
+     *
+     * @param value
+     * @return 枚举值
+     */
+    public static CrawlJobStatusEnum getEnumByValue(Integer value) {
+        if (value == null) {
+            return null;
+        }
+        for (CrawlJobStatusEnum crawlJobStatusEnum : CrawlJobStatusEnum.values()) {
+            if (crawlJobStatusEnum.getValue() == value) {
+                return crawlJobStatusEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.chg.pixCloud.model.enums;
+
+import lombok.Getter;
+
+/**
+ * 图片搜索方式枚举
+ */
+@Getter
+public enum PictureSearchModeEnum {
+    LIKE("模糊匹配", "like"),
+    FULLTEXT("全文检索", "fulltext");
+
+    private final String text;
+    private final String value;
+
+    PictureSearchModeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据value值获取枚举
+     *
+     * @param value
+     * @return 枚举值，未匹配时返回 null
+     */
+    public static PictureSearchModeEnum getEnumByValue(String value) {
+        for (PictureSearchModeEnum pictureSearchModeEnum : PictureSearchModeEnum.values()) {
+            if (pictureSearchModeEnum.getValue().equals(value)) {
+                return pictureSearchModeEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.chg.pixCloud.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对象存储孤儿文件扫描报告
+ */
+@Data
+public class OrphanScanReportVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否仅生成报告（未删除）
+     */
+    private boolean dryRun;
+
+    /**
+     * 图片记录数量
+     */
+    private long pictureCount;
+
+    /**
+     * 扫描的对象数量
+     */
+    private long scannedCount;
+
+    /**
+     * 被图片记录引用的对象数量
+     */
+    private long referencedCount;
+
+    /**
+     * 未被引用但仍在宽限期内的对象数量
+     */
+    private long recentCount;
+
+    /**
+     * 孤儿对象数量
+     */
+    private long orphanCount;
+
+    /**
+     * 孤儿对象总大小（字节）
+     */
+    private long orphanSize;
+
+    /**
+     * 孤儿对象示例（最多 100 个）
+     */
+    private List<String> orphanSamples = new ArrayList<>();
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long costMillis;
+}
@@ -0,0 +1,35 @@
+package com.chg.pixCloud.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 分片上传状态
+ */
+@Data
+public class PictureChunkUploadVO implements Serializable {
+
+    private static final long serialVersionUID = -5402245287040165735L;
+
+    /**
+     * 分片上传 id
+     */
+    private String uploadId;
+
+    /**
+     * 分片大小（除最后一个分片外，每个分片都必须是该大小）
+     */
+    private Long chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer totalParts;
+
+    /**
+     * 已上传的分片序号（断点续传时跳过）
+     */
+    private List<Integer> uploadedParts;
+}
@@ -0,0 +1,59 @@
+package com.chg.pixCloud.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 公开图库分面统计
+ */
+@Data
+public class PictureFacetVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 符合筛选条件的图片总数
+     */
+    private long total;
+
+    /**
+     * 各分类的图片数量（按数量降序）
+     */
+    private List<FacetCount> categories = new ArrayList<>();
+
+    /**
+     * 各标签的图片数量（按数量降序）
+     */
+    private List<FacetCount> tags = new ArrayList<>();
+
+    /**
+     * 各图片格式的图片数量（按数量降序）
+     */
+    private List<FacetCount> picFormats = new ArrayList<>();
+
+    /**
+     * 单个取值的计数
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 取值
+         */
+        private String value;
+
+        /**
+         * 图片数量
+         */
+        private long count;
+    }
+}
@@ -1,6 +1,9 @@
 package com.chg.pixCloud.model.vo;
 
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.model.dto.picture.PictureGridRow;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
 import com.chg.pixCloud.model.entity.Picture;
 import lombok.Data;
 import org.springframework.beans.BeanUtils;
@@ -112,6 +115,11 @@ public class PictureVO implements Serializable {
      */
     private String picColor;
 
+    /**
+     * 响应式尺寸图片（按宽度升序，用于 srcset）
+     */
+    private List<PictureRendition> renditions;
+
 
     /**
      * 封装类转对象
@@ -124,6 +132,9 @@ public class PictureVO implements Serializable {
         BeanUtils.copyProperties(pictureVO, picture);
         // 类型不同，需要转换
         picture.setTags(JSONUtil.toJsonStr(pictureVO.getTags()));
+        if (pictureVO.getRenditions() != null) {
+            picture.setRenditions(JSONUtil.toJsonStr(pictureVO.getRenditions()));
+        }
         return picture;
     }
 
@@ -138,6 +149,26 @@ public class PictureVO implements Serializable {
         BeanUtils.copyProperties(picture, pictureVO);
         // 类型不同，需要转换
         pictureVO.setTags(JSONUtil.toList(picture.getTags(), String.class));
+        if (StrUtil.isNotBlank(picture.getRenditions())) {
+            pictureVO.setRenditions(JSONUtil.toList(picture.getRenditions(), PictureRendition.class));
+        }
+        return pictureVO;
+    }
+
+    /**
+     * 列表投影转封装类（未查询的字段为空）
+     */
+    public static PictureVO gridRowToVo(PictureGridRow pictureGridRow) {
+        if (pictureGridRow == null) {
+            return null;
+        }
+        PictureVO pictureVO = new PictureVO();
+        BeanUtils.copyProperties(pictureGridRow, pictureVO);
+        // 类型不同，需要转换
+        pictureVO.setTags(JSONUtil.toList(pictureGridRow.getTags(), String.class));
+        if (StrUtil.isNotBlank(pictureGridRow.getRenditions())) {
+            pictureVO.setRenditions(JSONUtil.toList(pictureGridRow.getRenditions(), PictureRendition.class));
+        }
         return pictureVO;
     }
 }
@@ -0,0 +1,440 @@
+package com.chg.pixCloud.service.Impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.manager.upload.BatchPictureIngester;
+import com.chg.pixCloud.mapper.PictureCrawlFailureMapper;
+import com.chg.pixCloud.mapper.PictureCrawlJobMapper;
+import com.chg.pixCloud.model.dto.crawl.CrawlFailureQueryRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobAddRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobQueryRequest;
+import com.chg.pixCloud.model.dto.picture.PictureUploadByBatchRequest;
+import com.chg.pixCloud.model.entity.PictureCrawlFailure;
+import com.chg.pixCloud.model.entity.PictureCrawlJob;
+import com.chg.pixCloud.model.entity.User;
+import com.chg.pixCloud.model.enums.CrawlJobStatusEnum;
+import com.chg.pixCloud.service.PictureCrawlJobService;
+import com.chg.pixCloud.service.PictureService;
+import com.chg.pixCloud.service.UserService;
+import com.chg.pixCloud.utils.ThrowUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * @author c
+ * @description 针对表【picture_crawl_job(图片抓取任务)】的数据库操作Service实现
+ * 抓取任务在独立线程池中分批执行，每批完成后持久化进度（下一批的起始位置及成功、失败数量），
+ * 服务重启或节点宕机后从持久化的进度继续抓取。
+ * 认领任务时写入执行者标识，执行期间由独立的心跳线程定时刷新更新时间；进度更新均以“执行中且执行者未变”为条件，
+ * 更新失败说明任务已被取消或被其他节点接管，执行线程立即停止
+ */
+@Slf4j
+@Service
+public class PictureCrawlJobServiceImpl extends ServiceImpl<PictureCrawlJobMapper, PictureCrawlJob>
+        implements PictureCrawlJobService {
+    @Resource
+    PictureService pictureService;
+    @Resource
+    UserService userService;
+    @Resource
+    PictureCrawlFailureMapper pictureCrawlFailureMapper;
+    @Resource
+    ThreadPoolExecutor crawlJobExecutor;
+    @Resource
+    ScheduledThreadPoolExecutor crawlJobHeartbeatScheduler;
+
+    /**
+     * 单个任务的抓取数量上限
+     */
+    private static final int MAX_TARGET_COUNT = 1000;
+
+    /**
+     * 每批抓取数量上限
+     */
+    private static final int MAX_BATCH_SIZE = 30;
+
+    /**
+     * 连续多少批没有成功抓取任何图片时终止任务（候选图片持续失败，如来源站点屏蔽、格式或大小不符）
+     */
+    private static final int MAX_CONSECUTIVE_EMPTY_BATCHES = 5;
+
+    /**
+     * 失败图片数量上限相对目标数量的倍数，超过时终止任务
+     */
+    private static final int MAX_FAIL_RATIO = 2;
+
+    /**
+     * 执行中任务超过该时间（分钟）未更新进度，视为所在节点已宕机
+     */
+    private static final int STALE_RUNNING_MINUTES = 5;
+
+    /**
+     * 执行中任务的心跳间隔（秒），需远小于 STALE_RUNNING_MINUTES
+     */
+    private static final long HEARTBEAT_SECONDS = 60;
+
+    /**
+     * 服务停止时等待执行中批次完成的最长时间（秒）
+     */
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    /**
+     * 失败原因最大长度
+     */
+    private static final int MAX_REASON_LENGTH = 500;
+
+    /**
+     * 当前节点正在执行的任务 id -> 执行者标识
+     */
+    private final Map<Long, String> runningJobs = new ConcurrentHashMap<>();
+
+    /**
+     * 服务正在停止，执行线程在当前批次完成后释放任务
+     */
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void startHeartbeat() {
+        crawlJobHeartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long addCrawlJob(CrawlJobAddRequest crawlJobAddRequest, User loginUser) {
+        ThrowUtils.throwIf(crawlJobAddRequest == null, ErrorCode.PARAMS_ERROR);
+        String q = crawlJobAddRequest.getQ();
+        ThrowUtils.throwIf(StrUtil.isBlank(q), ErrorCode.PARAMS_ERROR, "搜索词不能为空");
+        int targetCount = ObjUtil.defaultIfNull(crawlJobAddRequest.getTargetCount(), MAX_BATCH_SIZE);
+        ThrowUtils.throwIf(targetCount <= 0 || targetCount > MAX_TARGET_COUNT, ErrorCode.PARAMS_ERROR, "抓取数量需在 1-" + MAX_TARGET_COUNT + " 之间");
+        int batchSize = ObjUtil.defaultIfNull(crawlJobAddRequest.getBatchSize(), MAX_BATCH_SIZE);
+        ThrowUtils.throwIf(batchSize <= 0 || batchSize > MAX_BATCH_SIZE, ErrorCode.PARAMS_ERROR, "每批抓取数量需在 1-" + MAX_BATCH_SIZE + " 之间");
+        PictureCrawlJob crawlJob = new PictureCrawlJob();
+        crawlJob.setQ(q);
+        crawlJob.setNamePrefix(crawlJobAddRequest.getNamePrefix());
+        crawlJob.setCategory(crawlJobAddRequest.getCategory());
+        if (CollUtil.isNotEmpty(crawlJobAddRequest.getTags())) {
+            crawlJob.setTags(JSONUtil.toJsonStr(crawlJobAddRequest.getTags()));
+        }
+        crawlJob.setSpaceId(crawlJobAddRequest.getSpaceId());
+        crawlJob.setTargetCount(targetCount);
+        crawlJob.setBatchSize(batchSize);
+        crawlJob.setNextOffset(Math.max(ObjUtil.defaultIfNull(crawlJobAddRequest.getCurrent(), 0), 0));
+        crawlJob.setSuccessCount(0);
+        crawlJob.setFailCount(0);
+        crawlJob.setStatus(CrawlJobStatusEnum.WAITING.getValue());
+        crawlJob.setUserId(loginUser.getId());
+        boolean result = this.save(crawlJob);
+        ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "创建任务失败");
+        dispatchCrawlJob(crawlJob.getId());
+        return crawlJob.getId();
+    }
+
+    @Override
+    public void cancelCrawlJob(long id) {
+        PictureCrawlJob crawlJob = this.getById(id);
+        ThrowUtils.throwIf(crawlJob == null, ErrorCode.NOT_FOUND_ERROR, "任务不存在");
+        // 执行中的任务在当前批次完成后停止
+        boolean result = this.lambdaUpdate()
+                .eq(PictureCrawlJob::getId, id)
+                .in(PictureCrawlJob::getStatus, CrawlJobStatusEnum.WAITING.getValue(), CrawlJobStatusEnum.RUNNING.getValue())
+                .set(PictureCrawlJob::getStatus, CrawlJobStatusEnum.CANCELLED.getValue())
+                .update();
+        ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "任务已结束，无法取消");
+    }
+
+    @Override
+    public Page<PictureCrawlJob> listCrawlJobByPage(CrawlJobQueryRequest crawlJobQueryRequest) {
+        ThrowUtils.throwIf(crawlJobQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        int current = crawlJobQueryRequest.getCurrent();
+        int size = crawlJobQueryRequest.getPageSize();
+        ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
+        QueryWrapper<PictureCrawlJob> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq(ObjUtil.isNotNull(crawlJobQueryRequest.getStatus()), "status", crawlJobQueryRequest.getStatus());
+        queryWrapper.like(StrUtil.isNotBlank(crawlJobQueryRequest.getQ()), "q", crawlJobQueryRequest.getQ());
+        queryWrapper.orderByDesc("createTime");
+        return this.page(new Page<>(current, size), queryWrapper);
+    }
+
+    @Override
+    public Page<PictureCrawlFailure> listCrawlFailureByPage(CrawlFailureQueryRequest crawlFailureQueryRequest) {
+        ThrowUtils.throwIf(crawlFailureQueryRequest == null || crawlFailureQueryRequest.getJobId() == null, ErrorCode.PARAMS_ERROR);
+        int current = crawlFailureQueryRequest.getCurrent();
+        int size = crawlFailureQueryRequest.getPageSize();
+        ThrowUtils.throwIf(size > 50, ErrorCode.PARAMS_ERROR);
+        QueryWrapper<PictureCrawlFailure> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("jobId", crawlFailureQueryRequest.getJobId());
+        queryWrapper.orderByAsc("createTime");
+        return pictureCrawlFailureMapper.selectPage(new Page<>(current, size), queryWrapper);
+    }
+
+    /**
+     * 服务启动后立即恢复未完成的任务，之后定时检查
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        recoverCrawlJobs();
+    }
+
+    @Override
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void recoverCrawlJobs() {
+        try {
+            // 1. 长时间未更新进度的执行中任务，重置为等待中
+            this.lambdaUpdate()
+                    .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                    .lt(PictureCrawlJob::getUpdateTime, DateUtil.offsetMinute(DateUtil.date(), -STALE_RUNNING_MINUTES))
+                    .notIn(CollUtil.isNotEmpty(runningJobs), PictureCrawlJob::getId, runningJobs.keySet())
+                    .set(PictureCrawlJob::getStatus, CrawlJobStatusEnum.WAITING.getValue())
+                    .set(PictureCrawlJob::getOwner, null)
+                    .update();
+            // 2. 调度等待中的任务（多节点同时调度时，由认领操作保证只有一个节点执行）
+            List<PictureCrawlJob> waitingJobs = this.lambdaQuery()
+                    .select(PictureCrawlJob::getId)
+                    .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.WAITING.getValue())
+                    .orderByAsc(PictureCrawlJob::getCreateTime)
+                    .list();
+            waitingJobs.forEach(crawlJob -> dispatchCrawlJob(crawlJob.getId()));
+        } catch (Exception e) {
+            log.error("恢复抓取任务失败", e);
+        }
+    }
+
+    /**
+     * 服务停止时，执行线程在当前批次完成后自行将任务重置为等待中，以便重启后立即续抓；
+     * 等待超时仍未结束的任务保持执行中，停止心跳后由其他节点按超时接管
+     */
+    @PreDestroy
+    public void releaseRunningJobs() {
+        shuttingDown = true;
+        crawlJobExecutor.shutdown();
+        try {
+            if (!crawlJobExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("抓取任务未能在 {} 秒内停止，等待其他节点接管: {}", SHUTDOWN_WAIT_SECONDS, runningJobs.keySet());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 将任务重置为等待中（仅当前执行者的执行中任务）
+     *
+     * @param jobId 任务 id
+     * @param owner 执行者标识
+     */
+    private void releaseCrawlJob(Long jobId, String owner) {
+        try {
+            this.lambdaUpdate()
+                    .eq(PictureCrawlJob::getId, jobId)
+                    .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                    .eq(PictureCrawlJob::getOwner, owner)
+                    .set(PictureCrawlJob::getStatus, CrawlJobStatusEnum.WAITING.getValue())
+                    .set(PictureCrawlJob::getOwner, null)
+                    .update();
+        } catch (Exception e) {
+            log.error("重置抓取任务状态失败, jobId={}", jobId, e);
+        }
+    }
+
+    /**
+     * 刷新当前节点执行中任务的更新时间，任务已不属于当前节点时由执行线程在下次更新进度时停止
+     */
+    private void heartbeat() {
+        runningJobs.forEach((jobId, owner) -> {
+            try {
+                boolean alive = this.lambdaUpdate()
+                        .eq(PictureCrawlJob::getId, jobId)
+                        .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                        .eq(PictureCrawlJob::getOwner, owner)
+                        .set(PictureCrawlJob::getUpdateTime, new Date())
+                        .update();
+                if (!alive) {
+                    log.warn("抓取任务已不属于当前节点, jobId={}", jobId);
+                }
+            } catch (Exception e) {
+                log.error("刷新抓取任务心跳失败, jobId={}", jobId, e);
+            }
+        });
+    }
+
+    /**
+     * 提交任务到抓取线程池，线程池已满时任务保持等待状态，由定时恢复任务重新调度
+     *
+     * @param jobId 任务 id
+     */
+    private void dispatchCrawlJob(Long jobId) {
+        if (runningJobs.containsKey(jobId)) {
+            return;
+        }
+        try {
+            crawlJobExecutor.execute(() -> runCrawlJob(jobId));
+        } catch (RejectedExecutionException e) {
+            log.warn("抓取任务线程池已满，任务稍后调度, jobId={}", jobId);
+        }
+    }
+
+    /**
+     * 执行抓取任务：认领任务后分批抓取，每批完成后持久化进度
+     *
+     * @param jobId 任务 id
+     */
+    private void runCrawlJob(Long jobId) {
+        if (shuttingDown) {
+            return;
+        }
+        // 1. 认领任务（只有等待中的任务可被认领），写入本次执行的标识
+        String owner = IdUtil.fastSimpleUUID();
+        boolean claimed = this.lambdaUpdate()
+                .eq(PictureCrawlJob::getId, jobId)
+                .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.WAITING.getValue())
+                .set(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                .set(PictureCrawlJob::getOwner, owner)
+                .update();
+        if (!claimed) {
+            return;
+        }
+        runningJobs.put(jobId, owner);
+        try {
+            PictureCrawlJob crawlJob = this.getById(jobId);
+            User user = userService.getById(crawlJob.getUserId());
+            ThrowUtils.throwIf(user == null, ErrorCode.NOT_FOUND_ERROR, "任务创建用户不存在");
+            int consecutiveEmptyBatches = 0;
+            while (true) {
+                // 2. 每批开始前检查服务是否正在停止，以及任务是否已被取消或被其他节点接管
+                if (shuttingDown) {
+                    releaseCrawlJob(jobId, owner);
+                    log.info("服务停止，抓取任务已释放, jobId={}", jobId);
+                    return;
+                }
+                crawlJob = this.getById(jobId);
+                if (crawlJob == null || crawlJob.getStatus() != CrawlJobStatusEnum.RUNNING.getValue() || !owner.equals(crawlJob.getOwner())) {
+                    log.info("抓取任务已停止, jobId={}", jobId);
+                    return;
+                }
+                int remaining = crawlJob.getTargetCount() - crawlJob.getSuccessCount();
+                if (remaining <= 0) {
+                    finishCrawlJob(jobId, owner, CrawlJobStatusEnum.SUCCEED, null);
+                    return;
+                }
+                // 3. 抓取并上传一批图片
+                BatchPictureIngester.IngestResult ingestResult = pictureService.crawlAndUploadPictures(
+                        buildBatchRequest(crawlJob, Math.min(crawlJob.getBatchSize(), remaining)), user, crawlJob.getSuccessCount());
+                // 4. 记录失败明细并持久化进度
+                saveCrawlFailures(jobId, ingestResult.getFailures());
+                int successCount = ingestResult.getUploadResults().size();
+                int failCount = ingestResult.getFailures().size();
+                boolean owned = this.lambdaUpdate()
+                        .eq(PictureCrawlJob::getId, jobId)
+                        .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                        .eq(PictureCrawlJob::getOwner, owner)
+                        .setSql("nextOffset = nextOffset + " + crawlJob.getBatchSize())
+                        .setSql("successCount = successCount + " + successCount)
+                        .setSql("failCount = failCount + " + failCount)
+                        .set(PictureCrawlJob::getUpdateTime, new Date())
+                        .update();
+                if (!owned) {
+                    log.info("抓取任务已取消或被其他节点接管，停止执行, jobId={}", jobId);
+                    return;
+                }
+                log.info("抓取任务进度, jobId={}, offset={}, success={}, fail={}", jobId, crawlJob.getNextOffset(), successCount, failCount);
+                // 5. 搜索结果已抓取完毕
+                if (successCount + failCount == 0) {
+                    finishCrawlJob(jobId, owner, CrawlJobStatusEnum.SUCCEED, "搜索结果已全部抓取");
+                    return;
+                }
+                // 6. 候选图片持续失败时终止，避免无限向后翻页
+                consecutiveEmptyBatches = successCount == 0 ? consecutiveEmptyBatches + 1 : 0;
+                if (consecutiveEmptyBatches >= MAX_CONSECUTIVE_EMPTY_BATCHES) {
+                    finishCrawlJob(jobId, owner, CrawlJobStatusEnum.FAILED, "连续 " + MAX_CONSECUTIVE_EMPTY_BATCHES + " 批均未成功抓取图片");
+                    return;
+                }
+                if (crawlJob.getFailCount() + failCount > (long) crawlJob.getTargetCount() * MAX_FAIL_RATIO) {
+                    finishCrawlJob(jobId, owner, CrawlJobStatusEnum.FAILED, "失败图片数量超过目标数量的 " + MAX_FAIL_RATIO + " 倍");
+                    return;
+                }
+            }
+        } catch (BusinessException e) {
+            log.error("抓取任务失败, jobId={}", jobId, e);
+            finishCrawlJob(jobId, owner, CrawlJobStatusEnum.FAILED, e.getMessage());
+        } catch (Exception e) {
+            log.error("抓取任务失败, jobId={}", jobId, e);
+            finishCrawlJob(jobId, owner, CrawlJobStatusEnum.FAILED, "系统错误");
+        } finally {
+            runningJobs.remove(jobId, owner);
+        }
+    }
+
+    /**
+     * 构造一批抓取请求
+     *
+     * @param crawlJob  抓取任务
+     * @param batchSize 本批数量
+     * @return 抓取请求
+     */
+    private static PictureUploadByBatchRequest buildBatchRequest(PictureCrawlJob crawlJob, int batchSize) {
+        PictureUploadByBatchRequest pictureUploadByBatchRequest = new PictureUploadByBatchRequest();
+        pictureUploadByBatchRequest.setQ(crawlJob.getQ());
+        pictureUploadByBatchRequest.setNamePrefix(crawlJob.getNamePrefix());
+        pictureUploadByBatchRequest.setCategory(crawlJob.getCategory());
+        if (StrUtil.isNotBlank(crawlJob.getTags())) {
+            pictureUploadByBatchRequest.setTags(JSONUtil.toList(crawlJob.getTags(), String.class));
+        }
+        pictureUploadByBatchRequest.setSpaceId(crawlJob.getSpaceId());
+        pictureUploadByBatchRequest.setCurrent(crawlJob.getNextOffset());
+        pictureUploadByBatchRequest.setPageSize(batchSize);
+        return pictureUploadByBatchRequest;
+    }
+
+    /**
+     * 保存失败明细
+     *
+     * @param jobId    任务 id
+     * @param failures 失败的图片地址及原因
+     */
+    private void saveCrawlFailures(Long jobId, Map<String, String> failures) {
+        failures.forEach((url, reason) -> {
+            PictureCrawlFailure crawlFailure = new PictureCrawlFailure();
+            crawlFailure.setJobId(jobId);
+            crawlFailure.setUrl(StrUtil.maxLength(url, 1000));
+            crawlFailure.setReason(StrUtil.maxLength(reason, MAX_REASON_LENGTH));
+            pictureCrawlFailureMapper.insert(crawlFailure);
+        });
+    }
+
+    /**
+     * 结束任务（仅当前执行者的执行中任务，已取消的任务保持取消状态）
+     *
+     * @param jobId        任务 id
+     * @param owner        执行者标识
+     * @param status       结束状态
+     * @param errorMessage 说明
+     */
+    private void finishCrawlJob(Long jobId, String owner, CrawlJobStatusEnum status, String errorMessage) {
+        this.lambdaUpdate()
+                .eq(PictureCrawlJob::getId, jobId)
+                .eq(PictureCrawlJob::getStatus, CrawlJobStatusEnum.RUNNING.getValue())
+                .eq(PictureCrawlJob::getOwner, owner)
+                .set(PictureCrawlJob::getStatus, status.getValue())
+                .set(PictureCrawlJob::getErrorMessage, StrUtil.maxLength(errorMessage, MAX_REASON_LENGTH))
+                .update();
+    }
+}
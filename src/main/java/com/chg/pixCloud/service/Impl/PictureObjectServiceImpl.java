@@ -0,0 +1,46 @@
+package com.chg.pixCloud.service.Impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.mapper.PictureObjectMapper;
+import com.chg.pixCloud.model.entity.PictureObject;
+import com.chg.pixCloud.service.PictureObjectService;
+import com.chg.pixCloud.utils.ThrowUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * @author c
+ * @description 针对表【picture_object(图片文件引用计数)】的数据库操作Service实现
+ * 引用数只在数据库中条件增减：释放最后一个引用时删除记录（持有行锁直到事务提交），
+ * 之后的复用请求不会再命中该记录，避免复用一个即将被删除的文件
+ */
+@Slf4j
+@Service
+public class PictureObjectServiceImpl extends ServiceImpl<PictureObjectMapper, PictureObject>
+        implements PictureObjectService {
+
+    @Override
+    public void createReference(String url) {
+        PictureObject pictureObject = new PictureObject();
+        pictureObject.setUrl(url);
+        pictureObject.setRefCount(1);
+        ThrowUtils.throwIf(!this.save(pictureObject), ErrorCode.OPERATION_ERROR, "图片文件引用保存失败");
+    }
+
+    @Override
+    public boolean acquireReference(String url) {
+        return this.baseMapper.incrementRefCount(url) > 0;
+    }
+
+    @Override
+    public boolean releaseReference(String url) {
+        if (this.baseMapper.decrementRefCount(url) == 0) {
+            // 没有引用记录（不应出现，存量数据已迁移），视为最后一个引用
+            log.warn("图片文件没有引用记录, url={}", url);
+            return true;
+        }
+        // 计数归零时删除记录，该行已被本事务锁定，并发的复用请求会等待本事务提交后失败
+        return this.baseMapper.deleteUnreferenced(url) > 0;
+    }
+}
@@ -3,7 +3,6 @@ package com.chg.pixCloud.service.Impl;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjUtil;
-import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
 import cn.hutool.json.JSONUtil;
@@ -13,39 +12,51 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chg.pixCloud.api.aliyunai.model.CreateOutPaintingTaskRequest;
 import com.chg.pixCloud.api.aliyunai.model.CreateOutPaintingTaskResponse;
 import com.chg.pixCloud.api.aliyunai.service.AliYunAiApi;
+import com.chg.pixCloud.common.CursorPage;
 import com.chg.pixCloud.common.DeleteRequest;
 import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.event.PictureChangedEvent;
 import com.chg.pixCloud.exception.BusinessException;
-import com.chg.pixCloud.manager.CosManager;
+import com.chg.pixCloud.manager.cache.PictureListCache;
+import com.chg.pixCloud.manager.cache.PictureListCacheVersion;
+import com.chg.pixCloud.manager.index.PictureBitmapIndex;
+import com.chg.pixCloud.manager.rendition.PictureRenditionManager;
+import com.chg.pixCloud.manager.storage.ObjectDeletionQueue;
+import com.chg.pixCloud.manager.storage.ObjectStorage;
+import com.chg.pixCloud.manager.upload.BatchPictureIngester;
+import com.chg.pixCloud.manager.upload.ChunkPictureUpload;
 import com.chg.pixCloud.manager.upload.FilePictureUpload;
 import com.chg.pixCloud.manager.upload.PictureUploadTemplate;
 import com.chg.pixCloud.manager.upload.UrlPictureUpload;
 import com.chg.pixCloud.mapper.PictureMapper;
+import com.chg.pixCloud.model.dto.file.PictureChunkUploadSession;
 import com.chg.pixCloud.model.dto.file.PictureUploadResult;
 import com.chg.pixCloud.model.dto.picture.*;
 import com.chg.pixCloud.model.entity.Picture;
 import com.chg.pixCloud.model.entity.Space;
 import com.chg.pixCloud.model.entity.User;
 import com.chg.pixCloud.model.enums.PictureReviewStatusEnum;
+import com.chg.pixCloud.model.enums.PictureSearchModeEnum;
+import com.chg.pixCloud.model.vo.PictureChunkUploadVO;
+import com.chg.pixCloud.model.vo.PictureFacetVO;
 import com.chg.pixCloud.model.vo.PictureVO;
 import com.chg.pixCloud.model.vo.UserVO;
+import com.chg.pixCloud.service.PictureObjectService;
 import com.chg.pixCloud.service.PictureService;
+import com.chg.pixCloud.service.PictureTagService;
 import com.chg.pixCloud.service.SpaceService;
 import com.chg.pixCloud.service.UserService;
 import com.chg.pixCloud.utils.ColorSimilarUtils;
+import com.chg.pixCloud.utils.CursorUtils;
 import com.chg.pixCloud.utils.RGBConverterUtils;
 import com.chg.pixCloud.utils.ThrowUtils;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.chg.pixCloud.utils.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.springframework.beans.BeanUtils;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -56,10 +67,9 @@ import javax.servlet.http.HttpServletRequest;
 import java.awt.*;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -76,23 +86,61 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
     @Resource
     UrlPictureUpload urlPictureUpload;
     @Resource
+    ChunkPictureUpload chunkPictureUpload;
+    @Resource
+    BatchPictureIngester batchPictureIngester;
+    @Resource
     UserService userService;
     @Resource
-    CosManager cosManager;
+    ObjectStorage objectStorage;
     @Resource
-    SpaceService spaceService;
+    ObjectDeletionQueue objectDeletionQueue;
+    @Resource
+    PictureRenditionManager pictureRenditionManager;
+    @Resource
+    PictureTagService pictureTagService;
+    @Resource
+    PictureObjectService pictureObjectService;
     @Resource
-    StringRedisTemplate stringRedisTemplate;
+    PictureBitmapIndex pictureBitmapIndex;
+    @Resource
+    PictureListCacheVersion pictureListCacheVersion;
+    @Resource
+    PictureListCache pictureListCache;
+    @Resource
+    ApplicationEventPublisher applicationEventPublisher;
+    @Resource
+    SpaceService spaceService;
     @Resource
     private TransactionTemplate transactionTemplate;
     @Resource
     private AliYunAiApi aliYunAiApi;
 
 
-    private final Cache<String, String> LOCAL_CACHE = Caffeine.newBuilder().initialCapacity(1024) // 初始容量
-            .maximumSize(10_000) // 最大数据量
-            .expireAfterWrite(Duration.ofMinutes(5)) // 缓存5min后移除
-            .build();
+    /**
+     * 全文索引的分词长度（与 MySQL ngram_token_size 一致）
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * 全文检索相关度表达式，检索词保存在查询条件的参数中（条件与排序共用同一个参数）
+     */
+    private static final String FULLTEXT_MATCH_SQL = "MATCH(name, introduction) AGAINST (#{ew.paramNameValuePairs.fulltextQuery} IN NATURAL LANGUAGE MODE)";
+
+    /**
+     * 游标分页支持的排序字段（均有对应的联合索引）
+     */
+    private static final Set<String> CURSOR_SORT_FIELDS = new HashSet<>(Arrays.asList("createTime", "editTime"));
+
+    /**
+     * 分面统计每个维度最多返回的取值数
+     */
+    private static final int FACET_LIMIT = 50;
+
+    /**
+     * 筛选索引与数据库不一致时，刷新索引后重新查询的最大次数
+     */
+    private static final int INDEX_STALE_RETRIES = 2;
 
     /**
      * 上传图片（可重新上传）
@@ -107,30 +155,65 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         // 校验参数
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
         ThrowUtils.throwIf(pictureUploadRequest == null || inputSource == null, ErrorCode.PARAMS_ERROR);
-
-        // 校验空间是否存在
+        // 校验空间和原图片权限
+        Picture oldPicture = checkUploadTarget(pictureUploadRequest, loginUser);
+        // 上传图片到对象存储，得到图片信息
+        String uploadPathPrefix = getUploadPathPrefix(pictureUploadRequest.getSpaceId(), loginUser);
+        // 根据inputSource上传类型，区分上传方式
+        PictureUploadTemplate pictureUploadTemplate = filePictureUpload;
+        if (inputSource instanceof String) {
+            pictureUploadTemplate = urlPictureUpload;
+        }
+        // 同一空间中相同内容的图片已存在时复用已有文件（秒传）
         Long spaceId = pictureUploadRequest.getSpaceId();
-        if (spaceId != null) {
-            Space space = spaceService.getById(spaceId);
-            ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
-            // 必须空间创建人（管理员）才能上传
-            if (!loginUser.getId().equals(space.getUserId())) {
-                throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
-            }
-            // 校验额度
-            if (space.getTotalCount() >= space.getMaxCount()) {
-                throw new BusinessException(ErrorCode.OPERATION_ERROR, "空间条数不足");
-            }
-            if (space.getTotalSize() >= space.getMaxSize()) {
-                throw new BusinessException(ErrorCode.OPERATION_ERROR, "空间大小不足");
-            }
+        PictureUploadResult pictureUploadResult = pictureUploadTemplate.uploadPicture(inputSource, uploadPathPrefix,
+                contentHash -> getUploadResultByContentHash(contentHash, spaceId));
+        // 保存图片记录并更新空间额度
+        return savePicture(loginUser, pictureUploadResult, pictureUploadRequest, oldPicture);
+    }
+
+    /**
+     * 根据内容哈希查找同一空间中已存在的图片，复用其对象存储文件及图片信息
+     * 只在同一空间（或同为公共图库）内复用，避免不同空间的图片共用同一对象存储文件
+     *
+     * @param contentHash 图片内容哈希
+     * @param spaceId     空间 id，为空表示公共图库
+     * @return 图片上传结果，不存在时返回 null
+     */
+    private PictureUploadResult getUploadResultByContentHash(String contentHash, Long spaceId) {
+        Picture existingPicture = this.lambdaQuery()
+                .eq(Picture::getContentHash, contentHash)
+                .eq(spaceId != null, Picture::getSpaceId, spaceId)
+                .isNull(spaceId == null, Picture::getSpaceId)
+                .last("limit 1")
+                .one();
+        if (existingPicture == null) {
+            return null;
         }
+        PictureUploadResult pictureUploadResult = new PictureUploadResult();
+        pictureUploadResult.setUrl(existingPicture.getUrl());
+        pictureUploadResult.setThumbnailUrl(existingPicture.getThumbnailUrl());
+        pictureUploadResult.setPicSize(existingPicture.getPicSize());
+        pictureUploadResult.setPicWidth(existingPicture.getPicWidth());
+        pictureUploadResult.setPicHeight(existingPicture.getPicHeight());
+        pictureUploadResult.setPicScale(existingPicture.getPicScale());
+        pictureUploadResult.setPicFormat(existingPicture.getPicFormat());
+        pictureUploadResult.setPicColor(StrUtil.blankToDefault(existingPicture.getPicColor(), "0x000000"));
+        pictureUploadResult.setReused(true);
+        return pictureUploadResult;
+    }
 
-        // 判断是新增还是修改
-        boolean update;
-        Picture oldPicture;
-        // 旧的图片大小
-        Long oldPicturePicSize;
+    /**
+     * 校验上传目标：空间是否存在及额度，若为重新上传则校验原图片权限
+     * 重新上传且未指定空间时，复用原图片的空间 id，并回填到上传请求中
+     *
+     * @param pictureUploadRequest 上传请求
+     * @param loginUser            登录用户
+     * @return 原图片（新增图片时为 null）
+     */
+    private Picture checkUploadTarget(PictureUploadRequest pictureUploadRequest, User loginUser) {
+        Long spaceId = pictureUploadRequest.getSpaceId();
+        Picture oldPicture = null;
         Long picId = pictureUploadRequest.getId();
         // 若是更新，判断图片是否存在，以及鉴权
         if (picId != null && picId > 0) {
@@ -145,66 +228,239 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
             // 传了 spaceId，必须和旧图片的 spaceId 一致，若更新请求没有传，则复用旧图片的 spaceId，表示在原空间修改
             if (spaceId == null && oldPicture.getSpaceId() != null) {
                 spaceId = oldPicture.getSpaceId();
+                pictureUploadRequest.setSpaceId(spaceId);
             } else {
                 if (ObjUtil.notEqual(spaceId, oldPicture.getSpaceId())) {
                     throw new BusinessException(ErrorCode.PARAMS_ERROR, "空间 id 不一致");
                 }
             }
-            // 旧的图片大小
-            oldPicturePicSize = oldPicture.getPicSize();
-            // 标记为更新请求，对图片的修改需要用事务控制
-            update = true;
-        } else {
-            oldPicturePicSize = 0L;
-            oldPicture = null;
-            update = false;
         }
-        // 上传图片到对象存储，得到图片信息
-        // 根据用户划分目录
-        // 按照用户 id 划分目录 => 按照空间划分目录
-        String uploadPathPrefix;
+        // 校验空间是否存在（已用额度读取计数器，无需查询数据库）
+        if (spaceId != null) {
+            Space space = spaceService.getCachedSpaceWithUsage(spaceId);
+            ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
+            // 必须空间创建人（管理员）才能上传
+            if (!loginUser.getId().equals(space.getUserId())) {
+                throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
+            }
+            // 校验额度
+            if (space.getTotalCount() >= space.getMaxCount()) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "空间条数不足");
+            }
+            if (space.getTotalSize() >= space.getMaxSize()) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "空间大小不足");
+            }
+        }
+        return oldPicture;
+    }
+
+    /**
+     * 获取上传路径前缀
+     * 按照用户 id 划分目录 => 按照空间划分目录
+     *
+     * @param spaceId   空间 id
+     * @param loginUser 登录用户
+     * @return 上传路径前缀
+     */
+    private static String getUploadPathPrefix(Long spaceId, User loginUser) {
         if (spaceId == null) {
             // spaceId 为空，上传到公共图库
-            uploadPathPrefix = String.format("public/%s", loginUser.getId());
-        } else {
-            // spaceId 非空，上传到私有空间
-            uploadPathPrefix = String.format("space/%s", spaceId);
+            return String.format("public/%s", loginUser.getId());
         }
-        // 根据inputSource上传类型，区分上传方式
-        PictureUploadTemplate pictureUploadTemplate = filePictureUpload;
-        if (inputSource instanceof String) {
-            pictureUploadTemplate = urlPictureUpload;
-        }
-        PictureUploadResult pictureUploadResult = pictureUploadTemplate.uploadPicture(inputSource, uploadPathPrefix);
+        // spaceId 非空，上传到私有空间
+        return String.format("space/%s", spaceId);
+    }
+
+    /**
+     * 保存图片记录到数据库，并在同一事务中更新空间额度
+     *
+     * @param loginUser            登录用户
+     * @param pictureUploadResult  图片上传结果
+     * @param pictureUploadRequest 上传请求
+     * @param oldPicture           原图片（新增图片时为 null）
+     * @return 图片信息
+     */
+    private PictureVO savePicture(User loginUser, PictureUploadResult pictureUploadResult, PictureUploadRequest pictureUploadRequest, Picture oldPicture) {
+        boolean update = oldPicture != null;
+        // 旧的图片大小
+        Long oldPicturePicSize = update ? oldPicture.getPicSize() : 0L;
         // 填充入库信息
         Picture persistencePicture = persistencePictureInfo(loginUser, pictureUploadResult, pictureUploadRequest);
         // 保存图片记录到数据库
         // 开启事务
-        Long finalSpaceId = spaceId;
+        Long finalSpaceId = pictureUploadRequest.getSpaceId();
         Picture resPicture = transactionTemplate.execute(status -> {
+            // 引用新文件，再释放旧文件（重新上传相同内容时引用数不会先归零）
+            referencePictureFile(pictureUploadResult);
+            if (update) {
+                releasePictureFile(oldPicture);
+            }
             // 上传或更新图片
             boolean result = this.saveOrUpdate(persistencePicture);
             ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "图片上传失败");
-            if (finalSpaceId != null && update) {
-                // 空间id存在，且为更新则将旧照片的数量和大小更新到空间
-                // 对象存储中的旧图片删除
-                boolean removed = spaceService.lambdaUpdate().eq(Space::getId, finalSpaceId).setSql("totalSize = totalSize - " + oldPicturePicSize).setSql("totalCount = totalCount - 1").update();
-                ThrowUtils.throwIf(!removed, ErrorCode.OPERATION_ERROR, "原照片操作异常");
+            if (update) {
+                // 重新上传后旧的响应式尺寸图片失效（更新时不会写入空字段，需单独清空）
+                this.lambdaUpdate().eq(Picture::getId, persistencePicture.getId()).set(Picture::getRenditions, null).update();
             }
-            // 空间id存在，则将新照片数量和大小更新到空间
+            // 空间id存在，则将新照片数量和大小更新到空间（为更新时扣除旧照片的大小，数量不变）
             if (finalSpaceId != null) {
-                boolean updated = spaceService.lambdaUpdate().eq(Space::getId, finalSpaceId).setSql("totalSize = totalSize + " + persistencePicture.getPicSize()).setSql("totalCount = totalCount + 1").update();
-                ThrowUtils.throwIf(!updated, ErrorCode.OPERATION_ERROR, "额度更新失败");
+                long sizeDelta = ObjUtil.defaultIfNull(persistencePicture.getPicSize(), 0L) - ObjUtil.defaultIfNull(oldPicturePicSize, 0L);
+                spaceService.updateSpaceUsage(finalSpaceId, sizeDelta, update ? 0 : 1);
             }
+            applicationEventPublisher.publishEvent(update
+                    ? new PictureChangedEvent(this, persistencePicture.getId(), oldPicture, persistencePicture)
+                    : new PictureChangedEvent(this, persistencePicture.getId(), persistencePicture));
             return persistencePicture;
         });
-        // 事务正常提交后，才异步删除对象存储中的旧数据，（对象存储中数据无法回滚，必须确保数据库正常操作，才删除对象存储中数据）
-        if (oldPicture != null) {
-            clearPictureFile(oldPicture);
-        }
+        // 异步生成响应式尺寸图片
+        pictureRenditionManager.submit(resPicture);
         return PictureVO.objToVo(resPicture);
     }
 
+    /**
+     * 引用上传结果的对象存储文件（需在保存图片记录的事务中调用）
+     * 复用已有文件时，若该文件的最后一个引用已被并发删除释放，文件即将被删除，拒绝本次上传
+     *
+     * @param pictureUploadResult 图片上传结果
+     */
+    private void referencePictureFile(PictureUploadResult pictureUploadResult) {
+        if (pictureUploadResult.isReused()) {
+            ThrowUtils.throwIf(!pictureObjectService.acquireReference(pictureUploadResult.getUrl()),
+                    ErrorCode.OPERATION_ERROR, "图片文件已被删除，请重新上传");
+        } else {
+            pictureObjectService.createReference(pictureUploadResult.getUrl());
+        }
+    }
+
+    /**
+     * 释放图片对象存储文件的引用（需在删除或替换图片记录的事务中调用），最后一个引用释放后，事务提交时删除文件
+     * 对象存储中数据无法回滚，必须确保数据库正常操作，才删除对象存储中数据
+     *
+     * @param oldPicture 原图片
+     */
+    private void releasePictureFile(Picture oldPicture) {
+        if (pictureObjectService.releaseReference(oldPicture.getUrl())) {
+            TransactionUtils.afterCommit(() -> clearPictureFile(oldPicture));
+        }
+    }
+
+    /**
+     * 初始化分片上传
+     *
+     * @param initRequest 初始化请求
+     * @param loginUser   登录用户
+     * @return 分片上传状态
+     */
+    @Override
+    public PictureChunkUploadVO initChunkUpload(PictureChunkUploadInitRequest initRequest, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(initRequest == null, ErrorCode.PARAMS_ERROR);
+        // 与普通上传相同的空间及原图片校验
+        PictureUploadRequest pictureUploadRequest = new PictureUploadRequest();
+        BeanUtils.copyProperties(initRequest, pictureUploadRequest);
+        checkUploadTarget(pictureUploadRequest, loginUser);
+        initRequest.setSpaceId(pictureUploadRequest.getSpaceId());
+        String uploadPathPrefix = getUploadPathPrefix(pictureUploadRequest.getSpaceId(), loginUser);
+        PictureChunkUploadSession session = chunkPictureUpload.initUpload(initRequest, uploadPathPrefix, loginUser.getId());
+        return getPictureChunkUploadVO(session, Collections.emptyList());
+    }
+
+    /**
+     * 上传分片，分片在独立线程池中并行转存到对象存储
+     *
+     * @param partRequest 分片信息
+     * @param data        分片数据
+     * @param loginUser   登录用户
+     * @return 转存结果
+     */
+    @Override
+    public CompletableFuture<Void> uploadChunk(PictureChunkUploadPartRequest partRequest, byte[] data, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(partRequest == null || partRequest.getPartNumber() == null, ErrorCode.PARAMS_ERROR);
+        PictureChunkUploadSession session = chunkPictureUpload.getSession(partRequest.getUploadId(), loginUser.getId());
+        return chunkPictureUpload.uploadPart(session, partRequest.getPartNumber(), data);
+    }
+
+    /**
+     * 查询分片上传状态（用于断点续传）
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     * @return 分片上传状态
+     */
+    @Override
+    public PictureChunkUploadVO getChunkUploadStatus(String uploadId, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        PictureChunkUploadSession session = chunkPictureUpload.getSession(uploadId, loginUser.getId());
+        return getPictureChunkUploadVO(session, chunkPictureUpload.listUploadedParts(uploadId));
+    }
+
+    /**
+     * 完成分片上传：合并分片，保存图片记录并更新空间额度
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     * @return 图片信息
+     */
+    @Override
+    public PictureVO completeChunkUpload(String uploadId, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        PictureChunkUploadSession session = chunkPictureUpload.getSession(uploadId, loginUser.getId());
+        // 重新校验上传目标（初始化后空间额度或原图片可能已变化）
+        PictureUploadRequest pictureUploadRequest = new PictureUploadRequest();
+        pictureUploadRequest.setId(session.getPictureId());
+        pictureUploadRequest.setSpaceId(session.getSpaceId());
+        pictureUploadRequest.setName(session.getPicName());
+        Picture oldPicture = checkUploadTarget(pictureUploadRequest, loginUser);
+        // 合并及保存期间持有锁，保存失败时保留会话和合并结果，重试时复用已合并的文件
+        chunkPictureUpload.lock(uploadId);
+        PictureVO pictureVO;
+        try {
+            PictureUploadResult pictureUploadResult = chunkPictureUpload.completeUpload(session);
+            pictureVO = savePicture(loginUser, pictureUploadResult, pictureUploadRequest, oldPicture);
+        } finally {
+            chunkPictureUpload.unlock(uploadId);
+        }
+        chunkPictureUpload.removeSession(uploadId);
+        return pictureVO;
+    }
+
+    /**
+     * 取消分片上传
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     */
+    @Override
+    public void abortChunkUpload(String uploadId, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        PictureChunkUploadSession session = chunkPictureUpload.getSession(uploadId, loginUser.getId());
+        chunkPictureUpload.lock(uploadId);
+        try {
+            // 已合并但未保存图片记录时，清理合并后的文件
+            PictureUploadResult mergedResult = chunkPictureUpload.getMergedResult(uploadId);
+            chunkPictureUpload.abortUpload(session);
+            if (mergedResult != null) {
+                Picture mergedPicture = new Picture();
+                mergedPicture.setUrl(mergedResult.getUrl());
+                mergedPicture.setThumbnailUrl(mergedResult.getThumbnailUrl());
+                mergedPicture.setContentHash(mergedResult.getContentHash());
+                clearPictureFile(mergedPicture);
+            }
+        } finally {
+            chunkPictureUpload.unlock(uploadId);
+        }
+    }
+
+    private static PictureChunkUploadVO getPictureChunkUploadVO(PictureChunkUploadSession session, List<Integer> uploadedParts) {
+        PictureChunkUploadVO pictureChunkUploadVO = new PictureChunkUploadVO();
+        pictureChunkUploadVO.setUploadId(session.getUploadId());
+        pictureChunkUploadVO.setChunkSize(session.getChunkSize());
+        pictureChunkUploadVO.setTotalParts(session.getTotalParts());
+        pictureChunkUploadVO.setUploadedParts(uploadedParts);
+        return pictureChunkUploadVO;
+    }
+
     /**
      * 构造入库信息
      *
@@ -238,9 +494,12 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         picture.setPicHeight(pictureUploadResult.getPicHeight());
         picture.setPicScale(pictureUploadResult.getPicScale());
         picture.setPicFormat(pictureUploadResult.getPicFormat());
-        // 设置图片主色调
-        String standardRGB = RGBConverterUtils.toStandardRGB(pictureUploadResult.getPicColor());
-        picture.setPicColor(standardRGB);
+        // 设置图片主色调（本地无法分析的图片没有主色调）
+        if (StrUtil.isNotBlank(pictureUploadResult.getPicColor())) {
+            String standardRGB = RGBConverterUtils.toStandardRGB(pictureUploadResult.getPicColor());
+            picture.setPicColor(standardRGB);
+        }
+        picture.setContentHash(pictureUploadResult.getContentHash());
         picture.setUserId(user.getId());
         return picture;
     }
@@ -279,9 +538,21 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         Date startEditTime = pictureQueryRequest.getStartEditTime();
         Date endEditTime = pictureQueryRequest.getEndEditTime();
         // 从多字段中搜索
+        boolean fulltext = false;
         if (StrUtil.isNotBlank(searchText)) {
-            // 需要拼接查询条件
-            queryWrapper.and(qw -> qw.like("name", searchText).or().like("introduction", searchText));
+            PictureSearchModeEnum searchModeEnum = PictureSearchModeEnum.getEnumByValue(pictureQueryRequest.getSearchMode());
+            ThrowUtils.throwIf(StrUtil.isNotBlank(pictureQueryRequest.getSearchMode()) && searchModeEnum == null,
+                    ErrorCode.PARAMS_ERROR, "搜索方式不支持");
+            // 全文索引按 2 字切分（ngram），更短的搜索词无法命中，仍使用模糊匹配
+            if (searchModeEnum == PictureSearchModeEnum.FULLTEXT && searchText.trim().length() >= NGRAM_TOKEN_SIZE) {
+                // 自然语言模式，未指定排序字段时按相关度降序排序
+                queryWrapper.getParamNameValuePairs().put("fulltextQuery", searchText.trim());
+                queryWrapper.apply(FULLTEXT_MATCH_SQL);
+                fulltext = true;
+            } else {
+                // 需要拼接查询条件
+                queryWrapper.and(qw -> qw.like("name", searchText).or().like("introduction", searchText));
+            }
         }
         queryWrapper.eq(ObjUtil.isNotEmpty(id), "id", id);
         queryWrapper.eq(ObjUtil.isNotEmpty(userId), "userId", userId);
@@ -299,14 +570,19 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         queryWrapper.isNull(nullSpaceId, "spaceId");
         queryWrapper.ge(ObjUtil.isNotEmpty(startEditTime), "editTime", startEditTime);
         queryWrapper.le(ObjUtil.isNotEmpty(endEditTime), "editTime", endEditTime);
-        // JSON 数组查询
+        // 标签查询（通过标签表索引定位，需同时包含所有标签）
         if (CollUtil.isNotEmpty(tags)) {
             for (String tag : tags) {
-                queryWrapper.like("tags", "\"" + tag + "\"");
+                queryWrapper.apply("id in (select pictureId from picture_tag where tag = {0})", tag);
             }
         }
         // 排序
-        queryWrapper.orderBy(StrUtil.isNotEmpty(sortField), sortOrder.equals("ascend"), sortField);
+        if (fulltext && StrUtil.isEmpty(sortField)) {
+            // 相关度相同时按 id 排序，保证分页稳定
+            queryWrapper.orderByDesc(FULLTEXT_MATCH_SQL).orderByDesc("id");
+        } else {
+            queryWrapper.orderBy(StrUtil.isNotEmpty(sortField), sortOrder.equals("ascend"), sortField);
+        }
         return queryWrapper;
     }
 
@@ -318,9 +594,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         // 关联查询用户信息
         Long userId = picture.getUserId();
         if (userId != null && userId > 0) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            pictureVO.setUser(userVO);
+            pictureVO.setUser(userService.getUserVOById(userId));
         }
         return pictureVO;
     }
@@ -338,24 +612,63 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         }
         // 包括将图片对象列表转换为视图对象列表
         List<PictureVO> pictureVOList = pictureList.stream().map(PictureVO::objToVo).collect(Collectors.toList());
+        fillPictureVOUser(pictureVOList);
+        pictureVOPage.setRecords(pictureVOList);
+        return pictureVOPage;
+    }
+
+    /**
+     * 分页获取图片列表封装（网格投影）
+     */
+    @Override
+    public Page<PictureVO> getPictureGridVOPage(Page<PictureGridRow> pictureGridRowPage, HttpServletRequest request) {
+        List<PictureGridRow> pictureGridRowList = pictureGridRowPage.getRecords();
+        Page<PictureVO> pictureVOPage = new Page<>(pictureGridRowPage.getCurrent(), pictureGridRowPage.getSize(), pictureGridRowPage.getTotal());
+        if (CollUtil.isEmpty(pictureGridRowList)) {
+            return pictureVOPage;
+        }
+        List<PictureVO> pictureVOList = pictureGridRowList.stream().map(PictureVO::gridRowToVo).collect(Collectors.toList());
+        fillPictureVOUser(pictureVOList);
+        pictureVOPage.setRecords(pictureVOList);
+        return pictureVOPage;
+    }
+
+    /**
+     * 批量关联查询图片的创建用户信息
+     *
+     * @param pictureVOList 图片封装列表
+     */
+    private void fillPictureVOUser(List<PictureVO> pictureVOList) {
         // 1. 关联查询用户信息
         // 1.1 提取用户id的Set集合，避免重复查询
-        Set<Long> userIdSet = pictureList.stream().map(Picture::getUserId).collect(Collectors.toSet());
-        // 1.2 查询用户信息，按用户 ID（User::getId）对用户信息分组，生成 Map<Long, List<User>>。
-        // 其中 key 是用户 id，value 是对应的用户对象列表（通常一个 id 对应一个用户，List<User> 长度为 1）
-        Map<Long, List<User>> userIdUserListMap = userService.listByIds(userIdSet).stream().collect(Collectors.groupingBy(User::getId));
+        Set<Long> userIdSet = pictureVOList.stream().map(PictureVO::getUserId).collect(Collectors.toSet());
+        // 1.2 批量查询用户脱敏信息（优先命中缓存，未命中的用户一次查询数据库）
+        Map<Long, UserVO> userVOMap = userService.getUserVOMapByIds(userIdSet);
         // 2. 填充信息
-        pictureVOList.forEach(pictureVO -> {
-            Long userId = pictureVO.getUserId();
-            User user = null;
-            if (userIdUserListMap.containsKey(userId)) {
-                // 获取用户分组中第一个用space户对象
-                user = userIdUserListMap.get(userId).get(0);
-            }
-            pictureVO.setUser(userService.getUserVO(user));
-        });
-        pictureVOPage.setRecords(pictureVOList);
-        return pictureVOPage;
+        pictureVOList.forEach(pictureVO -> pictureVO.setUser(userVOMap.get(pictureVO.getUserId())));
+    }
+
+    /**
+     * 分页查询图片列表（网格投影，只读取列表展示需要的字段）
+     */
+    @Override
+    public Page<PictureGridRow> pageGridRows(Page<PictureGridRow> page, QueryWrapper<Picture> queryWrapper) {
+        return (Page<PictureGridRow>) this.baseMapper.selectGridPage(page, excludeDeleted(queryWrapper));
+    }
+
+    /**
+     * 查询图片列表（网格投影，只读取列表展示需要的字段）
+     */
+    @Override
+    public List<PictureGridRow> listGridRows(QueryWrapper<Picture> queryWrapper) {
+        return this.baseMapper.selectGridList(excludeDeleted(queryWrapper));
+    }
+
+    /**
+     * 投影查询为自定义 SQL，不会自动追加逻辑删除条件
+     */
+    private static QueryWrapper<Picture> excludeDeleted(QueryWrapper<Picture> queryWrapper) {
+        return queryWrapper.eq("isDelete", 0);
     }
 
     @Override
@@ -404,6 +717,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         updatePicture.setReviewTime(new Date());
         boolean updated = this.updateById(updatePicture);
         ThrowUtils.throwIf(!updated, ErrorCode.OPERATION_ERROR);
+        applicationEventPublisher.publishEvent(new PictureChangedEvent(this, id, picture));
     }
 
     /**
@@ -441,55 +755,169 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
      */
     @Override
     public Integer uploadPictureByBatch(PictureUploadByBatchRequest pictureUploadByBatchRequest, User loginUser) {
-        int count = 0;
+        BatchPictureIngester.IngestResult ingestResult = crawlAndUploadPictures(pictureUploadByBatchRequest, loginUser, 0);
+        int count = ingestResult.getUploadResults().size();
+        log.info("上传图片数量: [{}]", count);
+        return count;
+    }
+
+    /**
+     * 抓取一批图片并上传（批量保存图片记录）
+     *
+     * @param pictureUploadByBatchRequest 抓取请求
+     * @param loginUser                   登录用户
+     * @param nameStartIndex              图片名称序号的起始值（分批抓取时续接序号）
+     * @return 批量上传结果
+     */
+    @Override
+    public BatchPictureIngester.IngestResult crawlAndUploadPictures(PictureUploadByBatchRequest pictureUploadByBatchRequest, User loginUser, int nameStartIndex) {
         // 校验参数
         String q = pictureUploadByBatchRequest.getQ();
         int current = pictureUploadByBatchRequest.getCurrent();
         int pageSize = pictureUploadByBatchRequest.getPageSize();
         ThrowUtils.throwIf(pageSize > 30, ErrorCode.PARAMS_ERROR);
-        // 抓取内容
-        List<String> imageUrls = new ArrayList<>();
+        // 校验上传目标空间
+        PictureUploadRequest targetRequest = new PictureUploadRequest();
+        targetRequest.setSpaceId(pictureUploadByBatchRequest.getSpaceId());
+        checkUploadTarget(targetRequest, loginUser);
+        // 抓取候选图片地址
+        List<String> imageUrls = fetchBingImageUrls(q, current, pageSize);
+        // 并行抓取并上传到对象存储
+        String uploadPathPrefix = getUploadPathPrefix(pictureUploadByBatchRequest.getSpaceId(), loginUser);
+        Long spaceId = pictureUploadByBatchRequest.getSpaceId();
+        BatchPictureIngester.IngestResult ingestResult = batchPictureIngester.ingest(imageUrls, uploadPathPrefix, pageSize,
+                contentHash -> getUploadResultByContentHash(contentHash, spaceId));
+        // 批量保存图片记录
+        savePictureBatch(loginUser, ingestResult, pictureUploadByBatchRequest, nameStartIndex);
+        return ingestResult;
+    }
+
+    /**
+     * 从必应图片抓取候选图片地址
+     *
+     * @param q        搜索词
+     * @param current  起始位置
+     * @param pageSize 抓取数量
+     * @return 图片地址列表（去重）
+     */
+    private List<String> fetchBingImageUrls(String q, int current, int pageSize) {
         // 搜索词应进行URL编码
         String url = String.format("https://cn.bing.com/images/async?q=%s&first=%s&count=%s&mmasync=1", URLUtil.encode(q), current, pageSize);
         try {
             // 使用 Jsoup 连接并获取文档
             Document document = Jsoup.connect(url).userAgent("Mozilla/5.0 (Macintosh; Apple Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/117.0.0.0 Safari/537.36").timeout(20000).get();
             // 解析内容
-            // 获取所有图片的元素（<img> 标签）
-            Elements imgElements = document.select("img");
-
-            // 提取每个图片的 URL
-            imageUrls = new ArrayList<>();
-            for (Element imgElement : imgElements) {
+            // 获取所有图片的元素（<img> 标签），提取每个图片的 URL
+            Set<String> imageUrls = new LinkedHashSet<>();
+            for (Element imgElement : document.select("img")) {
                 String imgUrl = imgElement.attr("src"); // 获取图片 src 属性
-                if (StrUtil.isNotBlank(imgUrl)) {
-                    imageUrls.add(URLUtil.getPath(imgUrl));
-                }
-                try {
-                    // 上传图片
-                    // TODO 待优化成批量上传至对象存储及数据库
-                    PictureUploadRequest pictureUploadRequest = new PictureUploadRequest();
-                    pictureUploadRequest.setUrl(imgUrl);
-                    // 图片名称前缀默认为搜索词
-                    String namePrefix = pictureUploadByBatchRequest.getNamePrefix() != null ? pictureUploadByBatchRequest.getNamePrefix() : q;
-                    pictureUploadRequest.setName(namePrefix + (count + 1));
-                    PictureVO pictureVO = uploadPicture(imgUrl, pictureUploadRequest, loginUser);
-                    log.info("图片上传成功id:[{}]", pictureVO.getId());
-                    count++;
-                } catch (Exception e) {
-                    log.error("图片上传失败Url:[{}]", imgUrl);
-                    continue;
-                }
-                if (count >= pageSize) {
-                    break;
+                if (StrUtil.isNotBlank(imgUrl) && StrUtil.startWithAny(imgUrl, "http://", "https://")) {
+                    imageUrls.add(imgUrl);
                 }
             }
+            return new ArrayList<>(imageUrls);
         } catch (IOException e) {
             log.error("{}获取内容失败：{}", url, e.getMessage());
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "获取内容出错啦，请稍后重试..");
         }
-        log.info("上传图片数量: [{}]", count);
-        return count;
+    }
+
+    /**
+     * 批量保存图片记录：一次批量插入，并合并为一次空间额度更新
+     * 上传到私有空间时，超出剩余额度的图片不入库（记为失败并清理文件），入库时再以条件更新校验额度
+     *
+     * @param loginUser                   登录用户
+     * @param ingestResult                批量上传结果（超出额度的图片会移入失败明细）
+     * @param pictureUploadByBatchRequest 抓取请求
+     * @param nameStartIndex              图片名称序号的起始值
+     * @return 保存的图片数量
+     */
+    private int savePictureBatch(User loginUser, BatchPictureIngester.IngestResult ingestResult, PictureUploadByBatchRequest pictureUploadByBatchRequest, int nameStartIndex) {
+        Long spaceId = pictureUploadByBatchRequest.getSpaceId();
+        if (spaceId != null) {
+            trimToSpaceQuota(spaceId, ingestResult);
+        }
+        List<PictureUploadResult> uploadResults = ingestResult.getUploadResults();
+        if (CollUtil.isEmpty(uploadResults)) {
+            return 0;
+        }
+        // 图片名称前缀默认为搜索词
+        String namePrefix = StrUtil.blankToDefault(pictureUploadByBatchRequest.getNamePrefix(), pictureUploadByBatchRequest.getQ());
+        String tags = CollUtil.isEmpty(pictureUploadByBatchRequest.getTags()) ? null : JSONUtil.toJsonStr(pictureUploadByBatchRequest.getTags());
+        List<Picture> pictureList = new ArrayList<>(uploadResults.size());
+        for (int i = 0; i < uploadResults.size(); i++) {
+            PictureUploadRequest pictureUploadRequest = new PictureUploadRequest();
+            pictureUploadRequest.setSpaceId(spaceId);
+            pictureUploadRequest.setName(namePrefix + (nameStartIndex + i + 1));
+            Picture picture = persistencePictureInfo(loginUser, uploadResults.get(i), pictureUploadRequest);
+            picture.setCategory(pictureUploadByBatchRequest.getCategory());
+            picture.setTags(tags);
+            pictureList.add(picture);
+        }
+        long totalSize = pictureList.stream().mapToLong(picture -> ObjUtil.defaultIfNull(picture.getPicSize(), 0L)).sum();
+        try {
+            transactionTemplate.execute(status -> {
+                if (spaceId != null) {
+                    // 先占用额度，并发上传已占用了额度时整批拒绝
+                    boolean increased = spaceService.tryIncreaseSpaceUsage(spaceId, totalSize, pictureList.size());
+                    ThrowUtils.throwIf(!increased, ErrorCode.OPERATION_ERROR, "空间额度不足");
+                }
+                uploadResults.forEach(this::referencePictureFile);
+                boolean result = this.saveBatch(pictureList);
+                ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "图片保存失败");
+                pictureTagService.replacePictureTags(pictureList);
+                applicationEventPublisher.publishEvent(new PictureChangedEvent(this,
+                        pictureList.stream().map(Picture::getId).collect(Collectors.toList()), pictureList));
+                return true;
+            });
+        } catch (RuntimeException e) {
+            // 入库失败，清理本次新上传的文件（复用的已有文件保留）
+            for (int i = 0; i < pictureList.size(); i++) {
+                if (!uploadResults.get(i).isReused()) {
+                    clearPictureFile(pictureList.get(i));
+                }
+            }
+            throw e;
+        }
+        pictureList.forEach(pictureRenditionManager::submit);
+        return pictureList.size();
+    }
+
+    /**
+     * 按空间剩余额度截取批量上传结果，超出额度的图片移入失败明细，并清理其已上传的文件
+     *
+     * @param spaceId      空间 id
+     * @param ingestResult 批量上传结果
+     */
+    private void trimToSpaceQuota(Long spaceId, BatchPictureIngester.IngestResult ingestResult) {
+        Space space = spaceService.getCachedSpaceWithUsage(spaceId);
+        ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
+        long remainingSize = space.getMaxSize() - space.getTotalSize();
+        long remainingCount = space.getMaxCount() - space.getTotalCount();
+        List<PictureUploadResult> uploadResults = ingestResult.getUploadResults();
+        List<String> uploadUrls = ingestResult.getUploadUrls();
+        int fitCount = 0;
+        long fitSize = 0;
+        while (fitCount < uploadResults.size() && fitCount < remainingCount) {
+            long picSize = ObjUtil.defaultIfNull(uploadResults.get(fitCount).getPicSize(), 0L);
+            if (fitSize + picSize > remainingSize) {
+                break;
+            }
+            fitSize += picSize;
+            fitCount++;
+        }
+        for (int i = uploadResults.size() - 1; i >= fitCount; i--) {
+            PictureUploadResult uploadResult = uploadResults.remove(i);
+            ingestResult.getFailures().put(uploadUrls.remove(i), "空间额度不足");
+            if (uploadResult.isReused()) {
+                continue;
+            }
+            Picture picture = new Picture();
+            picture.setUrl(uploadResult.getUrl());
+            picture.setThumbnailUrl(uploadResult.getThumbnailUrl());
+            picture.setContentHash(uploadResult.getContentHash());
+            clearPictureFile(picture);
+        }
     }
 
     /**
@@ -515,16 +943,17 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
             // 操作数据库
             boolean result = this.removeById(pictureId);
             ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+            pictureTagService.removeByPictureIds(Collections.singletonList(pictureId));
+            // 释放文件引用，最后一个引用释放后，事务提交时删除对象存储中的图片（加入删除队列，后台批量删除）
+            releasePictureFile(oldPicture);
             // 释放额度
             Long spaceId = oldPicture.getSpaceId();
             if (spaceId != null) {
-                boolean update = spaceService.lambdaUpdate().eq(Space::getId, spaceId).setSql("totalSize = totalSize - " + oldPicture.getPicSize()).setSql("totalCount = totalCount - 1").update();
-                ThrowUtils.throwIf(!update, ErrorCode.OPERATION_ERROR, "额度更新失败");
+                spaceService.updateSpaceUsage(spaceId, -ObjUtil.defaultIfNull(oldPicture.getPicSize(), 0L), -1);
             }
+            applicationEventPublisher.publishEvent(new PictureChangedEvent(this, pictureId, oldPicture));
             return true;
         });
-        // 删除对象存储中的图片(异步)
-        this.clearPictureFile(oldPicture);
     }
 
     /**
@@ -562,9 +991,55 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
             log.info("空间 id 为空，默认公共图库, [{}]", oldPicture.getUrl());
         }
         fillReviewParams(picture, loginUser, spaceId);
-        // 操作数据库
-        boolean result = this.updateById(picture);
-        ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        // 操作数据库，同步更新标签索引
+        picture.setSpaceId(oldPicture.getSpaceId());
+        transactionTemplate.execute(status -> {
+            boolean result = this.updateById(picture);
+            ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+            // 未传标签时 tags 字段不更新，标签索引也保持不变
+            if (pictureEditRequest.getTags() != null) {
+                pictureTagService.replacePictureTags(Collections.singletonList(picture));
+            }
+            applicationEventPublisher.publishEvent(new PictureChangedEvent(this, id, oldPicture, picture));
+            return true;
+        });
+    }
+
+    /**
+     * 更新图片（仅管理员可用）
+     *
+     * @param pictureUpdateRequest 图片更新参数
+     * @param request              更新请求
+     */
+    @Override
+    public void updatePicture(PictureUpdateRequest pictureUpdateRequest, HttpServletRequest request) {
+        if (pictureUpdateRequest == null || pictureUpdateRequest.getId() <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        // 将实体类和 DTO 进行转换
+        Picture picture = new Picture();
+        BeanUtils.copyProperties(pictureUpdateRequest, picture);
+        // 注意将 list 转为 string
+        picture.setTags(JSONUtil.toJsonStr(pictureUpdateRequest.getTags()));
+        // 数据校验
+        this.validPicture(picture);
+        // 判断是否存在
+        long id = pictureUpdateRequest.getId();
+        Picture oldPicture = this.getById(id);
+        ThrowUtils.throwIf(oldPicture == null, ErrorCode.NOT_FOUND_ERROR);
+        // 填充审核参数
+        fillReviewParams(picture, userService.getLoginUser(request), 1L);
+        // 操作数据库，同步更新标签索引（空间 id 不可修改，补充后用于标签索引和列表缓存失效）
+        picture.setSpaceId(oldPicture.getSpaceId());
+        transactionTemplate.execute(status -> {
+            boolean result = this.updateById(picture);
+            ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+            if (pictureUpdateRequest.getTags() != null) {
+                pictureTagService.replacePictureTags(Collections.singletonList(picture));
+            }
+            applicationEventPublisher.publishEvent(new PictureChangedEvent(this, id, oldPicture, picture));
+            return true;
+        });
     }
 
     /**
@@ -582,6 +1057,165 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
 
         // 空间权限校验
+        checkListPictureAuth(pictureQueryRequest, request);
+        // 公开图库优先使用筛选索引
+        Page<PictureVO> indexPage = listPictureVOByIndex(pictureQueryRequest, request);
+        if (indexPage != null) {
+            return indexPage;
+        }
+        // 查询数据库（只读取列表展示需要的字段）
+        Page<PictureGridRow> pictureGridRowPage = this.pageGridRows(new Page<>(current, size), this.getQueryWrapper(pictureQueryRequest));
+        // 获取封装类
+        return this.getPictureGridVOPage(pictureGridRowPage, request);
+    }
+
+    /**
+     * 通过筛选索引分页查询公开图库：在索引中完成筛选、计数和分页，只回表查询当前页的图片
+     *
+     * @param pictureQueryRequest 分页查询请求（已完成权限校验）
+     * @param request             登录态
+     * @return 图片列表，查询条件不受索引支持或索引未就绪时返回 null
+     */
+    private Page<PictureVO> listPictureVOByIndex(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
+        if (!isBitmapIndexQuery(pictureQueryRequest) || pictureQueryRequest.getCurrent() < 1) {
+            return null;
+        }
+        long current = pictureQueryRequest.getCurrent();
+        long size = pictureQueryRequest.getPageSize();
+        boolean ascend = "ascend".equals(pictureQueryRequest.getSortOrder());
+        Page<PictureGridRow> picturePage = null;
+        // 其他节点的变更尚未同步时，索引可能与数据库不一致：刷新不一致的图片后重新查询索引，补齐当前页
+        for (int attempt = 0; attempt <= INDEX_STALE_RETRIES; attempt++) {
+            PictureBitmapIndex.IndexPage indexPage = pictureBitmapIndex.query(pictureQueryRequest.getCategory(),
+                    pictureQueryRequest.getTags(), pictureQueryRequest.getPicFormat(), ascend, current, size);
+            if (indexPage == null) {
+                return null;
+            }
+            picturePage = new Page<>(current, size, indexPage.getTotal());
+            List<Long> ids = indexPage.getIds();
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<Long, PictureGridRow> pictureMap = this.listGridRows(new QueryWrapper<Picture>().in("id", ids)).stream()
+                    .collect(Collectors.toMap(PictureGridRow::getId, picture -> picture));
+            // 按索引顺序排列，跳过与数据库不一致的图片
+            List<PictureGridRow> pictureList = new ArrayList<>(ids.size());
+            List<Long> staleIds = new ArrayList<>();
+            for (Long id : ids) {
+                PictureGridRow picture = pictureMap.get(id);
+                if (picture == null || picture.getSpaceId() != null
+                        || !Integer.valueOf(PictureReviewStatusEnum.PASS.getValue()).equals(picture.getReviewStatus())) {
+                    staleIds.add(id);
+                } else {
+                    pictureList.add(picture);
+                }
+            }
+            picturePage.setRecords(pictureList);
+            if (staleIds.isEmpty()) {
+                break;
+            }
+            pictureBitmapIndex.refresh(staleIds);
+        }
+        return this.getPictureGridVOPage(picturePage, request);
+    }
+
+    /**
+     * 是否为筛选索引支持的查询：公开图库的已过审图片，仅按分类、标签、格式筛选，且指定按创建时间排序
+     * 未指定排序字段的查询不使用索引，与数据库查询的返回顺序保持一致
+     */
+    private boolean isBitmapIndexQuery(PictureQueryRequest pictureQueryRequest) {
+        String sortField = pictureQueryRequest.getSortField();
+        return pictureQueryRequest.isNullSpaceId()
+                && pictureQueryRequest.getSpaceId() == null
+                && Integer.valueOf(PictureReviewStatusEnum.PASS.getValue()).equals(pictureQueryRequest.getReviewStatus())
+                && ObjUtil.isAllEmpty(pictureQueryRequest.getId(), pictureQueryRequest.getUserId(), pictureQueryRequest.getPicSize(),
+                pictureQueryRequest.getPicWidth(), pictureQueryRequest.getPicHeight(), pictureQueryRequest.getReviewerId(),
+                pictureQueryRequest.getStartEditTime(), pictureQueryRequest.getEndEditTime())
+                && StrUtil.isAllBlank(pictureQueryRequest.getName(), pictureQueryRequest.getIntroduction(),
+                pictureQueryRequest.getSearchText(), pictureQueryRequest.getReviewMessage())
+                && "createTime".equals(sortField);
+    }
+
+    /**
+     * 公开图库分面统计（按分类、标签、格式计数）
+     *
+     * @param pictureQueryRequest 筛选条件（分类、标签、格式）
+     * @return 分面统计结果
+     */
+    @Override
+    public PictureFacetVO getPictureFacets(PictureQueryRequest pictureQueryRequest) {
+        ThrowUtils.throwIf(pictureQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        PictureFacetVO pictureFacetVO = pictureBitmapIndex.facet(pictureQueryRequest.getCategory(),
+                pictureQueryRequest.getTags(), pictureQueryRequest.getPicFormat(), FACET_LIMIT);
+        ThrowUtils.throwIf(pictureFacetVO == null, ErrorCode.SYSTEM_ERROR, "统计数据准备中，请稍后重试");
+        return pictureFacetVO;
+    }
+
+    /**
+     * 游标分页获取图片列表
+     * 以 (排序时间, id) 作为游标向后定位，不使用 OFFSET，翻到多深的页都只扫描一页数据，默认不统计总数
+     *
+     * @param pictureCursorQueryRequest 游标分页查询请求
+     * @param request                   登录态
+     * @return 图片列表
+     */
+    @Override
+    public CursorPage<PictureVO> listPictureVOByCursor(PictureCursorQueryRequest pictureCursorQueryRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(pictureCursorQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        int size = pictureCursorQueryRequest.getPageSize();
+        // 限制爬虫
+        ThrowUtils.throwIf(size <= 0 || size > 20, ErrorCode.PARAMS_ERROR);
+        String sortField = StrUtil.blankToDefault(pictureCursorQueryRequest.getSortField(), "createTime");
+        ThrowUtils.throwIf(!CURSOR_SORT_FIELDS.contains(sortField), ErrorCode.PARAMS_ERROR, "仅支持按创建时间或编辑时间排序");
+        boolean ascend = "ascend".equals(pictureCursorQueryRequest.getSortOrder());
+        CursorUtils.Cursor cursor = StrUtil.isBlank(pictureCursorQueryRequest.getCursor()) ? null
+                : CursorUtils.decode(pictureCursorQueryRequest.getCursor(), sortField, ascend);
+        // 空间权限校验
+        checkListPictureAuth(pictureCursorQueryRequest, request);
+        // 按游标的排序字段排序（全文检索时也不再按相关度排序）
+        pictureCursorQueryRequest.setSortField(sortField);
+        pictureCursorQueryRequest.setSortOrder(ascend ? "ascend" : "descend");
+        CursorPage<PictureVO> cursorPage = new CursorPage<>();
+        if (pictureCursorQueryRequest.isNeedTotal()) {
+            cursorPage.setTotal(this.count(this.getQueryWrapper(pictureCursorQueryRequest)));
+        }
+        QueryWrapper<Picture> queryWrapper = this.getQueryWrapper(pictureCursorQueryRequest);
+        // 定位到游标之后：sortField < v OR (sortField = v AND id < lastId)，可直接使用 (…, sortField) 索引范围扫描
+        if (cursor != null) {
+            Date sortValue = new Date(cursor.getSortValue());
+            long lastId = cursor.getId();
+            if (ascend) {
+                queryWrapper.and(qw -> qw.gt(sortField, sortValue).or(or -> or.eq(sortField, sortValue).gt("id", lastId)));
+            } else {
+                queryWrapper.and(qw -> qw.lt(sortField, sortValue).or(or -> or.eq(sortField, sortValue).lt("id", lastId)));
+            }
+        }
+        queryWrapper.orderBy(true, ascend, "id");
+        // 多查一条用于判断是否还有下一页
+        queryWrapper.last("limit " + (size + 1));
+        List<PictureGridRow> pictureList = this.listGridRows(queryWrapper);
+        boolean hasMore = pictureList.size() > size;
+        if (hasMore) {
+            pictureList = pictureList.subList(0, size);
+            PictureGridRow last = pictureList.get(size - 1);
+            Date lastSortValue = "editTime".equals(sortField) ? last.getEditTime() : last.getCreateTime();
+            cursorPage.setNextCursor(CursorUtils.encode(new CursorUtils.Cursor(sortField, ascend, lastSortValue.getTime(), last.getId())));
+        }
+        cursorPage.setHasMore(hasMore);
+        // 复用分页封装逻辑（批量关联用户信息）
+        Page<PictureGridRow> picturePage = new Page<>(1, size, false);
+        picturePage.setRecords(pictureList);
+        cursorPage.setRecords(this.getPictureGridVOPage(picturePage, request).getRecords());
+        return cursorPage;
+    }
+
+    /**
+     * 图片列表查询的空间权限校验：公开图库只能查看已过审的数据，私有空间仅空间创建人可查看
+     *
+     * @param pictureQueryRequest 查询请求（公开图库时补充过审及公共空间条件）
+     * @param request             登录态
+     */
+    private void checkListPictureAuth(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
         Long spaceId = pictureQueryRequest.getSpaceId();
         // 公开图库
         if (spaceId == null) {
@@ -591,16 +1225,12 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         } else {
             // 私有空间
             User loginUser = userService.getLoginUser(request);
-            Space space = spaceService.getById(spaceId);
+            Space space = spaceService.getCachedSpace(spaceId);
             ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
             if (!loginUser.getId().equals(space.getUserId())) {
                 throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
             }
         }
-        // 查询数据库
-        Page<Picture> picturePage = this.page(new Page<>(current, size), this.getQueryWrapper(pictureQueryRequest));
-        // 获取封装类
-        return this.getPictureVOPage(picturePage, request);
     }
 
     /**
@@ -617,67 +1247,49 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         // 限制爬虫
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
         // 空间权限校验
-        Long spaceId = pictureQueryRequest.getSpaceId();
-        // 公开图库
-        if (spaceId == null) {
-            // 普通用户默认只能查看已过审的公开数据
-            pictureQueryRequest.setReviewStatus(PictureReviewStatusEnum.PASS.getValue());
-            pictureQueryRequest.setNullSpaceId(true);
-        } else {
-            // 私有空间
-            User loginUser = userService.getLoginUser(request);
-            Space space = spaceService.getById(spaceId);
-            ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
-            if (!loginUser.getId().equals(space.getUserId())) {
-                throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
-            }
-        }
+        checkListPictureAuth(pictureQueryRequest, request);
 
-        // 查询缓存
+        // 查询缓存，缓存键包含命名空间及其版本号，失效时递增版本号即可
+        String versionTag = pictureListCacheVersion.getVersionTag(pictureQueryRequest.getSpaceId(), pictureQueryRequest.getCategory());
+        if (versionTag == null) {
+            // 无法确认缓存版本，直接查询
+            return listPictureVOByPage(pictureQueryRequest, request);
+        }
         String queryCondition = JSONUtil.toJsonStr(pictureQueryRequest);
         String hashKey = DigestUtils.md5DigestAsHex(queryCondition.getBytes(StandardCharsets.UTF_8));
-        String cacheKey = String.format("pixpicture:listPictureVOByPage:%s", hashKey);
-        String cacheValue = null;
-        // 1. 先从本地缓存查询数据
-        cacheValue = LOCAL_CACHE.getIfPresent(cacheKey);
-        if (StrUtil.isNotBlank(cacheValue)) {
-            // 缓存命中，返回查询结果
-            Page<PictureVO> pictureVOPage = JSONUtil.toBean(cacheValue, Page.class);
-            return pictureVOPage;
-        }
-        // 2. 本地缓存未命中，查询 redis 分布式缓存
-        ValueOperations<String, String> opsForValue = stringRedisTemplate.opsForValue();
-        cacheValue = opsForValue.get(cacheKey);
-        if (StrUtil.isNotBlank(cacheValue)) {
-            // redis缓存命中，将redis缓存调入本地缓存，并返回结果
-            LOCAL_CACHE.put(cacheKey, JSONUtil.toJsonStr(cacheValue));
-            Page<PictureVO> pictureVOPage = JSONUtil.toBean(cacheValue, Page.class);
+        String cacheKey = String.format("pixpicture:listPictureVOByPage:%s:v%s:%s",
+                pictureListCacheVersion.getScope(pictureQueryRequest.getSpaceId()), versionTag, hashKey);
+        // 查询两级缓存（本地缓存 -> redis 分布式缓存），未命中时优先查询筛选索引，不支持时查询数据库
+        // 缓存可能在后台线程中刷新，查询时不使用当前请求
+        return pictureListCache.get(cacheKey, () -> {
+            Page<PictureVO> pictureVOPage = listPictureVOByIndex(pictureQueryRequest, null);
+            if (pictureVOPage == null) {
+                Page<PictureGridRow> pictureGridRowPage = this.pageGridRows(new Page<>(current, size), getQueryWrapper(pictureQueryRequest));
+                pictureVOPage = this.getPictureGridVOPage(pictureGridRowPage, null);
+            }
             return pictureVOPage;
-        }
-        // 3. 缓存未命中，查询数据库
-        Page<Picture> picturePage = this.page(new Page<>(current, size), getQueryWrapper(pictureQueryRequest));
-        Page<PictureVO> pictureVOPage = this.getPictureVOPage(picturePage, request);
-        // 4. 更新缓存
-        // 查询结果写入caffeine本地缓存
-        LOCAL_CACHE.put(cacheKey, JSONUtil.toJsonStr(pictureVOPage));
-        // 查询结果写入 redis缓存, 设置随机5-10min 过期时间，防止缓存雪崩
-        int cacheExpireTime = 300 + RandomUtil.randomInt(0, 300);
-        opsForValue.set(cacheKey, JSONUtil.toJsonStr(pictureVOPage), cacheExpireTime, TimeUnit.SECONDS);
-        // 5. 返回查询结果
-        return pictureVOPage;
+        });
     }
 
 
-    @Async
     @Override
     public void clearPictureFile(Picture oldPicture) {
+        // 相同内容的图片共用对象存储文件，调用方需确认文件已没有引用（见 releasePictureFile）
         // 清理压缩图
-        cosManager.deleteObject(oldPicture.getUrl());
+        List<String> keys = new ArrayList<>();
+        keys.add(objectStorage.getKey(oldPicture.getUrl()));
         // 清理缩略图
         String thumbnailUrl = oldPicture.getThumbnailUrl();
-        if (StrUtil.isNotBlank(thumbnailUrl)) {
-            cosManager.deleteObject(thumbnailUrl);
+        if (StrUtil.isNotBlank(thumbnailUrl) && !thumbnailUrl.equals(oldPicture.getUrl())) {
+            keys.add(objectStorage.getKey(thumbnailUrl));
         }
+        // 清理响应式尺寸图片
+        if (StrUtil.isNotBlank(oldPicture.getRenditions())) {
+            JSONUtil.toList(oldPicture.getRenditions(), PictureRendition.class)
+                    .forEach(rendition -> keys.add(objectStorage.getKey(rendition.getUrl())));
+        }
+        // 加入持久化的删除队列，由后台批量删除
+        objectDeletionQueue.enqueue(keys);
     }
 
     /**
@@ -744,13 +1356,13 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         ThrowUtils.throwIf(spaceId == null || StrUtil.isBlank(picColor), ErrorCode.PARAMS_ERROR);
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
         // 2. 校验空间权限
-        Space space = spaceService.getById(spaceId);
+        Space space = spaceService.getCachedSpace(spaceId);
         ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
         if (!loginUser.getId().equals(space.getUserId())) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间访问权限");
         }
-        // 3. 查询该空间下所有图片（必须有主色调）
-        List<Picture> pictureList = this.lambdaQuery().eq(Picture::getSpaceId, spaceId).isNotNull(Picture::getPicColor).list();
+        // 3. 查询该空间下所有图片的主色调（必须有主色调，只读取 id 和主色调）
+        List<PictureColorRow> pictureList = this.baseMapper.selectColorList(spaceId);
         // 如果没有图片，直接返回空列表
         if (CollUtil.isEmpty(pictureList)) {
             return Collections.emptyList();
@@ -758,7 +1370,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         // 将目标颜色转为 Color 对象
         Color targetColor = Color.decode(picColor);
         // 4. 计算相似度并排序
-        List<Picture> sortedPictures = pictureList.stream().sorted(Comparator.comparingDouble(picture -> {
+        List<Long> sortedIds = pictureList.stream().sorted(Comparator.comparingDouble(picture -> {
                     // 提取图片主色调
                     String hexColor = picture.getPicColor();
                     // 没有主色调的图片放到最后
@@ -771,10 +1383,12 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
                     return -ColorSimilarUtils.calculateSimilarity(targetColor, pictureColor);
                 }))
                 // 取前 12 个
-                .limit(12).collect(Collectors.toList());
+                .limit(12).map(PictureColorRow::getId).collect(Collectors.toList());
 
-        // 转换为 PictureVO
-        return sortedPictures.stream().map(PictureVO::objToVo).collect(Collectors.toList());
+        // 5. 只查询最相似的图片，按相似度顺序转换为 PictureVO
+        Map<Long, PictureGridRow> pictureMap = this.listGridRows(new QueryWrapper<Picture>().in("id", sortedIds)).stream()
+                .collect(Collectors.toMap(PictureGridRow::getId, picture -> picture));
+        return sortedIds.stream().map(pictureMap::get).filter(Objects::nonNull).map(PictureVO::gridRowToVo).collect(Collectors.toList());
     }
 
     /**
@@ -793,18 +1407,26 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
         ThrowUtils.throwIf(spaceId == null || CollUtil.isEmpty(pictureIdList), ErrorCode.PARAMS_ERROR);
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
         // 2. 校验空间权限
-        Space space = spaceService.getById(spaceId);
+        Space space = spaceService.getCachedSpace(spaceId);
         ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
         if (!loginUser.getId().equals(space.getUserId())) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间访问权限");
         }
 
         // 3. 查询指定图片，仅选择需要的字段
-        List<Picture> pictureList = this.lambdaQuery().select(Picture::getId, Picture::getSpaceId).eq(Picture::getSpaceId, spaceId).in(Picture::getId, pictureIdList).list();
+        List<Picture> pictureList = this.lambdaQuery().select(Picture::getId, Picture::getSpaceId, Picture::getCategory).eq(Picture::getSpaceId, spaceId).in(Picture::getId, pictureIdList).list();
 
         if (pictureList.isEmpty()) {
             return;
         }
+        // 记录原分类，用于失效列表缓存；不修改分类时不写回
+        List<Picture> oldPictureList = pictureList.stream().map(picture -> {
+            Picture oldPicture = new Picture();
+            oldPicture.setSpaceId(picture.getSpaceId());
+            oldPicture.setCategory(picture.getCategory());
+            picture.setCategory(null);
+            return oldPicture;
+        }).collect(Collectors.toList());
 
         String nameRule = pictureEditByBatchRequest.getNameRule();
         String category = pictureEditByBatchRequest.getCategory();
@@ -824,8 +1446,16 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
             }
         });
 
-        // 6. 批量更新
-        boolean result = this.updateBatchById(pictureList);
+        // 6. 批量更新，标签变化时同步更新标签索引
+        boolean result = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean updated = this.updateBatchById(pictureList);
+            if (updated && CollUtil.isNotEmpty(tags)) {
+                pictureTagService.replacePictureTags(pictureList);
+            }
+            applicationEventPublisher.publishEvent(new PictureChangedEvent(this,
+                    pictureList.stream().map(Picture::getId).collect(Collectors.toList()), CollUtil.addAll(oldPictureList, pictureList)));
+            return updated;
+        }));
         log.info("用户[{}]，批量更新图片:[{}]条，图片详情:{}, 更新结果:{}", loginUser.getId(), pictureList.size(), pictureList, result);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
     }
@@ -883,25 +1513,23 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture> impl
      */
     @Override
     public boolean refreshAllListPictureVOByPageCache() {
-        // 定义缓存前缀
-        String cachePrefix = "pixpicture:listPictureVOByPage:";
-
-        // 1. 删除本地 Caffeine 缓存
-        LOCAL_CACHE.asMap().keySet().stream()
-                .filter(key -> key.startsWith(cachePrefix))
-                .forEach(LOCAL_CACHE::invalidate);
-
-        // 2. 删除 Redis 缓存
-        // 使用 Redis 的 keys 命令找到所有匹配的键（需谨慎，keys 命令可能性能较低）
-        Set<String> keys = stringRedisTemplate.keys(cachePrefix + "*");
-        if (keys != null && !keys.isEmpty()) {
-            stringRedisTemplate.delete(keys);
-        }
-
-        // 返回刷新成功
+        // 递增全局版本号，所有节点的本地缓存和 Redis 缓存中的旧数据不再被访问，由过期时间淘汰
+        pictureListCacheVersion.bumpGlobal();
+        // 同时清空所有节点的本地缓存，释放旧数据占用的内存
+        pictureListCache.invalidateAllLocal();
         return true;
     }
 
+    /**
+     * 刷新公共图库或某个私有空间的 listPictureVOByPage 缓存
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     */
+    @Override
+    public void refreshListPictureVOByPageCache(Long spaceId) {
+        pictureListCacheVersion.bumpScope(spaceId);
+    }
+
 
 
 }
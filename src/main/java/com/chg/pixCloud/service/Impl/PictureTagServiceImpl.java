@@ -0,0 +1,70 @@
+package com.chg.pixCloud.service.Impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.mapper.PictureTagMapper;
+import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.entity.PictureTag;
+import com.chg.pixCloud.service.PictureTagService;
+import com.chg.pixCloud.utils.ThrowUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author c
+ * @description 针对表【picture_tag(图片标签)】的数据库操作Service实现
+ */
+@Service
+public class PictureTagServiceImpl extends ServiceImpl<PictureTagMapper, PictureTag>
+        implements PictureTagService {
+
+    /**
+     * 标签最大长度（与表字段一致）
+     */
+    private static final int MAX_TAG_LENGTH = 128;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void replacePictureTags(List<Picture> pictureList) {
+        if (CollUtil.isEmpty(pictureList)) {
+            return;
+        }
+        removeByPictureIds(pictureList.stream().map(Picture::getId).collect(Collectors.toList()));
+        List<PictureTag> pictureTagList = new ArrayList<>();
+        for (Picture picture : pictureList) {
+            if (StrUtil.isBlank(picture.getTags())) {
+                continue;
+            }
+            // 去除空白和重复标签
+            Set<String> tags = JSONUtil.toList(picture.getTags(), String.class).stream()
+                    .filter(StrUtil::isNotBlank)
+                    .map(String::trim)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            for (String tag : tags) {
+                ThrowUtils.throwIf(tag.length() > MAX_TAG_LENGTH, ErrorCode.PARAMS_ERROR, "标签过长");
+                PictureTag pictureTag = new PictureTag();
+                pictureTag.setPictureId(picture.getId());
+                pictureTag.setTag(tag);
+                pictureTag.setSpaceId(picture.getSpaceId());
+                pictureTagList.add(pictureTag);
+            }
+        }
+        if (!pictureTagList.isEmpty()) {
+            this.saveBatch(pictureTagList);
+        }
+    }
+
+    @Override
+    public void removeByPictureIds(Collection<Long> pictureIds) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        this.lambdaUpdate().in(PictureTag::getPictureId, pictureIds).remove();
+    }
+}
@@ -1,16 +1,17 @@
 package com.chg.pixCloud.service.Impl;
 
 import cn.hutool.core.util.ObjUtil;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.exception.BusinessException;
 import com.chg.pixCloud.model.dto.space.analyze.*;
 import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.entity.PictureTag;
 import com.chg.pixCloud.model.entity.Space;
 import com.chg.pixCloud.model.entity.User;
 import com.chg.pixCloud.model.vo.space.analyze.*;
 import com.chg.pixCloud.service.PictureService;
+import com.chg.pixCloud.service.PictureTagService;
 import com.chg.pixCloud.service.SpaceAnalyzeService;
 import com.chg.pixCloud.service.SpaceService;
 import com.chg.pixCloud.service.UserService;
@@ -21,7 +22,6 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.chg.pixCloud.common.Constants.*;
@@ -35,6 +35,8 @@ public class SpaceAnalyzeServiceImpl implements SpaceAnalyzeService {
     private SpaceService spaceService;
     @Resource
     private PictureService pictureService;
+    @Resource
+    private PictureTagService pictureTagService;
 
 
     /**
@@ -73,8 +75,8 @@ public class SpaceAnalyzeServiceImpl implements SpaceAnalyzeService {
                 throw new BusinessException(ErrorCode.PARAMS_ERROR);
             }
             ThrowUtils.throwIf(spaceId == null || spaceId <= 0, ErrorCode.PARAMS_ERROR);
-            // 获取空间信息
-            Space space = spaceService.getById(spaceId);
+            // 获取空间信息（已用额度读取计数器）
+            Space space = spaceService.getCachedSpaceWithUsage(spaceId);
             ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
             // 权限校验
             spaceService.checkSpaceAuth(loginUser, space);
@@ -126,15 +128,14 @@ public class SpaceAnalyzeServiceImpl implements SpaceAnalyzeService {
         ThrowUtils.throwIf(spaceTagAnalyzeRequest == null, ErrorCode.PARAMS_ERROR);
         // 校验权限
         checkSpaceAnalyzeAuth(spaceTagAnalyzeRequest, loginUser);
-        // 构建查询条件
-        QueryWrapper<Picture> queryWrapper = new QueryWrapper<>();
+        // 构建查询条件（标签表冗余了空间 id，直接在标签表上分组统计）
+        QueryWrapper<PictureTag> queryWrapper = new QueryWrapper<>();
         fillAnalyzeQueryWrapper(spaceTagAnalyzeRequest, queryWrapper);
-        queryWrapper.select("tags");
-        List<String> tagsJsonList = pictureService.getBaseMapper().selectObjs(queryWrapper).stream().filter(ObjUtil::isNotEmpty).map(Object::toString).toList();
-        // 合并所有标签，并统计每个标签的出现次数
-        Map<String, Long> tagsCount = tagsJsonList.stream().flatMap(tagsJson -> JSONUtil.toList(tagsJson, String.class).stream()).collect(Collectors.groupingBy(tag -> tag, Collectors.counting()));
+        queryWrapper.select("tag", "count(*) as count").groupBy("tag");
         // 将结果转换为 SpaceTagAnalyzeResponse 对象列表
-        return tagsCount.entrySet().stream().map(entry -> new SpaceTagAnalyzeResponse(entry.getKey(), entry.getValue())).collect(Collectors.toList());
+        return pictureTagService.getBaseMapper().selectMaps(queryWrapper).stream()
+                .map(obj -> new SpaceTagAnalyzeResponse(obj.get("tag").toString(), ((Number) obj.get("count")).longValue()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -240,7 +241,7 @@ public class SpaceAnalyzeServiceImpl implements SpaceAnalyzeService {
             // 私有空间权限校验
             Long spaceId = spaceAnalyzeRequest.getSpaceId();
             ThrowUtils.throwIf(spaceId == null || spaceId <= 0, ErrorCode.PARAMS_ERROR);
-            Space space = spaceService.getById(spaceId);
+            Space space = spaceService.getCachedSpace(spaceId);
             ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
             spaceService.checkSpaceAuth(loginUser, space);
         }
@@ -252,7 +253,7 @@ public class SpaceAnalyzeServiceImpl implements SpaceAnalyzeService {
      * @param spaceAnalyzeRequest 空间分析请求对象，包含查询条件等信息
      * @param queryWrapper        MyBatis-Plus的查询包装器，用于构建查询条件
      */
-    private static void fillAnalyzeQueryWrapper(SpaceAnalyzeRequest spaceAnalyzeRequest, QueryWrapper<Picture> queryWrapper) {
+    private static <T> void fillAnalyzeQueryWrapper(SpaceAnalyzeRequest spaceAnalyzeRequest, QueryWrapper<T> queryWrapper) {
         if (spaceAnalyzeRequest.isQueryAll()) {
             return;
         }
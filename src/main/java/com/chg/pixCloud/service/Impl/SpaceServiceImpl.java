@@ -9,7 +9,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chg.pixCloud.common.DeleteRequest;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.exception.BusinessException;
-import com.chg.pixCloud.manager.CosManager;
+import com.chg.pixCloud.manager.cache.SpaceCache;
 import com.chg.pixCloud.mapper.SpaceMapper;
 import com.chg.pixCloud.model.dto.space.SpaceAddRequest;
 import com.chg.pixCloud.model.dto.space.SpaceEditRequest;
@@ -44,9 +44,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
     @Resource
     UserService userService;
     @Resource
-    CosManager cosManager;
-    @Resource
     private TransactionTemplate transactionTemplate;
+    @Resource
+    SpaceCache spaceCache;
 
     /**
      * 本地锁
@@ -78,6 +78,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 操作数据库
         boolean result = this.updateById(space);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        spaceCache.invalidate(id);
     }
 
 
@@ -159,6 +160,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 操作数据库
         boolean removed = this.removeById(spaceId);
         ThrowUtils.throwIf(!removed, ErrorCode.OPERATION_ERROR, "删除失败，请稍后重试");
+        spaceCache.invalidate(spaceId);
     }
 
     /**
@@ -191,6 +193,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 操作数据库
         boolean result = this.updateById(space);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        spaceCache.invalidate(spaceId);
     }
 
     /**
@@ -270,9 +273,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 关联查询用户信息
         Long userId = spaceVO.getUserId();
         if (userId != null && userId > 0) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            spaceVO.setUser(userVO);
+            spaceVO.setUser(userService.getUserVOById(userId));
         }
         return spaceVO;
     }
@@ -293,21 +294,10 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         Set<Long> userIdSet = spaceList.stream()
                 .map(Space::getUserId)
                 .collect(Collectors.toSet());
-        // 1.2 查询用户信息，按用户 ID（User::getId）对用户信息分组，生成 Map<Long, List<User>>。
-        // 其中 key 是用户 id，value 是对应的用户对象列表（通常一个 id 对应一个用户，List<User> 长度为 1）
-        Map<Long, List<User>> userIdUserListMap = userService.listByIds(userIdSet)
-                .stream()
-                .collect(Collectors.groupingBy(User::getId));
+        // 1.2 批量查询用户脱敏信息（优先命中缓存，未命中的用户一次查询数据库）
+        Map<Long, UserVO> userVOMap = userService.getUserVOMapByIds(userIdSet);
         // 2. 填充信息
-        spaceVOList.forEach(spaceVO -> {
-            Long userId = spaceVO.getUserId();
-            User user = null;
-            if (userIdUserListMap.containsKey(userId)) {
-                // 获取用户分组中第一个用户对象
-                user = userIdUserListMap.get(userId).get(0);
-            }
-            spaceVO.setUser(userService.getUserVO(user));
-        });
+        spaceVOList.forEach(spaceVO -> spaceVO.setUser(userVOMap.get(spaceVO.getUserId())));
         spaceVOPage.setRecords(spaceVOList);
         return spaceVOPage;
     }
@@ -355,6 +345,47 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         }
     }
 
+    @Override
+    public Space getCachedSpace(Long spaceId) {
+        if (spaceId == null || spaceId <= 0) {
+            return null;
+        }
+        return spaceCache.get(spaceId, this::getById);
+    }
+
+    @Override
+    public Space getCachedSpaceWithUsage(Long spaceId) {
+        if (spaceId == null || spaceId <= 0) {
+            return null;
+        }
+        return spaceCache.getWithUsage(spaceId, this::getById);
+    }
+
+    @Override
+    public void updateSpaceUsage(Long spaceId, long sizeDelta, long countDelta) {
+        boolean updated = this.lambdaUpdate().eq(Space::getId, spaceId)
+                .setSql("totalSize = totalSize + " + sizeDelta)
+                .setSql("totalCount = totalCount + " + countDelta)
+                .update();
+        ThrowUtils.throwIf(!updated, ErrorCode.OPERATION_ERROR, "额度更新失败");
+        spaceCache.incrementUsage(spaceId, sizeDelta, countDelta);
+    }
+
+    @Override
+    public boolean tryIncreaseSpaceUsage(Long spaceId, long sizeDelta, long countDelta) {
+        // 额度校验与增加在同一条语句中完成，并发写入不会超出额度
+        boolean updated = this.lambdaUpdate().eq(Space::getId, spaceId)
+                .setSql("totalSize = totalSize + " + sizeDelta)
+                .setSql("totalCount = totalCount + " + countDelta)
+                .apply("totalSize + {0} <= maxSize", sizeDelta)
+                .apply("totalCount + {0} <= maxCount", countDelta)
+                .update();
+        if (updated) {
+            spaceCache.incrementUsage(spaceId, sizeDelta, countDelta);
+        }
+        return updated;
+    }
+
 }
 
 
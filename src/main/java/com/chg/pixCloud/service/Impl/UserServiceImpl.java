@@ -10,6 +10,8 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chg.pixCloud.common.ErrorCode;
 import com.chg.pixCloud.constant.UserConstant;
 import com.chg.pixCloud.exception.BusinessException;
+import com.chg.pixCloud.manager.cache.LoginUserCache;
+import com.chg.pixCloud.manager.cache.UserVOCache;
 import com.chg.pixCloud.model.dto.user.UserQueryRequest;
 import com.chg.pixCloud.model.entity.User;
 import com.chg.pixCloud.model.enums.UserRoleEnum;
@@ -25,10 +27,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.DigestUtils;
 
+import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +43,10 @@ import java.util.stream.Collectors;
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
+    @Resource
+    UserVOCache userVOCache;
+    @Resource
+    LoginUserCache loginUserCache;
 
     /**
      * 用户注册
@@ -123,14 +130,22 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      */
     @Override
     public User getLoginUser(HttpServletRequest request) {
+        // 同一请求内（权限校验切面和业务代码）只查询一次
+        Object memoUser = request.getAttribute(UserConstant.LOGIN_USER_ATTRIBUTE);
+        if (memoUser instanceof User) {
+            return (User) memoUser;
+        }
         // 判断是否登录
         Object userObj = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
         User currentUser = (User) userObj;
         ThrowUtils.throwIf(currentUser == null || currentUser.getId() == null, ErrorCode.NOT_LOGIN_ERROR);
 
-        // 从数据库中查询（若追求性能，可以直接注释，返回上述结果）
+        // 登录态中的用户可能已过期，通过带版本号的本地缓存获取最新用户信息，缓存未命中或已变更时查询数据库
         long userId = currentUser.getId();
-        currentUser = this.getById(userId);
+        currentUser = loginUserCache.get(userId, this::getById);
+        if (currentUser != null) {
+            request.setAttribute(UserConstant.LOGIN_USER_ATTRIBUTE, currentUser);
+        }
         return currentUser;
     }
 
@@ -163,6 +178,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         ThrowUtils.throwIf(userObj == null, ErrorCode.OPERATION_ERROR, "未登录");
         // 移除登录态
         request.getSession().removeAttribute(UserConstant.USER_LOGIN_STATE);
+        request.removeAttribute(UserConstant.LOGIN_USER_ATTRIBUTE);
         return true;
     }
 
@@ -184,6 +200,47 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return userList.stream().map(this::getUserVO).collect(Collectors.toList());
     }
 
+    @Override
+    public UserVO getUserVOById(Long userId) {
+        if (userId == null || userId <= 0) {
+            return null;
+        }
+        return getUserVOMapByIds(Collections.singletonList(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Long, UserVO> getUserVOMapByIds(Collection<Long> userIds) {
+        return userVOCache.getAll(userIds, missIds -> this.listByIds(missIds).stream()
+                .collect(Collectors.toMap(User::getId, this::getUserVO)));
+    }
+
+    /**
+     * 更新用户（同时删除用户信息缓存）
+     */
+    @Override
+    public boolean updateById(User user) {
+        boolean result = super.updateById(user);
+        if (result) {
+            userVOCache.invalidate(user.getId());
+            loginUserCache.bumpVersion(user.getId());
+        }
+        return result;
+    }
+
+    /**
+     * 删除用户（同时删除用户信息缓存）
+     */
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if (result) {
+            Long userId = Long.valueOf(id.toString());
+            userVOCache.invalidate(userId);
+            loginUserCache.bumpVersion(userId);
+        }
+        return result;
+    }
+
     @Override
     public QueryWrapper<User> getQueryWrapper(UserQueryRequest userQueryRequest) {
         ThrowUtils.throwIf(userQueryRequest == null, ErrorCode.PARAMS_ERROR);
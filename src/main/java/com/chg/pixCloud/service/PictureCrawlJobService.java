@@ -0,0 +1,54 @@
+package com.chg.pixCloud.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.chg.pixCloud.model.dto.crawl.CrawlFailureQueryRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobAddRequest;
+import com.chg.pixCloud.model.dto.crawl.CrawlJobQueryRequest;
+import com.chg.pixCloud.model.entity.PictureCrawlFailure;
+import com.chg.pixCloud.model.entity.PictureCrawlJob;
+import com.chg.pixCloud.model.entity.User;
+
+/**
+ * @author c
+ * @description 针对表【picture_crawl_job(图片抓取任务)】的数据库操作Service
+ */
+public interface PictureCrawlJobService extends IService<PictureCrawlJob> {
+
+    /**
+     * 创建抓取任务（异步执行）
+     *
+     * @param crawlJobAddRequest 创建任务请求
+     * @param loginUser          登录用户
+     * @return 任务 id
+     */
+    long addCrawlJob(CrawlJobAddRequest crawlJobAddRequest, User loginUser);
+
+    /**
+     * 取消抓取任务（已上传的图片保留）
+     *
+     * @param id 任务 id
+     */
+    void cancelCrawlJob(long id);
+
+    /**
+     * 分页查询抓取任务
+     *
+     * @param crawlJobQueryRequest 查询请求
+     * @return 任务分页
+     */
+    Page<PictureCrawlJob> listCrawlJobByPage(CrawlJobQueryRequest crawlJobQueryRequest);
+
+    /**
+     * 分页查询抓取失败记录
+     *
+     * @param crawlFailureQueryRequest 查询请求
+     * @return 失败记录分页
+     */
+    Page<PictureCrawlFailure> listCrawlFailureByPage(CrawlFailureQueryRequest crawlFailureQueryRequest);
+
+    /**
+     * 恢复抓取任务：重置长时间未更新进度的执行中任务（所在节点已宕机），并调度所有等待中的任务
+     */
+    void recoverCrawlJobs();
+}
@@ -0,0 +1,35 @@
+package com.chg.pixCloud.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.chg.pixCloud.model.entity.PictureObject;
+
+/**
+ * @author c
+ * @description 针对表【picture_object(图片文件引用计数)】的数据库操作Service
+ * 以下方法均需与图片记录的新增、删除在同一事务中调用
+ */
+public interface PictureObjectService extends IService<PictureObject> {
+
+    /**
+     * 新上传的文件，创建引用记录（引用数为 1）
+     *
+     * @param url 图片地址
+     */
+    void createReference(String url);
+
+    /**
+     * 复用已有文件，引用数加一
+     *
+     * @param url 图片地址
+     * @return 文件的最后一个引用已被释放（文件即将删除）时返回 false，需重新上传
+     */
+    boolean acquireReference(String url);
+
+    /**
+     * 释放一个引用
+     *
+     * @param url 图片地址
+     * @return 是否为最后一个引用（为 true 时调用方在事务提交后删除文件）
+     */
+    boolean releaseReference(String url);
+}
@@ -4,16 +4,20 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.chg.pixCloud.api.aliyunai.model.CreateOutPaintingTaskResponse;
+import com.chg.pixCloud.common.CursorPage;
 import com.chg.pixCloud.common.DeleteRequest;
+import com.chg.pixCloud.manager.upload.BatchPictureIngester;
 import com.chg.pixCloud.model.dto.picture.*;
 import com.chg.pixCloud.model.entity.Picture;
 import com.chg.pixCloud.model.entity.User;
+import com.chg.pixCloud.model.vo.PictureChunkUploadVO;
+import com.chg.pixCloud.model.vo.PictureFacetVO;
 import com.chg.pixCloud.model.vo.PictureVO;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author chg
@@ -32,6 +36,51 @@ public interface PictureService extends IService<Picture> {
      */
     PictureVO uploadPicture(Object inputSource, PictureUploadRequest uploadRequest, User user);
 
+    /**
+     * 初始化分片上传
+     *
+     * @param initRequest 初始化请求
+     * @param loginUser   登录用户
+     * @return 分片上传状态
+     */
+    PictureChunkUploadVO initChunkUpload(PictureChunkUploadInitRequest initRequest, User loginUser);
+
+    /**
+     * 上传分片，分片在独立线程池中并行转存到对象存储
+     *
+     * @param partRequest 分片信息
+     * @param data        分片数据
+     * @param loginUser   登录用户
+     * @return 转存结果
+     */
+    CompletableFuture<Void> uploadChunk(PictureChunkUploadPartRequest partRequest, byte[] data, User loginUser);
+
+    /**
+     * 查询分片上传状态（用于断点续传）
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     * @return 分片上传状态
+     */
+    PictureChunkUploadVO getChunkUploadStatus(String uploadId, User loginUser);
+
+    /**
+     * 完成分片上传：合并分片，保存图片记录并更新空间额度
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     * @return 图片信息
+     */
+    PictureVO completeChunkUpload(String uploadId, User loginUser);
+
+    /**
+     * 取消分片上传
+     *
+     * @param uploadId  分片上传 id
+     * @param loginUser 登录用户
+     */
+    void abortChunkUpload(String uploadId, User loginUser);
+
     /**
      * 根据查询请求构造查询条件
      *
@@ -59,6 +108,32 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, HttpServletRequest request);
 
+    /**
+     * 分页获取图片列表封装（网格投影）
+     *
+     * @param pictureGridRowPage 图片列表投影分页
+     * @param request            请求
+     * @return 图片封装分页
+     */
+    Page<PictureVO> getPictureGridVOPage(Page<PictureGridRow> pictureGridRowPage, HttpServletRequest request);
+
+    /**
+     * 分页查询图片列表（网格投影，只读取列表展示需要的字段，自动排除已删除记录）
+     *
+     * @param page         分页参数
+     * @param queryWrapper 查询条件
+     * @return 图片列表投影分页
+     */
+    Page<PictureGridRow> pageGridRows(Page<PictureGridRow> page, QueryWrapper<Picture> queryWrapper);
+
+    /**
+     * 查询图片列表（网格投影，只读取列表展示需要的字段，自动排除已删除记录）
+     *
+     * @param queryWrapper 查询条件
+     * @return 图片列表投影
+     */
+    List<PictureGridRow> listGridRows(QueryWrapper<Picture> queryWrapper);
+
     /**
      * 图片数据校验，用于更新和修改图片时进行判断
      *
@@ -91,6 +166,16 @@ public interface PictureService extends IService<Picture> {
      */
     Integer uploadPictureByBatch(PictureUploadByBatchRequest pictureUploadByBatchRequest, User loginUser);
 
+    /**
+     * 抓取一批图片并上传（批量保存图片记录）
+     *
+     * @param pictureUploadByBatchRequest 抓取请求
+     * @param loginUser                   登录用户
+     * @param nameStartIndex              图片名称序号的起始值（分批抓取时续接序号）
+     * @return 批量上传结果
+     */
+    BatchPictureIngester.IngestResult crawlAndUploadPictures(PictureUploadByBatchRequest pictureUploadByBatchRequest, User loginUser, int nameStartIndex);
+
     /**
      * 删除图片
      *
@@ -107,6 +192,14 @@ public interface PictureService extends IService<Picture> {
      */
     void editPicture(PictureEditRequest pictureEditRequest, HttpServletRequest request);
 
+    /**
+     * 更新图片（仅管理员可用）
+     *
+     * @param pictureUpdateRequest 图片更新参数
+     * @param request              更新请求
+     */
+    void updatePicture(PictureUpdateRequest pictureUpdateRequest, HttpServletRequest request);
+
     /**
      * 分页获取图片列表（普通用户）
      *
@@ -116,6 +209,23 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> listPictureVOByPage(PictureQueryRequest pictureQueryRequest, HttpServletRequest request);
 
+    /**
+     * 游标分页获取图片列表（普通用户）
+     *
+     * @param pictureCursorQueryRequest 游标分页查询请求
+     * @param request                   登录态
+     * @return 图片列表
+     */
+    CursorPage<PictureVO> listPictureVOByCursor(PictureCursorQueryRequest pictureCursorQueryRequest, HttpServletRequest request);
+
+    /**
+     * 公开图库分面统计（按分类、标签、格式计数）
+     *
+     * @param pictureQueryRequest 筛选条件（分类、标签、格式）
+     * @return 分面统计结果
+     */
+    PictureFacetVO getPictureFacets(PictureQueryRequest pictureQueryRequest);
+
     /**
      * 分页获取图片列表（有缓存）
      *
@@ -127,11 +237,10 @@ public interface PictureService extends IService<Picture> {
                                                  HttpServletRequest request);
 
     /**
-     * 清理图片
+     * 清理图片（须在数据库事务提交后、且文件已没有图片引用时调用，文件加入删除队列后由后台批量删除）
      *
      * @param oldPicture 清理图片
      */
-    @Async
     void clearPictureFile(Picture oldPicture);
 
     /**
@@ -185,4 +294,11 @@ public interface PictureService extends IService<Picture> {
      * @return 刷新状态
      */
     boolean refreshAllListPictureVOByPageCache();
+
+    /**
+     * 刷新公共图库或某个私有空间的 listPictureVOByPage 缓存
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     */
+    void refreshListPictureVOByPageCache(Long spaceId);
 }
@@ -0,0 +1,29 @@
+package com.chg.pixCloud.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.entity.PictureTag;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author c
+ * @description 针对表【picture_tag(图片标签)】的数据库操作Service
+ */
+public interface PictureTagService extends IService<PictureTag> {
+
+    /**
+     * 按图片的 tags 字段重建标签索引（需与图片的修改在同一事务中调用）
+     *
+     * @param pictureList 图片（需包含 id、spaceId、tags）
+     */
+    void replacePictureTags(List<Picture> pictureList);
+
+    /**
+     * 删除图片的标签索引
+     *
+     * @param pictureIds 图片 id
+     */
+    void removeByPictureIds(Collection<Long> pictureIds);
+}
@@ -108,4 +108,39 @@ public interface SpaceService extends IService<Space> {
      * @param space     待校验的空间
      */
     void checkSpaceAuth(User loginUser, Space space);
+
+    /**
+     * 获取空间基本信息（优先读取缓存，用于归属校验；已用额度可能不是最新值）
+     *
+     * @param spaceId 空间 id
+     * @return 空间，不存在时为 null
+     */
+    Space getCachedSpace(Long spaceId);
+
+    /**
+     * 获取空间信息及最新的已用额度（已用额度读取 Redis 计数器，用于额度校验）
+     *
+     * @param spaceId 空间 id
+     * @return 空间，不存在时为 null
+     */
+    Space getCachedSpaceWithUsage(Long spaceId);
+
+    /**
+     * 更新空间已用额度（数据库原子增减，事务提交后同步增减额度计数器）
+     *
+     * @param spaceId    空间 id
+     * @param sizeDelta  已用大小变化量
+     * @param countDelta 图片数量变化量
+     */
+    void updateSpaceUsage(Long spaceId, long sizeDelta, long countDelta);
+
+    /**
+     * 额度足够时增加空间已用额度（数据库条件更新，事务提交后同步增加额度计数器）
+     *
+     * @param spaceId    空间 id
+     * @param sizeDelta  增加的大小
+     * @param countDelta 增加的图片数量
+     * @return 额度不足时返回 false，不做任何修改
+     */
+    boolean tryIncreaseSpaceUsage(Long spaceId, long sizeDelta, long countDelta);
 }
@@ -8,7 +8,9 @@ import com.chg.pixCloud.model.vo.LoginUserVO;
 import com.chg.pixCloud.model.vo.UserVO;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author c
@@ -76,6 +78,22 @@ public interface UserService extends IService<User> {
      */
     List<UserVO> getUserVOList(List<User> userList);
 
+    /**
+     * 根据 id 获取脱敏用户信息（两级缓存）
+     *
+     * @param userId 用户 id
+     * @return 脱敏用户信息，用户不存在时为 null
+     */
+    UserVO getUserVOById(Long userId);
+
+    /**
+     * 根据 id 批量获取脱敏用户信息（两级缓存，未命中的用户批量查询数据库）
+     *
+     * @param userIds 用户 id
+     * @return 用户 id -> 脱敏用户信息（不存在的用户不包含在内）
+     */
+    Map<Long, UserVO> getUserVOMapByIds(Collection<Long> userIds);
+
 
     /**
      * 根据传递参数构造查询条件
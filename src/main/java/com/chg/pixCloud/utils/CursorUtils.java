@@ -0,0 +1,75 @@
+package com.chg.pixCloud.utils;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import com.chg.pixCloud.common.ErrorCode;
+import com.chg.pixCloud.exception.BusinessException;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 游标编解码
+ * 游标记录上一页最后一条数据的排序值和 id，并绑定排序字段和顺序，对客户端不透明
+ */
+public class CursorUtils {
+
+    private CursorUtils() {
+    }
+
+    /**
+     * 游标内容
+     */
+    @Data
+    public static class Cursor {
+
+        /**
+         * 排序字段
+         */
+        private final String sortField;
+
+        /**
+         * 是否升序
+         */
+        private final boolean ascend;
+
+        /**
+         * 排序值（时间戳）
+         */
+        private final long sortValue;
+
+        /**
+         * 数据 id
+         */
+        private final long id;
+    }
+
+    /**
+     * 编码游标
+     */
+    public static String encode(Cursor cursor) {
+        String raw = String.format("%s,%s,%d,%d", cursor.getSortField(), cursor.isAscend() ? "a" : "d", cursor.getSortValue(), cursor.getId());
+        return Base64.encodeUrlSafe(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，并校验与本次请求的排序方式一致
+     *
+     * @param token     游标
+     * @param sortField 排序字段
+     * @param ascend    是否升序
+     * @return 游标内容
+     */
+    public static Cursor decode(String token, String sortField, boolean ascend) {
+        try {
+            List<String> parts = StrUtil.split(Base64.decodeStr(token, StandardCharsets.UTF_8), ',');
+            if (parts.size() == 4 && parts.get(0).equals(sortField) && parts.get(1).equals(ascend ? "a" : "d")) {
+                return new Cursor(sortField, ascend, Long.parseLong(parts.get(2)), Long.parseLong(parts.get(3)));
+            }
+        } catch (RuntimeException ignored) {
+            // 统一按游标非法处理
+        }
+        throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标非法或与排序方式不一致");
+    }
+}
@@ -0,0 +1,29 @@
+package com.chg.pixCloud.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ */
+public class TransactionUtils {
+
+    /**
+     * 在当前事务提交后执行（不在事务中时立即执行）
+     * 用于删除缓存等操作，避免事务提交前被其他请求以旧数据回填
+     *
+     * @param action 执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.chg.pixCloud;
+
+import cn.hutool.json.JSONUtil;
+import com.chg.pixCloud.manager.cache.CacheCoherenceBus;
+import com.chg.pixCloud.manager.cache.CacheInvalidationMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CacheCoherenceBusTest {
+
+    private CacheCoherenceBus cacheCoherenceBus;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final List<String> invalidatedKeys = new ArrayList<>();
+
+    private final AtomicInteger invalidateAllCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        cacheCoherenceBus = new CacheCoherenceBus();
+        ReflectionTestUtils.setField(cacheCoherenceBus, "stringRedisTemplate", stringRedisTemplate);
+        cacheCoherenceBus.register("user:vo", invalidatedKeys::add, invalidateAllCount::incrementAndGet);
+    }
+
+    @Test
+    void testFlush_BatchAndDeduplicate() {
+        cacheCoherenceBus.publish("user:vo", "1");
+        cacheCoherenceBus.publish("user:vo", "1");
+        cacheCoherenceBus.publish("user:vo", "2");
+        cacheCoherenceBus.publish("space", "3");
+        cacheCoherenceBus.publishAll("space");
+        cacheCoherenceBus.flush();
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, times(1)).convertAndSend(anyString(), captor.capture());
+        CacheInvalidationMessage message = JSONUtil.toBean(captor.getValue(), CacheInvalidationMessage.class);
+        assertEquals(1L, message.getSeq());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), new HashSet<>(message.getKeys().get("user:vo")));
+        assertFalse(message.getKeys().containsKey("space"));
+        assertEquals(Collections.singletonList("space"), message.getAll());
+    }
+
+    @Test
+    void testOnMessage_ApplyRemoteAndIgnoreSelf() {
+        receive(message("other", 1, "5"));
+        assertEquals(Collections.singletonList("5"), invalidatedKeys);
+        // 本节点发送的消息已在本地执行
+        cacheCoherenceBus.publish("user:vo", "6");
+        cacheCoherenceBus.flush();
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(anyString(), captor.capture());
+        receive(captor.getValue());
+        assertEquals(Collections.singletonList("5"), invalidatedKeys);
+        assertEquals(0, invalidateAllCount.get());
+    }
+
+    @Test
+    void testOnMessage_SeqGapResync() {
+        receive(message("other", 1, "1"));
+        receive(message("other", 2, "2"));
+        assertEquals(0, invalidateAllCount.get());
+        // 序号 3 丢失
+        receive(message("other", 4, "4"));
+        assertEquals(1, invalidateAllCount.get());
+    }
+
+    private void receive(String body) {
+        cacheCoherenceBus.onMessage(new DefaultMessage("pixcloud:cache:invalidate".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static String message(String nodeId, long seq, String userId) {
+        CacheInvalidationMessage message = new CacheInvalidationMessage();
+        message.setNodeId(nodeId);
+        message.setSeq(seq);
+        message.setKeys(Collections.singletonMap("user:vo", Collections.singletonList(userId)));
+        return JSONUtil.toJsonStr(message);
+    }
+}
@@ -0,0 +1,74 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.manager.analyzer.ImageAnalysisResult;
+import com.chg.pixCloud.manager.analyzer.ImageIoImageAnalyzer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片分析器基准测试
+ * 对比降采样分析与完整解码的耗时，运行方式：执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageAnalyzerBenchmark {
+
+    @Param({"jpg", "png"})
+    private String format;
+
+    @Param({"1024", "4096"})
+    private int size;
+
+    private byte[] data;
+
+    private final ImageIoImageAnalyzer imageAnalyzer = new ImageIoImageAnalyzer();
+
+    @Setup
+    public void setup() throws IOException {
+        // 生成带随机色块的测试图片
+        BufferedImage image = new BufferedImage(size, size * 3 / 4, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillRect(random.nextInt(size), random.nextInt(size), size / 8, size / 8);
+        }
+        graphics.dispose();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        data = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public ImageAnalysisResult analyze() throws IOException {
+        return imageAnalyzer.analyze(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    public BufferedImage fullDecode() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ImageAnalyzerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.manager.analyzer.ImageAnalysisResult;
+import com.chg.pixCloud.manager.analyzer.ImageIoImageAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageIoImageAnalyzerTest {
+
+    private final ImageIoImageAnalyzer imageAnalyzer = new ImageIoImageAnalyzer();
+
+    private static byte[] createImage(int width, int height, Color color, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    void testAnalyze_Png() throws IOException {
+        // 测试宽高、格式和纯色图片的主色调
+        byte[] data = createImage(800, 600, new Color(0x00, 0x80, 0xE0), "png");
+        ImageAnalysisResult result = imageAnalyzer.analyze(new ByteArrayInputStream(data));
+        assertNotNull(result);
+        assertEquals(800, result.getWidth());
+        assertEquals(600, result.getHeight());
+        assertEquals("png", result.getFormat());
+        assertEquals("0x0080E0", result.getColor());
+    }
+
+    @Test
+    void testAnalyze_JpegFormat() throws IOException {
+        // 测试 jpeg 格式名称统一为 jpg
+        byte[] data = createImage(120, 90, Color.WHITE, "jpg");
+        ImageAnalysisResult result = imageAnalyzer.analyze(new ByteArrayInputStream(data));
+        assertNotNull(result);
+        assertEquals("jpg", result.getFormat());
+        assertEquals(120, result.getWidth());
+        assertEquals(90, result.getHeight());
+    }
+
+    @Test
+    void testAnalyze_UnknownFormat() throws IOException {
+        // 测试无法识别的格式
+        byte[] data = "not an image".getBytes();
+        assertNull(imageAnalyzer.analyze(new ByteArrayInputStream(data)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.chg.pixCloud;
+
+import cn.hutool.core.lang.TypeReference;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.manager.cache.codec.CacheCodec;
+import com.chg.pixCloud.manager.cache.codec.JsonCacheCodec;
+import com.chg.pixCloud.manager.cache.codec.PictureVOPageCodec;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import com.chg.pixCloud.model.vo.PictureVO;
+import com.chg.pixCloud.model.vo.UserVO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片列表缓存编解码基准测试
+ * 对比原有的 JSON 字符串方式（解码为 Page.class）、按类型解码的 JSON 与二进制（可选压缩）编码的耗时，
+ * 编码后的大小在初始化时输出，运行方式：执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListCacheCodecBenchmark {
+
+    @Param({"legacy-json", "json", "bin", "bin-deflate"})
+    private String codecName;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private Page<PictureVO> page;
+
+    private CacheCodec<Page<PictureVO>> codec;
+
+    private String legacyData;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        page = samplePage(pageSize);
+        switch (codecName) {
+            case "bin":
+                codec = new PictureVOPageCodec(0);
+                break;
+            case "bin-deflate":
+                codec = new PictureVOPageCodec(1024);
+                break;
+            default:
+                codec = new JsonCacheCodec<>(new TypeReference<Page<PictureVO>>() {
+                });
+        }
+        legacyData = JSONUtil.toJsonStr(page);
+        data = codec.encode(page);
+        System.out.printf("%n[%s] 编码后大小: %d 字节%n", codecName, data.length);
+    }
+
+    @Benchmark
+    public Object encode() {
+        if ("legacy-json".equals(codecName)) {
+            return JSONUtil.toJsonStr(page);
+        }
+        return codec.encode(page);
+    }
+
+    @Benchmark
+    public Object decode() {
+        if ("legacy-json".equals(codecName)) {
+            // 原有方式：记录被解码为无类型的 Map
+            return JSONUtil.toBean(legacyData, Page.class);
+        }
+        return codec.decode(data);
+    }
+
+    private static Page<PictureVO> samplePage(int size) {
+        Page<PictureVO> page = new Page<>(1, size, 1000);
+        List<PictureVO> records = new ArrayList<>();
+        for (long id = 0; id < size; id++) {
+            PictureVO pictureVO = new PictureVO();
+            pictureVO.setId(1860000000000000000L + id);
+            pictureVO.setUrl("https://pixcloud-1300000000.cos.ap-shanghai.myqcloud.com/public/1860000000000000000/2024-12-01_abcdef" + id + ".png");
+            pictureVO.setThumbnailUrl("https://pixcloud-1300000000.cos.ap-shanghai.myqcloud.com/public/1860000000000000000/2024-12-01_abcdef" + id + "_thumbnail.webp");
+            pictureVO.setName("风景图片" + id);
+            pictureVO.setIntroduction("一张高清的风景图片");
+            pictureVO.setTags(Arrays.asList("高清", "风景", "壁纸"));
+            pictureVO.setCategory("壁纸");
+            pictureVO.setPicSize(2_000_000L + id);
+            pictureVO.setPicWidth(1920);
+            pictureVO.setPicHeight(1080);
+            pictureVO.setPicScale(1.78);
+            pictureVO.setPicFormat("png");
+            pictureVO.setUserId(1860000000000000001L);
+            pictureVO.setCreateTime(new Date(1733000000000L + id));
+            pictureVO.setEditTime(new Date(1733000000000L + id));
+            pictureVO.setPicColor("0x4a6b8c");
+            List<PictureRendition> renditions = new ArrayList<>();
+            for (int width : new int[]{320, 640, 1024, 1600}) {
+                PictureRendition rendition = new PictureRendition();
+                rendition.setWidth(width);
+                rendition.setHeight(width * 9 / 16);
+                rendition.setFormat("webp");
+                rendition.setUrl(pictureVO.getUrl() + "_" + width + ".webp");
+                renditions.add(rendition);
+            }
+            pictureVO.setRenditions(renditions);
+            UserVO userVO = new UserVO();
+            userVO.setId(1860000000000000001L);
+            userVO.setUserAccount("pixcloud");
+            userVO.setUserName("管理员");
+            userVO.setUserRole("admin");
+            userVO.setCreateTime(new Date(1730000000000L));
+            pictureVO.setUser(userVO);
+            records.add(pictureVO);
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ListCacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
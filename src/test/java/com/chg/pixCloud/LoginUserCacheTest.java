@@ -0,0 +1,96 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.manager.cache.CacheCoherenceBus;
+import com.chg.pixCloud.manager.cache.LoginUserCache;
+import com.chg.pixCloud.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LoginUserCacheTest {
+
+    private LoginUserCache loginUserCache;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private final Function<Long, User> loader = userId -> {
+        loadCount.incrementAndGet();
+        User user = new User();
+        user.setId(userId);
+        user.setUserRole("user");
+        return user;
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        loginUserCache = new LoginUserCache();
+        ReflectionTestUtils.setField(loginUserCache, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(loginUserCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(loginUserCache, "cacheCoherenceBus", mock(CacheCoherenceBus.class));
+        loginUserCache.init();
+    }
+
+    @Test
+    void testGet_CachedWithinCheckInterval() {
+        User first = loginUserCache.get(1L, loader);
+        User second = loginUserCache.get(1L, loader);
+        assertSame(first, second);
+        assertEquals(1, loadCount.get());
+        // 校验间隔内不读取版本号
+        verify(valueOperations, times(1)).get(anyString());
+        assertEquals(1.0, meterRegistry.get("user.login.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testGet_ReloadWhenVersionChanged() {
+        when(valueOperations.get(anyString())).thenReturn("1");
+        loginUserCache.get(1L, loader);
+        // 模拟其他节点修改了用户，并超过校验间隔
+        when(valueOperations.get(anyString())).thenReturn("2");
+        expireCheckInterval(1L);
+        loginUserCache.get(1L, loader);
+        assertEquals(2, loadCount.get());
+        // 版本号未变化时继续使用缓存
+        expireCheckInterval(1L);
+        loginUserCache.get(1L, loader);
+        assertEquals(2, loadCount.get());
+        assertEquals(1.0, meterRegistry.get("user.login.cache").tag("result", "revalidated").counter().count());
+    }
+
+    @Test
+    void testGet_NotCachedWhenRedisUnavailable() {
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("redis down"));
+        loginUserCache.get(1L, loader);
+        loginUserCache.get(1L, loader);
+        assertEquals(2, loadCount.get());
+    }
+
+    /**
+     * 将缓存项的版本确认时间往前调，模拟超过校验间隔
+     */
+    @SuppressWarnings("unchecked")
+    private void expireCheckInterval(Long userId) {
+        Cache<Long, Object> localCache = (Cache<Long, Object>) ReflectionTestUtils.getField(loginUserCache, "localCache");
+        ReflectionTestUtils.setField(localCache.getIfPresent(userId), "checkedAt", 0L);
+    }
+}
@@ -0,0 +1,39 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.manager.storage.KeyBloomFilter;
+import com.chg.pixCloud.manager.storage.OrphanObjectCollector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrphanObjectCollectorTest {
+
+    @Test
+    void testGetKeyStem_DerivedKeysShareStem() {
+        // 原图、压缩图、缩略图属于同一次上传
+        String stem = "public/1/2025-01-01_abcdefgh12345678";
+        assertEquals(stem, OrphanObjectCollector.getKeyStem("/public/1/2025-01-01_abcdefgh12345678.png"));
+        assertEquals(stem, OrphanObjectCollector.getKeyStem("public/1/2025-01-01_abcdefgh12345678.webp"));
+        assertEquals(stem, OrphanObjectCollector.getKeyStem("public/1/2025-01-01_abcdefgh12345678_thumbnail.png"));
+        assertNotEquals(stem, OrphanObjectCollector.getKeyStem("space/1/2025-01-01_abcdefgh12345678.png"));
+    }
+
+    @Test
+    void testBloomFilter_NoFalseNegative() {
+        KeyBloomFilter filter = new KeyBloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("public/1/key-" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("public/1/key-" + i));
+        }
+        // 误判率接近期望值
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("space/2/other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "falsePositives=" + falsePositives);
+    }
+}
@@ -0,0 +1,90 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.manager.index.PictureBitmapIndex;
+import com.chg.pixCloud.mapper.PictureMapper;
+import com.chg.pixCloud.model.entity.Picture;
+import com.chg.pixCloud.model.vo.PictureFacetVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PictureBitmapIndexTest {
+
+    private PictureMapper pictureMapper;
+
+    private PictureBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        pictureMapper = mock(PictureMapper.class);
+        index = new PictureBitmapIndex();
+        ReflectionTestUtils.setField(index, "pictureMapper", pictureMapper);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        // 1-6 为公开已过审图片，7 未过审，8 属于私有空间
+        List<Picture> pictureList = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            pictureList.add(picture(id, null, 1, id % 2 == 0 ? "风景" : "人物", id <= 3 ? "[\"高清\",\"生活\"]" : "[\"高清\"]", id == 6 ? "webp" : "png"));
+        }
+        pictureList.add(picture(7, null, 0, "风景", "[\"高清\"]", "png"));
+        pictureList.add(picture(8, 100L, 1, "风景", "[\"高清\"]", "png"));
+        when(pictureMapper.selectList(any())).thenReturn(pictureList);
+        index.rebuild();
+    }
+
+    @Test
+    void testQuery_FilterAndPage() {
+        assertTrue(index.isReady());
+        PictureBitmapIndex.IndexPage page = index.query(null, null, null, false, 1, 4);
+        assertEquals(6, page.getTotal());
+        assertEquals(Arrays.asList(6L, 5L, 4L, 3L), page.getIds());
+        page = index.query(null, null, null, false, 2, 4);
+        assertEquals(Arrays.asList(2L, 1L), page.getIds());
+
+        page = index.query("风景", Collections.singletonList("生活"), null, true, 1, 10);
+        assertEquals(Collections.singletonList(2L), page.getIds());
+        page = index.query(null, null, "WEB", true, 1, 10);
+        assertEquals(Collections.singletonList(6L), page.getIds());
+    }
+
+    @Test
+    void testFacet_Counts() {
+        PictureFacetVO facetVO = index.facet(null, Collections.singletonList("高清"), null, 10);
+        assertEquals(6, facetVO.getTotal());
+        assertEquals(3, facetVO.getCategories().get(0).getCount());
+        assertEquals(2, facetVO.getCategories().size());
+        assertEquals("高清", facetVO.getTags().get(0).getValue());
+        assertEquals(6, facetVO.getTags().get(0).getCount());
+        assertEquals("png", facetVO.getPicFormats().get(0).getValue());
+        assertEquals(5, facetVO.getPicFormats().get(0).getCount());
+    }
+
+    @Test
+    void testRefresh_UpdateAndRemove() {
+        // 图片 1 改为未过审，图片 2 已删除
+        when(pictureMapper.selectList(any())).thenReturn(Collections.singletonList(picture(1, null, 2, "人物", "[]", "png")));
+        index.refresh(Arrays.asList(1L, 2L));
+        PictureBitmapIndex.IndexPage page = index.query(null, null, null, true, 1, 10);
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L), page.getIds());
+        assertEquals(1, index.query(null, Collections.singletonList("生活"), null, true, 1, 10).getTotal());
+    }
+
+    private static Picture picture(long id, Long spaceId, int reviewStatus, String category, String tags, String picFormat) {
+        Picture picture = new Picture();
+        picture.setId(id);
+        picture.setSpaceId(spaceId);
+        picture.setReviewStatus(reviewStatus);
+        picture.setCategory(category);
+        picture.setTags(tags);
+        picture.setPicFormat(picFormat);
+        picture.setCreateTime(new Date(1_700_000_000_000L + id * 1000));
+        return picture;
+    }
+}
@@ -0,0 +1,94 @@
+package com.chg.pixCloud;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.config.ListCacheConfig;
+import com.chg.pixCloud.manager.cache.CacheCoherenceBus;
+import com.chg.pixCloud.manager.cache.PictureListCache;
+import com.chg.pixCloud.model.vo.PictureVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PictureListCacheTest {
+
+    private PictureListCache pictureListCache;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private final Supplier<Page<PictureVO>> loader = () -> {
+        loadCount.incrementAndGet();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Page<>(1, 10, 0);
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Redis 中没有缓存数据，租约总能获取
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4));
+        pictureListCache = new PictureListCache();
+        ReflectionTestUtils.setField(pictureListCache, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(pictureListCache, "listCacheConfig", new ListCacheConfig());
+        ReflectionTestUtils.setField(pictureListCache, "listCacheRefreshExecutor", refreshExecutor);
+        ReflectionTestUtils.setField(pictureListCache, "cacheCoherenceBus", mock(CacheCoherenceBus.class));
+        pictureListCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void testGet_ConcurrentMissLoadsOnce() throws Exception {
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Page<PictureVO>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return pictureListCache.get("key", loader);
+            }));
+        }
+        start.countDown();
+        Page<PictureVO> first = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Page<PictureVO>> future : futures) {
+            assertSame(first, future.get(5, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    void testGet_LocalHit() {
+        Page<PictureVO> page = pictureListCache.get("key", loader);
+        assertSame(page, pictureListCache.get("key", loader));
+        assertEquals(1, loadCount.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.mapper.PictureObjectMapper;
+import com.chg.pixCloud.model.entity.PictureObject;
+import com.chg.pixCloud.service.Impl.PictureObjectServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PictureObjectServiceTest {
+
+    private static final String URL = "https://cdn.example.com/public/1/2025-01-01_abcdefgh12345678.webp";
+
+    private PictureObjectServiceImpl pictureObjectService;
+
+    /**
+     * 模拟 picture_object 表：url -> refCount
+     */
+    private final Map<String, Integer> refCounts = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        PictureObjectMapper mapper = mock(PictureObjectMapper.class);
+        when(mapper.insert(any(PictureObject.class))).thenAnswer(invocation -> {
+            PictureObject pictureObject = invocation.getArgument(0);
+            refCounts.put(pictureObject.getUrl(), pictureObject.getRefCount());
+            return 1;
+        });
+        // 与 SQL 条件一致：仍有引用时才加一
+        when(mapper.incrementRefCount(anyString())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            Integer refCount = refCounts.get(url);
+            if (refCount == null || refCount <= 0) {
+                return 0;
+            }
+            refCounts.put(url, refCount + 1);
+            return 1;
+        });
+        when(mapper.decrementRefCount(anyString())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            Integer refCount = refCounts.get(url);
+            if (refCount == null || refCount <= 0) {
+                return 0;
+            }
+            refCounts.put(url, refCount - 1);
+            return 1;
+        });
+        when(mapper.deleteUnreferenced(anyString())).thenAnswer(invocation ->
+                refCounts.remove(invocation.getArgument(0), 0) ? 1 : 0);
+        pictureObjectService = new PictureObjectServiceImpl();
+        ReflectionTestUtils.setField(pictureObjectService, "baseMapper", mapper);
+    }
+
+    @Test
+    void testDeleteBeforeDedupSave_ReuseRejected() {
+        // 图片 A 上传，图片 B 按内容哈希查到 A 准备复用
+        pictureObjectService.createReference(URL);
+        // B 保存记录前，A 被删除并释放了最后一个引用，文件进入删除队列
+        assertTrue(pictureObjectService.releaseReference(URL));
+        // B 保存时无法再引用该文件，必须重新上传
+        assertFalse(pictureObjectService.acquireReference(URL));
+        assertFalse(refCounts.containsKey(URL));
+    }
+
+    @Test
+    void testDedupSaveBeforeDelete_FileKept() {
+        pictureObjectService.createReference(URL);
+        // B 先保存记录，A 再删除，文件仍被 B 引用
+        assertTrue(pictureObjectService.acquireReference(URL));
+        assertFalse(pictureObjectService.releaseReference(URL));
+        assertEquals(1, refCounts.get(URL));
+        // B 删除后才是最后一个引用
+        assertTrue(pictureObjectService.releaseReference(URL));
+    }
+}
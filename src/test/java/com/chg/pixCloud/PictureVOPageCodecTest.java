@@ -0,0 +1,94 @@
+package com.chg.pixCloud;
+
+import cn.hutool.core.lang.TypeReference;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.chg.pixCloud.manager.cache.codec.CacheCodec;
+import com.chg.pixCloud.manager.cache.codec.JsonCacheCodec;
+import com.chg.pixCloud.manager.cache.codec.PictureVOPageCodec;
+import com.chg.pixCloud.model.dto.picture.PictureRendition;
+import com.chg.pixCloud.model.vo.PictureVO;
+import com.chg.pixCloud.model.vo.UserVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureVOPageCodecTest {
+
+    @Test
+    void testBinary_RoundTrip() {
+        Page<PictureVO> page = samplePage(20);
+        for (int threshold : new int[]{0, 1024}) {
+            PictureVOPageCodec codec = new PictureVOPageCodec(threshold);
+            Page<PictureVO> decoded = codec.decode(codec.encode(page));
+            assertEquals(page.getCurrent(), decoded.getCurrent());
+            assertEquals(page.getSize(), decoded.getSize());
+            assertEquals(page.getTotal(), decoded.getTotal());
+            assertEquals(page.getRecords(), decoded.getRecords());
+        }
+    }
+
+    @Test
+    void testBinary_CompressedSmaller() {
+        Page<PictureVO> page = samplePage(20);
+        int plain = new PictureVOPageCodec(0).encode(page).length;
+        int deflated = new PictureVOPageCodec(1024).encode(page).length;
+        assertTrue(deflated < plain);
+    }
+
+    @Test
+    void testBinary_RejectUnknownFormat() {
+        PictureVOPageCodec codec = new PictureVOPageCodec(0);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("{\"records\":[]}".getBytes()));
+    }
+
+    @Test
+    void testJson_TypedRecords() {
+        CacheCodec<Page<PictureVO>> codec = new JsonCacheCodec<>(new TypeReference<Page<PictureVO>>() {
+        });
+        Page<PictureVO> decoded = codec.decode(codec.encode(samplePage(2)));
+        assertEquals(2, decoded.getRecords().size());
+        assertInstanceOf(PictureVO.class, decoded.getRecords().get(0));
+        assertEquals("图片1", decoded.getRecords().get(1).getName());
+    }
+
+    private static Page<PictureVO> samplePage(int size) {
+        Page<PictureVO> page = new Page<>(1, size, 100);
+        List<PictureVO> records = new ArrayList<>();
+        for (long id = 0; id < size; id++) {
+            PictureVO pictureVO = new PictureVO();
+            pictureVO.setId(id);
+            pictureVO.setUrl("https://example.com/public/1/" + id + ".png");
+            pictureVO.setThumbnailUrl("https://example.com/public/1/" + id + "_thumbnail.webp");
+            pictureVO.setName("图片" + id);
+            pictureVO.setTags(Arrays.asList("高清", "风景"));
+            pictureVO.setCategory("素材");
+            pictureVO.setPicSize(1024L * id);
+            pictureVO.setPicWidth(1920);
+            pictureVO.setPicHeight(1080);
+            pictureVO.setPicScale(1.78);
+            pictureVO.setPicFormat("png");
+            pictureVO.setUserId(1L);
+            pictureVO.setCreateTime(new Date(1700000000000L + id));
+            pictureVO.setPicColor("0x1f2e3d");
+            PictureRendition rendition = new PictureRendition();
+            rendition.setWidth(640);
+            rendition.setHeight(360);
+            rendition.setFormat("webp");
+            rendition.setUrl("https://example.com/public/1/" + id + "_640.webp");
+            pictureVO.setRenditions(id % 2 == 0 ? Arrays.asList(rendition) : null);
+            UserVO userVO = new UserVO();
+            userVO.setId(1L);
+            userVO.setUserName("用户");
+            userVO.setUserRole("user");
+            pictureVO.setUser(userVO);
+            records.add(pictureVO);
+        }
+        page.setRecords(records);
+        return page;
+    }
+}
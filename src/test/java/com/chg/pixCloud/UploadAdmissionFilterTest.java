@@ -0,0 +1,104 @@
+package com.chg.pixCloud;
+
+import com.chg.pixCloud.config.UploadAdmissionConfig;
+import com.chg.pixCloud.constant.UserConstant;
+import com.chg.pixCloud.manager.upload.UploadAdmissionFilter;
+import com.chg.pixCloud.model.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadAdmissionFilterTest {
+
+    private static MockHttpServletRequest uploadRequest(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/picture/upload");
+        request.setContent(new byte[16]);
+        if (userId != null) {
+            User user = new User();
+            user.setId(userId);
+            request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, user);
+        }
+        return request;
+    }
+
+    @Test
+    void testReject_TooLarge() throws Exception {
+        UploadAdmissionConfig config = new UploadAdmissionConfig();
+        config.setMaxFileSize(8);
+        config.setMultipartOverhead(0);
+        UploadAdmissionFilter filter = new UploadAdmissionFilter(config, new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(null), response, new MockFilterChain());
+        assertEquals(413, response.getStatus());
+    }
+
+    @Test
+    void testReject_UserLimitAndQueueFull() throws Exception {
+        UploadAdmissionConfig config = new UploadAdmissionConfig();
+        config.setMaxConcurrent(1);
+        config.setMaxPerUser(1);
+        config.setMaxQueue(0);
+        UploadAdmissionFilter filter = new UploadAdmissionFilter(config, new SimpleMeterRegistry());
+        // 第一个请求阻塞在处理中，占用全部名额
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> first = executor.submit(() -> {
+            filter.doFilter(uploadRequest(1L), new MockHttpServletResponse(), (req, res) -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        entered.await();
+        // 同一用户超过单用户上限
+        MockHttpServletResponse sameUser = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(1L), sameUser, new MockFilterChain());
+        assertEquals(429, sameUser.getStatus());
+        // 其他用户因节点名额耗尽且不允许排队被拒绝
+        MockHttpServletResponse otherUser = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(2L), otherUser, new MockFilterChain());
+        assertEquals(429, otherUser.getStatus());
+        release.countDown();
+        first.get();
+        executor.shutdown();
+        // 名额释放后可正常处理
+        MockHttpServletResponse afterRelease = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(2L), afterRelease, new MockFilterChain());
+        assertEquals(200, afterRelease.getStatus());
+    }
+
+    @Test
+    void testAsyncRequest_HoldsPermitUntilComplete() throws Exception {
+        UploadAdmissionConfig config = new UploadAdmissionConfig();
+        config.setMaxConcurrent(1);
+        config.setMaxQueue(0);
+        UploadAdmissionFilter filter = new UploadAdmissionFilter(config, new SimpleMeterRegistry());
+        // 第一个请求开始异步处理后过滤器即返回，但名额应保留到异步处理结束
+        MockHttpServletRequest asyncRequest = uploadRequest(1L);
+        asyncRequest.setAsyncSupported(true);
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        MockHttpServletResponse whileAsync = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(2L), whileAsync, new MockFilterChain());
+        assertEquals(429, whileAsync.getStatus());
+        // 异步处理结束后释放名额
+        ((MockAsyncContext) asyncRequest.getAsyncContext()).complete();
+        MockHttpServletResponse afterComplete = new MockHttpServletResponse();
+        filter.doFilter(uploadRequest(2L), afterComplete, new MockFilterChain());
+        assertEquals(200, afterComplete.getStatus());
+    }
+}